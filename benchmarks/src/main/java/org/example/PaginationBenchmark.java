@@ -0,0 +1,44 @@
+package org.example;
+
+import org.example.model.Product;
+import org.example.util.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Main#getPaginatedProducts}: walking every page of an already loaded list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaginationBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private List<Product> products;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = BenchmarkData.products(rows);
+    }
+
+    @Benchmark
+    public void allPages(Blackhole bh) {
+        int pages = (rows + pageSize - 1) / pageSize;
+        for (int page = 1; page <= pages; page++) {
+            for (Product p : Main.getPaginatedProducts(products, page, pageSize)) {
+                bh.consume(p);
+            }
+        }
+    }
+}
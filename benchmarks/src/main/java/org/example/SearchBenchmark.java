@@ -0,0 +1,63 @@
+package org.example;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * The search box of {@link InventoryApp}: the same predicate evaluated over a plain list and
+ * through a {@link FilteredList}, as {@code applyFilter} does. No FX toolkit is needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    // Matches roughly one row in ten (a location) and almost nothing (an exact SKU)
+    @Param({"store 3", "SKU-00042"})
+    public String query;
+
+    private ObservableList<Product> data;
+    private Predicate<Product> predicate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Product> products = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            products.add(new Product(Integer.toString(i), "Product " + i, String.format("SKU-%05d", i),
+                    i % 500, (i % 10_000) / 100.0, "Store " + (i % 10)));
+        }
+        data = FXCollections.observableArrayList(products);
+        predicate = InventoryApp.searchPredicate(query);
+    }
+
+    @Benchmark
+    public int predicateScan() {
+        int matches = 0;
+        for (Product p : data) {
+            if (predicate.test(p)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int filteredList() {
+        FilteredList<Product> filtered = new FilteredList<>(data);
+        filtered.setPredicate(InventoryApp.searchPredicate(query));
+        return filtered.size();
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares a JMH run against the stored baseline and fails on regressions.
+ * <p>
+ * Both files are JMH CSV results ({@code -rf csv}). The primary score of every benchmark and
+ * its {@code gc.alloc.rate.norm} (bytes allocated per operation, from {@code -prof gc}) are
+ * compared; anything worse than the tolerance is reported and the exit code is 1.
+ * <pre>
+ * java -cp target/benchmarks.jar org.example.bench.BaselineCheck baseline/baseline.csv target/current.csv [timeTolerance] [allocTolerance]
+ * </pre>
+ */
+public class BaselineCheck {
+
+    public static final double DEFAULT_TIME_TOLERANCE = 0.15;
+    public static final double DEFAULT_ALLOC_TOLERANCE = 0.05;
+    // Allocation noise floor per operation (e.g. a boxed result or an iterator)
+    private static final double ALLOC_SLACK_BYTES = 64;
+    private static final String ALLOC_METRIC = ":gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck <baseline.csv> <current.csv> [timeTolerance] [allocTolerance]");
+            System.exit(2);
+        }
+        double timeTolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TIME_TOLERANCE;
+        double allocTolerance = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_ALLOC_TOLERANCE;
+
+        Map<String, Result> baseline = read(Paths.get(args[0]));
+        Map<String, Result> current = read(Paths.get(args[1]));
+        List<String> regressions = new ArrayList<>();
+
+        System.out.printf("%-90s %14s %14s %-7s %8s%n", "Benchmark", "Baseline", "Current", "Unit", "Change");
+        for (Map.Entry<String, Result> e : current.entrySet()) {
+            Result now = e.getValue();
+            Result before = baseline.get(e.getKey());
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "%-90s %14s %14.3f %-7s %8s%n", e.getKey(), "-", now.score, now.unit, "new");
+                continue;
+            }
+            double change = before.score == 0 ? 0 : (now.score - before.score) / before.score;
+            boolean regressed;
+            if (e.getKey().contains(ALLOC_METRIC)) {
+                regressed = now.score > before.score * (1 + allocTolerance) + ALLOC_SLACK_BYTES;
+            } else if (now.higherIsBetter()) {
+                regressed = change < -timeTolerance;
+            } else {
+                regressed = change > timeTolerance;
+            }
+            System.out.printf(Locale.ROOT, "%-90s %14.3f %14.3f %-7s %+7.1f%%%s%n",
+                    e.getKey(), before.score, now.score, now.unit, change * 100, regressed ? "  ❌" : "");
+            if (regressed) {
+                regressions.add(e.getKey());
+            }
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.println("⚠️ Not in the current run: " + key);
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.err.println("❌ " + regressions.size() + " regression(s) against " + args[0]);
+            System.exit(1);
+        }
+        System.out.println("✅ No regressions against " + args[0]);
+    }
+
+    // === HELPER METHODS ===
+
+    // Keyed by "benchmark[:metric] param=value ..." so parameterised runs line up
+    static Map<String, Result> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Map<String, Result> results = new LinkedHashMap<>();
+        if (lines.isEmpty()) {
+            return results;
+        }
+        List<String> header = split(lines.get(0));
+        int mode = header.indexOf("Mode");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = split(line);
+            String metric = fields.get(0);
+            if (metric.contains(":") && !metric.endsWith(ALLOC_METRIC)) {
+                continue; // other profiler output (gc.count, gc.time, ...) is too noisy to gate on
+            }
+            StringBuilder key = new StringBuilder(metric);
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ") && i < fields.size() && !fields.get(i).isEmpty()) {
+                    key.append(' ').append(header.get(i).substring(7)).append('=').append(fields.get(i));
+                }
+            }
+            results.put(key.toString(), new Result(fields.get(mode),
+                    Double.parseDouble(fields.get(score).replace(',', '.')), fields.get(unit)));
+        }
+        return results;
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // === INNER CLASS ===
+
+    static class Result {
+        final String mode;
+        final double score;
+        final String unit;
+
+        Result(String mode, double score, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+        }
+
+        // Throughput is ops per time unit; every other mode reports time per op
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.dao;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code ProductDAOImpl.mapRowToProduct} per row, read by column label like the
+ * real query results. The rows come from an in-memory {@link CachedRowSet} (JDK built-in),
+ * so no database or driver is involved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductRowMappingBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private ProductDAOImpl dao;
+    private CachedRowSet rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dao = new ProductDAOImpl();
+        RowSetMetaDataImpl meta = new RowSetMetaDataImpl();
+        String[] names = {"id", "name", "category", "quantity", "price", "threshold", "version", "updated_at"};
+        int[] types = {Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DOUBLE,
+                Types.INTEGER, Types.INTEGER, Types.TIMESTAMP};
+        meta.setColumnCount(names.length);
+        for (int i = 0; i < names.length; i++) {
+            meta.setColumnName(i + 1, names[i]);
+            meta.setColumnLabel(i + 1, names[i]);
+            meta.setColumnType(i + 1, types[i]);
+        }
+
+        rows = RowSetProvider.newFactory().createCachedRowSet();
+        rows.setMetaData(meta);
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= ROWS; i++) {
+            rows.moveToInsertRow();
+            rows.updateInt(1, i);
+            rows.updateString(2, "Product " + i);
+            rows.updateString(3, "Category " + (i % 20));
+            rows.updateInt(4, i % 500);
+            rows.updateDouble(5, (i % 10_000) / 100.0);
+            rows.updateInt(6, i % 10);
+            rows.updateInt(7, i % 3);
+            rows.updateTimestamp(8, new Timestamp(now - i * 1_000L));
+            rows.insertRow();
+        }
+        rows.moveToCurrentRow();
+        rows.beforeFirst();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRowToProduct(Blackhole bh) throws SQLException {
+        rows.beforeFirst();
+        while (rows.next()) {
+            bh.consume(dao.mapRowToProduct(rows));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.util;
+
+import org.example.model.Product;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic product data shared by the benchmarks, so runs are comparable with the baseline.
+ */
+public final class BenchmarkData {
+
+    private static final String[] CATEGORIES =
+            {"Stationery", "Books", "Electronics", "Kitchen", "Garden", "Toys, Games", "Office \"Pro\""};
+
+    private BenchmarkData() {
+    }
+
+    public static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Product p = new Product(i, "Product " + i, CATEGORIES[i % CATEGORIES.length], i % 500,
+                    (i % 10_000) / 100.0);
+            p.setThreshold(i % 10);
+            products.add(p);
+        }
+        return products;
+    }
+
+    public static String fileName(String format) {
+        return "PROTOBUF".equals(format) ? "products.pb" : "products.csv";
+    }
+
+    public static void deleteDirectory(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.util;
+
+import org.example.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CSVHelper#loadProducts(String, java.util.function.Consumer, CSVHelper.ReadMode)} at
+ * 1k/100k/1M rows in both read modes, with the protobuf snapshot reader as a reference point.
+ * Rows are streamed into a blackhole, so the numbers exclude building one big list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvReadBenchmark {
+
+    public enum Format { CSV_PARALLEL, CSV_MAPPED, PROTOBUF }
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"CSV_PARALLEL", "CSV_MAPPED", "PROTOBUF"})
+    public Format format;
+
+    private Path dir;
+    private String file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Product> products = BenchmarkData.products(rows);
+        dir = Files.createTempDirectory("csv-read-bench");
+        if (format == Format.PROTOBUF) {
+            file = dir.resolve(BenchmarkData.fileName("PROTOBUF")).toString();
+            ProductSnapshot.saveProducts(products, file);
+        } else {
+            file = dir.resolve(BenchmarkData.fileName("CSV")).toString();
+            CSVHelper.saveProducts(products, file);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteDirectory(dir);
+    }
+
+    @Benchmark
+    public long loadProducts(Blackhole bh) throws IOException {
+        switch (format) {
+            case CSV_MAPPED:
+                return CSVHelper.loadProducts(file, bh::consume, CSVHelper.ReadMode.MAPPED).getRowCount();
+            case PROTOBUF:
+                return ProductSnapshot.loadProducts(file, bh::consume);
+            default:
+                return CSVHelper.loadProducts(file, bh::consume, CSVHelper.ReadMode.PARALLEL).getRowCount();
+        }
+    }
+}
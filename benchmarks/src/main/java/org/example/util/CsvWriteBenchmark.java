@@ -0,0 +1,57 @@
+package org.example.util;
+
+import org.example.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CSVHelper#saveProducts(List, String)} at 1k/100k/1M rows, with the protobuf snapshot
+ * writer as a reference point.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvWriteBenchmark {
+
+    public enum Format { CSV, PROTOBUF }
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"CSV", "PROTOBUF"})
+    public Format format;
+
+    private List<Product> products;
+    private Path dir;
+    private String file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        products = BenchmarkData.products(rows);
+        dir = Files.createTempDirectory("csv-write-bench");
+        file = dir.resolve(BenchmarkData.fileName(format.name())).toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteDirectory(dir);
+    }
+
+    @Benchmark
+    public String saveProducts() throws IOException {
+        if (format == Format.PROTOBUF) {
+            ProductSnapshot.saveProducts(products, file);
+        } else {
+            CSVHelper.saveProducts(products, file);
+        }
+        return file;
+    }
+}
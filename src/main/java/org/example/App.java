@@ -1,21 +1,32 @@
  package org.example;
 
+import org.example.dao.CachingProductDAO;
+import org.example.dao.InstrumentedProductDAO;
+import org.example.dao.ProductDAO;
 import org.example.dao.ProductDAOImpl;
+import org.example.dao.ProductQuery;
+import org.example.metrics.Metrics;
 import org.example.model.Product;
 import org.example.model.User;
+import org.example.product.java.util.DBConnection;
+import org.example.product.java.util.PoolStats;
+import org.example.product.java.util.SlowQueryLog;
+import org.example.service.DeltaExporter;
 import org.example.service.EmailService;
 import org.example.service.OTPService;
 import org.example.service.StockAlertService;
 import org.example.service.UserService;
 import org.example.util.CSVHelper;
 
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Scanner;
 
 public class App {
     private static final Scanner SC = new Scanner(System.in);
     private static final UserService userService = new UserService();
-    private static final ProductDAOImpl productDAO = new ProductDAOImpl();
+    private static final ProductDAO productDAO =
+            new CachingProductDAO(new InstrumentedProductDAO(new ProductDAOImpl()));
 
     public static void main(String[] args) {
         while (true) {
@@ -132,7 +143,8 @@ public class App {
             System.out.println("8. 📄 Generate CSV Report");
             System.out.println("9. ✉️ Send Email Report");
             System.out.println("10. ⚠️ Send Threshold Stock Alerts");
-            System.out.println("11. 🚪 Exit to Main Menu");
+            System.out.println("11. 📊 Show DAO Metrics");
+            System.out.println("12. 🚪 Exit to Main Menu");
 
             int choice = readIntSafe("Enter choice: ");
 
@@ -148,11 +160,12 @@ public class App {
                     case 8 -> generateCsvReport();
                     case 9 -> sendEmailReport();
                     case 10 -> sendStockAlerts();
-                    case 11 -> {
+                    case 11 -> showMetrics();
+                    case 12 -> {
                         System.out.println("🔙 Returning to main menu...");
                         return;
                     }
-                    default -> System.out.println("⚠️ Invalid choice. Enter a number between 1–11.");
+                    default -> System.out.println("⚠️ Invalid choice. Enter a number between 1–12.");
                 }
             } catch (Exception e) {
                 System.err.println("💥 Unexpected error: " + e.getMessage());
@@ -269,10 +282,7 @@ public class App {
         System.out.print("Enter product name: ");
         String name = SC.nextLine().trim();
         try {
-            List<Product> all = productDAO.getAllProducts();
-            List<Product> matched = all.stream()
-                    .filter(p -> p.getName().equalsIgnoreCase(name))
-                    .collect(java.util.stream.Collectors.toList());
+            List<Product> matched = productDAO.findProducts(ProductQuery.all().nameEquals(name));
 
             if (matched.isEmpty()) {
                 System.out.println("⚠️ No products found with name: " + name);
@@ -289,10 +299,7 @@ public class App {
         System.out.print("Enter category: ");
         String category = SC.nextLine().trim();
         try {
-            List<Product> all = productDAO.getAllProducts();
-            List<Product> matched = all.stream()
-                    .filter(p -> p.getCategory().equalsIgnoreCase(category))
-                    .collect(java.util.stream.Collectors.toList());
+            List<Product> matched = productDAO.findProducts(ProductQuery.all().category(category));
 
             if (matched.isEmpty()) {
                 System.out.println("⚠️ No products found in category: " + category);
@@ -319,10 +326,7 @@ public class App {
         double min = readDoubleSafe("Enter minimum price: ");
         double max = readDoubleSafe("Enter maximum price: ");
         try {
-            List<Product> products = productDAO.getAllProducts()
-                    .stream()
-                    .filter(p -> p.getPrice() >= min && p.getPrice() <= max)
-                    .collect(java.util.stream.Collectors.toList());
+            List<Product> products = productDAO.findProducts(ProductQuery.all().priceBetween(min, max));
             printProductsTable(products);
         } catch (Exception e) {
             System.err.println("💥 Error filtering products: " + e.getMessage());
@@ -331,6 +335,13 @@ public class App {
 
     private static void generateCsvReport() {
         try {
+            System.out.print("Full report or only changes since the last one? (f/c): ");
+            if (SC.nextLine().trim().equalsIgnoreCase("c")) {
+                DeltaExporter.Summary summary = new DeltaExporter(productDAO)
+                        .export(Paths.get("product_changes.csv"));
+                System.out.println("✅ Change report generated: product_changes.csv (" + summary + ")");
+                return;
+            }
             List<Product> products = productDAO.getAllProducts();
             CSVHelper.saveProducts(products);
             System.out.println("✅ CSV report generated successfully: products.csv");
@@ -344,14 +355,27 @@ public class App {
         try {
             System.out.print("Enter recipient email: ");
             String toEmail = SC.nextLine().trim();
+            System.out.print("Full report or only changes since the last one? (f/c): ");
+            boolean changesOnly = SC.nextLine().trim().equalsIgnoreCase("c");
+
+            boolean queued;
+            if (changesOnly) {
+                queued = EmailService.sendProductChangesReport(
+                        toEmail,
+                        "📦 Product Changes",
+                        "Attached are the products added, changed or deleted since the last report."
+                );
+            } else {
+                queued = EmailService.sendProductReport(
+                        toEmail,
+                        "📦 Product Report",
+                        "Attached is the latest product report."
+                );
+            }
 
-            EmailService.sendProductReport(
-                    toEmail,
-                    "📦 Product Report",
-                    "Attached is the latest product report."
-            );
-
-            System.out.println("✅ Email report sent successfully!");
+            if (queued) {
+                System.out.println("✅ Email report queued for delivery!");
+            }
         } catch (Exception e) {
             System.err.println("💥 Failed to send email: " + e.getMessage());
         }
@@ -364,6 +388,24 @@ public class App {
         StockAlertService.sendLowStockAlerts(email);
     }
 
+    // ✅ Per-method call counts, errors, rows and latency percentiles, plus cache and pool counters
+    private static void showMetrics() {
+        System.out.println("\n📊 DAO metrics since startup");
+        Metrics.report().forEach(System.out::println);
+        System.out.println("🗃 " + productDAO);
+        PoolStats stats = DBConnection.getPoolStats();
+        if (stats != null) {
+            System.out.println("🔌 " + stats);
+        }
+        SlowQueryLog slowQueries = DBConnection.getSlowQueryLog();
+        if (slowQueries != null) {
+            System.out.println("🐢 " + slowQueries);
+            List<SlowQueryLog.Entry> recent = slowQueries.recent();
+            recent.subList(Math.max(0, recent.size() - 5), recent.size())
+                    .forEach(e -> System.out.println("   " + e));
+        }
+    }
+
     // =================== UTILITIES ===================
 
     private static int readIntSafe(String prompt) {
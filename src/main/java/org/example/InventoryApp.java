@@ -1,6 +1,7 @@
 package org.example;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.collections.*;
 import javafx.collections.transformation.FilteredList;
 import javafx.geometry.*;
@@ -10,25 +11,40 @@ import javafx.scene.control.cell.*;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import org.example.util.CsvImporter;
+import org.example.util.CsvWriter;
 
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class InventoryApp extends Application {
 
+    private static final java.time.format.DateTimeFormatter SAVED_TIME =
+            java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss");
+
     private final ObservableList<Product> data = FXCollections.observableArrayList();
     private final TableView<Product> table = new TableView<>();
     private final TextField searchField = new TextField();
-    private final File storeFile = Paths.get(System.getProperty("user.home"), ".inventory", "products.csv").toFile();
+    // ✅ Snapshot + append-only journal: each edit appends one record instead of rewriting the file
+    private final ProductJournalStore store =
+            new ProductJournalStore(Paths.get(System.getProperty("user.home"), ".inventory"));
+    // ✅ Coalesces bursts of edits into one background write
+    private final StoreSaver saver = new StoreSaver(store);
+    private final Label saveStatus = new Label();
+    private final ProgressBar importProgress = new ProgressBar(0);
 
     @Override
     public void start(Stage stage) {
         stage.setTitle("Inventory Management - JavaFX");
 
         createTable();
-        loadFromStore();
+        if (!loadFromStore()) {
+            Platform.exit();
+            return;
+        }
 
         searchField.setPromptText("Search name, SKU or location");
         searchField.setMinWidth(300);
@@ -48,7 +64,7 @@ public class InventoryApp extends Application {
             Product sel = table.getSelectionModel().getSelectedItem();
             if (sel != null && confirm("Delete product " + sel.getName() + "?")) {
                 data.remove(sel);
-                saveToStore();
+                saver.delete(sel.getId());
             }
         });
 
@@ -63,7 +79,7 @@ public class InventoryApp extends Application {
             if (confirm("Reset local store to sample data?")) {
                 data.clear();
                 data.addAll(sampleData());
-                saveToStore();
+                saver.replaceAll(data);
             }
         });
 
@@ -76,7 +92,13 @@ public class InventoryApp extends Application {
         bottomBar.setAlignment(Pos.CENTER_LEFT);
         Label status = new Label("Products: " + data.size());
         data.addListener((ListChangeListener<Product>) c -> status.setText("Products: " + data.size()));
-        bottomBar.getChildren().add(status);
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        saver.setListener(s -> Platform.runLater(() -> showSaveStatus(s)));
+        showSaveStatus(saver.getStatus());
+        importProgress.setVisible(false);
+        bottomBar.setSpacing(8);
+        bottomBar.getChildren().addAll(status, importProgress, spacer, saveStatus);
 
         VBox root = new VBox(8, topBar, table, bottomBar);
         root.setPadding(new Insets(10));
@@ -126,7 +148,7 @@ public class InventoryApp extends Application {
         dialog.showAndWait().ifPresent(p -> {
             p.setId(UUID.randomUUID().toString());
             data.add(0, p);
-            saveToStore();
+            saver.addFirst(List.of(p));
         });
     }
 
@@ -146,7 +168,7 @@ public class InventoryApp extends Application {
             existing.setPrice(p.getPrice());
             existing.setLocation(p.getLocation());
             table.refresh();
-            saveToStore();
+            saver.update(existing);
         });
     }
 
@@ -193,51 +215,62 @@ public class InventoryApp extends Application {
         try { return Double.parseDouble(s); } catch (Exception e) { return def; }
     }
 
-    private void loadFromStore() {
+    @Override
+    public void stop() {
+        // Flush whatever is still queued before the JVM exits
         try {
-            if (!storeFile.exists()) {
-                storeFile.getParentFile().mkdirs();
-                data.addAll(sampleData());
-                saveToStore();
-                return;
-            }
-            List<String> lines = Files.readAllLines(storeFile.toPath());
-            List<Product> list = lines.stream()
-                    .filter(l -> !l.isBlank())
-                    .map(this::productFromCsv)
-                    .collect(Collectors.toList());
-            data.clear();
-            data.addAll(list);
+            saver.close();
         } catch (IOException e) {
             e.printStackTrace();
-            data.addAll(sampleData());
         }
     }
 
-    private void saveToStore() {
+    private void showSaveStatus(StoreSaver.Status s) {
+        String saved = s.getLastSaved() == null ? "" : " · last saved "
+                + SAVED_TIME.format(s.getLastSaved().atZone(java.time.ZoneId.systemDefault()));
+        switch (s.getState()) {
+            case PENDING:
+                saveStatus.setText("Unsaved changes" + saved);
+                break;
+            case SAVING:
+                saveStatus.setText("Saving..." + saved);
+                break;
+            case FAILED:
+                saveStatus.setText("⚠ Save failed, retrying: " + s.getLastError());
+                break;
+            default:
+                saveStatus.setText(s.getLastSaved() == null ? "All changes saved" : "Saved" + saved);
+        }
+    }
+
+    // False if an existing store could not be read; the app must not start and save over it
+    private boolean loadFromStore() {
         try {
-            storeFile.getParentFile().mkdirs();
-            try (BufferedWriter bw = new BufferedWriter(new FileWriter(storeFile))) {
-                bw.write("id,name,sku,qty,price,location\n");
-                for (Product p : data) {
-                    bw.write(csvEscape(p.getId()) + "," + csvEscape(p.getName()) + "," + csvEscape(p.getSku()) + ","
-                            + p.getQty() + "," + p.getPrice() + "," + csvEscape(p.getLocation()) + "\n");
-                }
+            if (store.isEmpty()) {
+                data.addAll(sampleData());
+                saver.replaceAll(data);
+                return true;
             }
+            // Snapshot plus replay of the journal tail
+            data.setAll(store.load());
+            return true;
         } catch (IOException e) {
             e.printStackTrace();
-            showError("Failed to save store: " + e.getMessage());
+            showError("Could not load the inventory in " + Paths.get(System.getProperty("user.home"), ".inventory")
+                    + ": " + e.getMessage() + "\nThe files were left untouched; the app will close.");
+            return false;
         }
     }
 
-    private Product productFromCsv(String line) {
-        String[] parts = splitCsv(line);
-        String id = parts.length > 0 ? unescape(parts[0]) : UUID.randomUUID().toString();
-        String name = parts.length > 1 ? unescape(parts[1]) : "";
-        String sku = parts.length > 2 ? unescape(parts[2]) : "";
-        int qty = parts.length > 3 ? parseIntSafe(parts[3], 0) : 0;
-        double price = parts.length > 4 ? parseDoubleSafe(parts[4], 0.0) : 0.0;
-        String location = parts.length > 5 ? unescape(parts[5]) : "";
+
+    // id,name,sku,qty,price,location; missing trailing columns default to empty/zero
+    private Product productFromFields(List<String> fields) {
+        String id = fields.get(0).isBlank() ? UUID.randomUUID().toString() : fields.get(0);
+        String name = fields.size() > 1 ? fields.get(1) : "";
+        String sku = fields.size() > 2 ? fields.get(2) : "";
+        int qty = fields.size() > 3 ? parseIntSafe(fields.get(3).trim(), 0) : 0;
+        double price = fields.size() > 4 ? parseDoubleSafe(fields.get(4).trim(), 0.0) : 0.0;
+        String location = fields.size() > 5 ? fields.get(5) : "";
         return new Product(id, name, sku, qty, price, location);
     }
 
@@ -252,36 +285,102 @@ public class InventoryApp extends Application {
     private void importCSV(Stage stage) {
         FileChooser fc = new FileChooser();
         fc.setTitle("Import CSV");
-        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        fc.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV files", "*.csv"),
+                new FileChooser.ExtensionFilter("Product snapshots", "*.pb", "*.pb.gz"));
         File f = fc.showOpenDialog(stage);
         if (f == null) return;
-        try {
-            List<String> lines = Files.readAllLines(f.toPath());
-            if (lines.isEmpty()) return;
-            List<Product> imported = lines.stream().skip(1)
-                    .filter(s -> !s.isBlank())
-                    .map(this::productFromCsv)
-                    .collect(Collectors.toList());
-            data.addAll(0, imported);
-            saveToStore();
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            showError("Failed to import CSV: " + ex.getMessage());
+        if (isSnapshot(f)) {
+            importSnapshot(f);
+            return;
         }
+
+        // ✅ Parse on the importer's worker threads; only the final list insert runs on the FX thread
+        importProgress.setProgress(0);
+        importProgress.setVisible(true);
+        Thread worker = new Thread(() -> {
+            try {
+                CsvImporter.Result<Product> result = new CsvImporter<>(this::productFromFields)
+                        .onProgress((read, total, rows) -> Platform.runLater(() ->
+                                importProgress.setProgress(total == 0 ? 1 : (double) read / total)))
+                        .readAll(f.toPath());
+                Platform.runLater(() -> {
+                    importProgress.setVisible(false);
+                    data.addAll(0, result.getRows());
+                    saver.addFirst(result.getRows());
+                    if (result.getErrorCount() > 0) {
+                        showError("Imported " + result.getRowCount() + " products; skipped "
+                                + result.getErrorCount() + " invalid rows:\n" + result.getErrors().stream()
+                                .limit(10).map(Object::toString).collect(Collectors.joining("\n")));
+                    }
+                });
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                Platform.runLater(() -> {
+                    importProgress.setVisible(false);
+                    showError("Failed to import CSV: " + ex.getMessage());
+                });
+            }
+        }, "csv-import");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void importSnapshot(File f) {
+        importProgress.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        importProgress.setVisible(true);
+        Thread worker = new Thread(() -> {
+            try {
+                List<Product> products = ProductJournalStore.importSnapshot(f.toPath());
+                Platform.runLater(() -> {
+                    importProgress.setVisible(false);
+                    data.addAll(0, products);
+                    saver.addFirst(products);
+                });
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                Platform.runLater(() -> {
+                    importProgress.setVisible(false);
+                    showError("Failed to import snapshot: " + ex.getMessage());
+                });
+            }
+        }, "snapshot-import");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private static boolean isSnapshot(File f) {
+        String name = f.getName();
+        return name.endsWith(".pb") || name.endsWith(".pb.gz");
     }
 
     private void exportCSV(Stage stage) {
         FileChooser fc = new FileChooser();
         fc.setTitle("Export CSV");
-        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        fc.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV files", "*.csv"),
+                new FileChooser.ExtensionFilter("Gzipped CSV files", "*.csv.gz"),
+                new FileChooser.ExtensionFilter("Product snapshots", "*.pb", "*.pb.gz"));
         fc.setInitialFileName("products_export.csv");
         File f = fc.showSaveDialog(stage);
         if (f == null) return;
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(f))) {
-            bw.write("id,name,sku,qty,price,location\n");
+        if (isSnapshot(f)) {
+            // ✅ Binary protobuf snapshot: smaller and faster to load than CSV
+            try {
+                ProductJournalStore.exportSnapshot(data, f.toPath());
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                showError("Failed to export snapshot: " + ex.getMessage());
+            }
+            return;
+        }
+        // ✅ Rows are encoded into one reusable buffer; a .gz name writes compressed output
+        try (CsvWriter w = CsvWriter.open(f.toPath())) {
+            w.row("id", "name", "sku", "qty", "price", "location");
             for (Product p : data) {
-                bw.write(csvEscape(p.getId()) + "," + csvEscape(p.getName()) + "," + csvEscape(p.getSku()) + ","
-                        + p.getQty() + "," + p.getPrice() + "," + csvEscape(p.getLocation()) + "\n");
+                w.field(p.getId()).field(p.getName()).field(p.getSku())
+                        .field(p.getQty()).field(p.getPrice()).field(p.getLocation())
+                        .endRow();
             }
         } catch (IOException ex) {
             ex.printStackTrace();
@@ -294,14 +393,17 @@ public class InventoryApp extends Application {
             table.setItems(data);
             return;
         }
-        String lower = q.toLowerCase();
         FilteredList<Product> filt = new FilteredList<>(data);
-        filt.setPredicate(p ->
-                (p.getName() + " " + p.getSku() + " " + p.getLocation()).toLowerCase().contains(lower)
-        );
+        filt.setPredicate(searchPredicate(q));
         table.setItems(filt);
     }
 
+    // Case-insensitive match on name, SKU or location (package-private for the search benchmark)
+    static Predicate<Product> searchPredicate(String q) {
+        String lower = q.toLowerCase();
+        return p -> (p.getName() + " " + p.getSku() + " " + p.getLocation()).toLowerCase().contains(lower);
+    }
+
     private boolean confirm(String message) {
         Alert a = new Alert(Alert.AlertType.CONFIRMATION, message, ButtonType.OK, ButtonType.CANCEL);
         Optional<ButtonType> res = a.showAndWait();
@@ -313,46 +415,6 @@ public class InventoryApp extends Application {
         a.showAndWait();
     }
 
-    // CSV helpers
-    private static String csvEscape(String v) {
-        if (v == null) return "";
-        String s = v.replace("\"", "\"\"");
-        if (s.contains(",") || s.contains("\"") || s.contains("\n")) return "\"" + s + "\"";
-        return s;
-    }
-
-    private static String unescape(String v) {
-        if (v == null) return "";
-        if (v.startsWith("\"") && v.endsWith("\"") && v.length() >= 2) {
-            String inner = v.substring(1, v.length() - 1);
-            return inner.replace("\"\"", "\"");
-        }
-        return v;
-    }
-
-    private static String[] splitCsv(String line) {
-        List<String> out = new ArrayList<>();
-        StringBuilder cur = new StringBuilder();
-        boolean inQuotes = false;
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            if (c == '\"') {
-                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '\"') {
-                    cur.append('\"'); i++;
-                } else {
-                    inQuotes = !inQuotes;
-                }
-            } else if (c == ',' && !inQuotes) {
-                out.add(cur.toString());
-                cur.setLength(0);
-            } else {
-                cur.append(c);
-            }
-        }
-        out.add(cur.toString());
-        return out.toArray(new String[0]);
-    }
-
     public static void main(String[] args) {
         launch(args);
     }
@@ -1,22 +1,36 @@
 package org.example;
 
+import org.example.dao.CachingProductDAO;
+import org.example.dao.InstrumentedProductDAO;
 import org.example.dao.ProductDAO;
 import org.example.dao.ProductDAOImpl;
+import org.example.dao.ProductPage;
+import org.example.dao.ProductQuery;
 import org.example.exception.DatabaseException;
 import org.example.exception.InvalidInputException;
 import org.example.exception.ProductNotFoundException;
+import org.example.metrics.Metrics;
 import org.example.model.Product;
+import org.example.product.java.util.DBConnection;
+import org.example.product.java.util.PoolStats;
+import org.example.product.java.util.SlowQueryLog;
+import org.example.service.DeltaExporter;
 import org.example.util.CSVHelper;
+import org.example.util.ProductSnapshot;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Scanner;
 
 public class Main {
 
-    private static final ProductDAO PRODUCT_DAO = new ProductDAOImpl();
+    private static final ProductDAO PRODUCT_DAO =
+            new CachingProductDAO(new InstrumentedProductDAO(new ProductDAOImpl()));
     private static final Scanner sc = new Scanner(System.in);
 
     public static void main(String[] args) {
@@ -29,7 +43,8 @@ public class Main {
                 System.out.println("4️. Search Item");
                 System.out.println("5️. View All Items");
                 System.out.println("6️. Export to CSV");
-                System.out.println("7️. Exit Inventory");
+                System.out.println("7️. Show DAO Metrics");
+                System.out.println("8️. Exit Inventory");
                 int choice = readInt("👉 Enter your choice: ");
 
                 switch (choice) {
@@ -39,7 +54,8 @@ public class Main {
                     case 4 -> searchItem();
                     case 5 -> viewAllItems();
                     case 6 -> exportToCSV();
-                    case 7 -> {
+                    case 7 -> showMetrics();
+                    case 8 -> {
                         System.out.println("👋 Exiting... Goodbye!");
                         sc.close();
                         return;
@@ -95,10 +111,7 @@ public class Main {
             case 2 -> {
                 System.out.print("🏷️ Enter Product Name: ");
                 String name = sc.nextLine().trim();
-                List<Product> products = PRODUCT_DAO.getAllProducts();
-                List<Product> toDelete = products.stream()
-                        .filter(p -> p.getName().equalsIgnoreCase(name))
-                        .collect(java.util.stream.Collectors.toList());
+                List<Product> toDelete = PRODUCT_DAO.findProducts(ProductQuery.all().nameEquals(name));
 
                 if (toDelete.isEmpty()) {
                     throw new ProductNotFoundException("⚠️ No product found with name: " + name);
@@ -106,9 +119,7 @@ public class Main {
                     System.out.print("❓ Are you sure you want to delete ALL products named '" + name + "'? (y/n): ");
                     String confirm = sc.nextLine().trim().toLowerCase();
                     if (confirm.equals("y")) {
-                        for (Product p : toDelete) {
-                            PRODUCT_DAO.deleteProduct(p.getId());
-                        }
+                        PRODUCT_DAO.deleteProducts(toDelete.stream().mapToInt(Product::getId).toArray());
                         System.out.println("✅ Deleted all products with name '" + name + "'.");
                     } else {
                         System.out.println("❎ Deletion cancelled.");
@@ -118,10 +129,7 @@ public class Main {
             case 3 -> {
                 System.out.print("📂 Enter Product Category: ");
                 String category = sc.nextLine().trim();
-                List<Product> products = PRODUCT_DAO.getAllProducts();
-                List<Product> toDelete = products.stream()
-                        .filter(p -> p.getCategory().equalsIgnoreCase(category))
-                        .collect(java.util.stream.Collectors.toList());
+                List<Product> toDelete = PRODUCT_DAO.findProducts(ProductQuery.all().category(category));
 
                 if (toDelete.isEmpty()) {
                     throw new ProductNotFoundException("⚠️ No products found in category: " + category);
@@ -129,9 +137,7 @@ public class Main {
                     System.out.print("❓ Are you sure you want to delete ALL products in category '" + category + "'? (y/n): ");
                     String confirm = sc.nextLine().trim().toLowerCase();
                     if (confirm.equals("y")) {
-                        for (Product p : toDelete) {
-                            PRODUCT_DAO.deleteProduct(p.getId());
-                        }
+                        PRODUCT_DAO.deleteProducts(toDelete.stream().mapToInt(Product::getId).toArray());
                         System.out.println("✅ Deleted all products in category '" + category + "'.");
                     } else {
                         System.out.println("❎ Deletion cancelled.");
@@ -154,7 +160,7 @@ public class Main {
         System.out.println("\n✏️===== Update Menu =====");
         System.out.println("1️. Update Name");
         System.out.println("2️. Update Category");
-        System.out.println("3️. Update Quantity");
+        System.out.println("3️. Adjust Quantity (+/-)");
         System.out.println("4️. Update Price");
         System.out.println("5️. Update All Fields");
         int choice = readInt("👉 Enter your choice: ");
@@ -171,8 +177,23 @@ public class Main {
                 existing.setCategory(newCategory);
             }
             case 3 -> {
-                int newQty = readInt("📦 Enter new quantity: ");
-                existing.setQuantity(newQty);
+                // ✅ Applied as quantity = quantity + delta, so concurrent sales are not lost
+                int delta = readInt("📦 Enter quantity change (e.g. 5 or -3): ");
+                if (!PRODUCT_DAO.adjustQuantity(id, delta)) {
+                    // The row may have been deleted since it was read; only then is it not a stock problem
+                    Product current = PRODUCT_DAO.getProductById(id);
+                    if (current == null) {
+                        throw new ProductNotFoundException("⚠️ Product with ID " + id + " not found.");
+                    }
+                    if (delta < 0) {
+                        throw new InvalidInputException("🚫 Not enough stock to remove " + (-delta)
+                                + " units! Only " + current.getQuantity() + " left.");
+                    }
+                    throw new InvalidInputException("🚫 Quantity of product " + id + " could not be adjusted.");
+                }
+                CSVHelper.saveProducts(PRODUCT_DAO, "products.csv");
+                System.out.println("✅ Quantity adjusted successfully!");
+                return;
             }
             case 4 -> {
                 double newPrice = readDouble("💲 Enter new price: ");
@@ -185,7 +206,10 @@ public class Main {
                 String newCategory = sc.nextLine().trim();
                 int newQty = readInt("📦 Enter new quantity: ");
                 double newPrice = readDouble("💲 Enter new price: ");
-                existing = new Product(id, newName, newCategory, newQty, newPrice);
+                Product replacement = new Product(id, newName, newCategory, newQty, newPrice);
+                replacement.setThreshold(existing.getThreshold());
+                replacement.setVersion(existing.getVersion());
+                existing = replacement;
             }
             default -> throw new InvalidInputException("⚠️ Invalid update option!");
         }
@@ -193,8 +217,14 @@ public class Main {
         validateInputs(existing.getId(), existing.getName(),
                 existing.getCategory(), existing.getQuantity(), existing.getPrice());
 
-        PRODUCT_DAO.updateProduct(existing);
-        CSVHelper.saveProducts(PRODUCT_DAO.getAllProducts());
+        // ✅ Only overwrite the row if nobody changed it while we were editing
+        switch (PRODUCT_DAO.compareAndUpdateProduct(existing)) {
+            case CONFLICT -> throw new InvalidInputException(
+                    "⚠️ Product " + id + " was changed by someone else. Please reload and try again.");
+            case NOT_FOUND -> throw new ProductNotFoundException("⚠️ Product with ID " + id + " not found.");
+            default -> { }
+        }
+        CSVHelper.saveProducts(PRODUCT_DAO, "products.csv");
         System.out.println("✅ Product updated successfully!");
     }
 
@@ -223,10 +253,7 @@ public class Main {
             case 2 -> {
                 System.out.print("🏷️ Enter Product Name: ");
                 String name = sc.nextLine().trim();
-                List<Product> products = PRODUCT_DAO.getAllProducts();
-                matched = products.stream()
-                        .filter(p -> p.getName().equalsIgnoreCase(name))
-                        .collect(java.util.stream.Collectors.toList());
+                matched = PRODUCT_DAO.findProducts(ProductQuery.all().nameEquals(name));
                 if (matched.isEmpty()) {
                     throw new ProductNotFoundException("⚠️ No product found with name: " + name);
                 }
@@ -234,10 +261,7 @@ public class Main {
             case 3 -> {
                 System.out.print("📂 Enter Product Category: ");
                 String category = sc.nextLine().trim();
-                List<Product> products = PRODUCT_DAO.getAllProducts();
-                matched = products.stream()
-                        .filter(p -> p.getCategory().equalsIgnoreCase(category))
-                        .collect(java.util.stream.Collectors.toList());
+                matched = PRODUCT_DAO.findProducts(ProductQuery.all().category(category));
                 if (matched.isEmpty()) {
                     throw new ProductNotFoundException("⚠️ No products found in category: " + category);
                 }
@@ -246,9 +270,7 @@ public class Main {
             case 4 -> {
                 double minPrice = readDouble("💲 Enter minimum price: ");
                 double maxPrice = readDouble("💲 Enter maximum price: ");
-                matched = PRODUCT_DAO.getAllProducts().stream()
-                        .filter(p -> p.getPrice() >= minPrice && p.getPrice() <= maxPrice)
-                        .collect(java.util.stream.Collectors.toList());
+                matched = PRODUCT_DAO.findProducts(ProductQuery.all().priceBetween(minPrice, maxPrice));
             }
 
             case 5 -> {
@@ -273,7 +295,7 @@ public class Main {
         System.out.println("---------------------------------------------------------------");
     }
 
-    // ✅ Pagination helper method
+    // ✅ In-memory pagination helper for lists that are already loaded
     public static List<Product> getPaginatedProducts(List<Product> allProducts, int page, int pageSize) {
         if (allProducts == null || allProducts.isEmpty()) {
             return new ArrayList<>();
@@ -291,40 +313,45 @@ public class Main {
     }
 
 
-    // ✅ View products with pagination
+    // ✅ View products with keyset pagination (one page in memory at a time)
     private static void viewAllItems() throws SQLException {
-        List<Product> products = PRODUCT_DAO.getAllProducts();
+        int pageSize = 10;
+        Deque<String> previousTokens = new ArrayDeque<>();
+        String currentToken = null;
+        ProductPage page = PRODUCT_DAO.page(null, pageSize, ProductQuery.SortField.ID);
 
-        if (products.isEmpty()) {
+        if (page.getItems().isEmpty()) {
             System.out.println("⚠️ No products available in the inventory.");
             return;
         }
 
-        int pageSize = 10;
-        int currentPage = 1;
-        int totalPages = (int) Math.ceil((double) products.size() / pageSize);
-
         while (true) {
-            List<Product> pageProducts = getPaginatedProducts(products, currentPage, pageSize);
+            int pageNumber = previousTokens.size() + 1;
 
-            System.out.println("\n📦===== Inventory Page " + currentPage + " / " + totalPages + " =====");
+            System.out.println("\n📦===== Inventory Page " + pageNumber + " =====");
             System.out.printf("%-5s | %-15s | %-10s | %-8s | %-10s%n",
                     "ID", "Name", "Category", "Qty", "Price");
             System.out.println("------------------------------------------------------------");
-            for (Product p : pageProducts) {
+            for (Product p : page.getItems()) {
                 System.out.printf("%-5d | %-15s | %-10s | %-8d | %-10.2f%n",
                         p.getId(), p.getName(), p.getCategory(),
                         p.getQuantity(), p.getPrice());
             }
 
             System.out.println("------------------------------------------------------------");
-            System.out.println("Page " + currentPage + " of " + totalPages);
+            System.out.println("Page " + pageNumber + (page.hasNext() ? " (more available)" : " (last page)"));
             System.out.print("➡️ Next (n), ⬅️ Prev (p), or (q) Quit: ");
             String input = sc.nextLine().trim().toLowerCase();
 
-            if (input.equals("n") && currentPage < totalPages) currentPage++;
-            else if (input.equals("p") && currentPage > 1) currentPage--;
-            else if (input.equals("q")) break;
+            if (input.equals("n") && page.hasNext()) {
+                previousTokens.push(currentToken == null ? "" : currentToken);
+                currentToken = page.getNextToken();
+                page = PRODUCT_DAO.page(currentToken, pageSize, ProductQuery.SortField.ID);
+            } else if (input.equals("p") && !previousTokens.isEmpty()) {
+                String token = previousTokens.pop();
+                currentToken = token.isEmpty() ? null : token;
+                page = PRODUCT_DAO.page(currentToken, pageSize, ProductQuery.SortField.ID);
+            } else if (input.equals("q")) break;
             else System.out.println("⚠️ Invalid input!");
         }
     }
@@ -333,11 +360,43 @@ public class Main {
 
     // ============ EXPORT ============
     private static void exportToCSV() throws SQLException, IOException {
-        List<Product> products = PRODUCT_DAO.getAllProducts();
-        CSVHelper.saveProducts(products);
+        System.out.print("📤 Full export, only changes since the last one, or a binary snapshot? (f/c/b): ");
+        String mode = sc.nextLine().trim();
+        if (mode.equalsIgnoreCase("b")) {
+            // ✅ Length-delimited protobuf records: several times smaller and faster to load than CSV
+            int count = ProductSnapshot.saveProducts(PRODUCT_DAO, "products.pb");
+            System.out.println("📂 " + count + " products exported to products.pb successfully!");
+            return;
+        }
+        if (mode.equalsIgnoreCase("c")) {
+            // ✅ Only rows written since the stored watermark, plus tombstones for deletions
+            DeltaExporter.Summary summary = new DeltaExporter(PRODUCT_DAO).export(Paths.get("product_changes.csv"));
+            System.out.println("📂 product_changes.csv written (" + summary + ")");
+            return;
+        }
+        CSVHelper.saveProducts(PRODUCT_DAO, "products.csv");
         System.out.println("📂 Data exported to products.csv successfully!");
     }
 
+    // ============ METRICS ============
+    // ✅ Per-method call counts, errors, rows and latency percentiles, plus cache and pool counters
+    private static void showMetrics() {
+        System.out.println("\n📊 DAO metrics since startup");
+        Metrics.report().forEach(System.out::println);
+        System.out.println("🗃 " + PRODUCT_DAO);
+        PoolStats stats = DBConnection.getPoolStats();
+        if (stats != null) {
+            System.out.println("🔌 " + stats);
+        }
+        SlowQueryLog slowQueries = DBConnection.getSlowQueryLog();
+        if (slowQueries != null) {
+            System.out.println("🐢 " + slowQueries);
+            List<SlowQueryLog.Entry> recent = slowQueries.recent();
+            recent.subList(Math.max(0, recent.size() - 5), recent.size())
+                    .forEach(e -> System.out.println("   " + e));
+        }
+    }
+
     // ============ VALIDATION ============
     private static void validateInputs(int id, String name, String category, int qty, double price) {
         if (id <= 0) throw new InvalidInputException("🚫 ID must be positive!");
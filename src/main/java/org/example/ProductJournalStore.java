@@ -0,0 +1,687 @@
+package org.example;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.example.util.CsvWriter;
+import org.example.util.ProtoSnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Local product store for {@link InventoryApp}: a snapshot plus an append-only journal.
+ * <p>
+ * Every add, edit or delete appends one checksummed record to the journal, so a save costs
+ * O(1) instead of rewriting the whole file. {@link #load()} reads the snapshot and replays the
+ * journal; a torn or corrupt tail (e.g. after a crash mid-write) is dropped and truncated.
+ * Once the journal holds more records than {@link #compactionThreshold()}, the live rows are
+ * written to a temp file that atomically replaces the snapshot and the journal is emptied.
+ * <p>
+ * Rows keep the table order through an order key: the snapshot defines 0..n-1 and rows added
+ * at the top get keys below the current minimum.
+ * <p>
+ * The snapshot is a binary protobuf file ({@link ProtoSnapshot}) unless its name ends with
+ * ".csv". A store opened on a directory still reads an older products.csv snapshot and
+ * replaces it with products.pb on the next compaction.
+ */
+public class ProductJournalStore implements Closeable {
+
+    // A group of writes that shares one sync and compaction check
+    @FunctionalInterface
+    public interface Batch {
+        void apply(ProductJournalStore store) throws IOException;
+    }
+
+    // When journal appends are forced to disk
+    public enum SyncPolicy {
+        // fsync after every record: nothing acknowledged is lost on power failure
+        EVERY_WRITE,
+        // fsync at most once per sync interval: a crash may lose the last interval of edits
+        INTERVAL,
+        // leave it to the OS page cache: survives an app crash, not a power failure
+        NONE
+    }
+
+    public static final String HEADER = "id,name,sku,qty,price,location";
+    public static final long DEFAULT_SYNC_INTERVAL_MS = 1_000;
+    private static final int MIN_COMPACTION_RECORDS = 1_000;
+    private static final String PUT = "P";
+    private static final String DELETE = "D";
+
+    private final Path snapshotFile;
+    // CSV snapshot written by earlier versions; read only while snapshotFile does not exist yet
+    private final Path legacySnapshotFile;
+    private final Path journalFile;
+    private final SyncPolicy syncPolicy;
+    private final long syncIntervalMs;
+
+    private final Map<String, Row> rows = new HashMap<>();
+    private final TreeMap<Long, String> idsByOrder = new TreeMap<>();
+    private FileChannel journal;
+    private int journalRecords;
+    private long lastSync;
+    private boolean dirtySinceSync;
+    private int batchDepth;
+
+    public ProductJournalStore(Path directory) {
+        this(directory.resolve("products.pb"), directory.resolve("products.csv"), directory.resolve("products.journal"),
+                syncPolicyFromProperty(), DEFAULT_SYNC_INTERVAL_MS);
+    }
+
+    public ProductJournalStore(Path snapshotFile, Path journalFile, SyncPolicy syncPolicy, long syncIntervalMs) {
+        this(snapshotFile, null, journalFile, syncPolicy, syncIntervalMs);
+    }
+
+    private ProductJournalStore(Path snapshotFile, Path legacySnapshotFile, Path journalFile,
+                                SyncPolicy syncPolicy, long syncIntervalMs) {
+        this.snapshotFile = snapshotFile;
+        this.legacySnapshotFile = legacySnapshotFile;
+        this.journalFile = journalFile;
+        this.syncPolicy = syncPolicy;
+        this.syncIntervalMs = syncIntervalMs;
+    }
+
+    // -Dinventory.store.fsync=every|interval|none (default every)
+    private static SyncPolicy syncPolicyFromProperty() {
+        String value = System.getProperty("inventory.store.fsync", "every").trim().toLowerCase();
+        switch (value) {
+            case "interval": return SyncPolicy.INTERVAL;
+            case "none": return SyncPolicy.NONE;
+            default: return SyncPolicy.EVERY_WRITE;
+        }
+    }
+
+    // True if neither a snapshot nor a journal exists yet
+    public boolean isEmpty() {
+        return !Files.exists(snapshotFile) && !Files.exists(journalFile)
+                && (legacySnapshotFile == null || !Files.exists(legacySnapshotFile));
+    }
+
+    // === LOAD ===
+
+    /**
+     * Reads the snapshot, replays the journal and returns the products in table order.
+     */
+    public synchronized List<Product> load() throws IOException {
+        rows.clear();
+        idsByOrder.clear();
+        Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+
+        if (Files.exists(snapshotFile)) {
+            if (isCsv(snapshotFile)) {
+                loadCsvSnapshot(snapshotFile);
+            } else {
+                long[] order = {0};
+                ProtoSnapshot.read(snapshotFile, ROW_CODEC, ProtoSnapshot.DEFAULT_BATCH_SIZE, batch -> {
+                    for (Row row : batch) {
+                        put(row.withOrder(order[0]++));
+                    }
+                });
+            }
+        } else if (legacySnapshotFile != null && Files.exists(legacySnapshotFile)) {
+            loadCsvSnapshot(legacySnapshotFile);
+        }
+        replayJournal();
+        openJournal();
+        return snapshot();
+    }
+
+    private void loadCsvSnapshot(Path file) throws IOException {
+        long order = 0;
+        String text = Files.readString(file, StandardCharsets.UTF_8);
+        for (List<String> fields : new CsvRecords(text)) {
+            if (order == 0 && !fields.isEmpty() && fields.get(0).equals("id")) {
+                continue; // header
+            }
+            if (fields.size() >= 6) {
+                put(Row.of(order++, fields, 0));
+            }
+        }
+    }
+
+    private void replayJournal() throws IOException {
+        journalRecords = 0;
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        // ✅ Split as bytes: a crash can cut a record inside a multibyte character
+        byte[] data = Files.readAllBytes(journalFile);
+        int goodEnd = 0;
+        while (goodEnd < data.length) {
+            int end = recordEnd(data, goodEnd);
+            if (end < 0) {
+                System.err.println("⚠️ Dropping unterminated journal tail after record " + journalRecords);
+                break;
+            }
+            String line = decodeStrict(data, goodEnd, end);
+            if (line != null && line.isBlank()) {
+                goodEnd = end + 1;
+                continue;
+            }
+            if (line == null || !applyRecord(new CsvRecords(line).next())) {
+                System.err.println("⚠️ Dropping damaged journal tail after record " + journalRecords);
+                break;
+            }
+            journalRecords++;
+            goodEnd = end + 1;
+        }
+        if (goodEnd < data.length) {
+            // Cut the damaged tail so new records are not appended after garbage
+            try (FileChannel ch = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                ch.truncate(goodEnd);
+                ch.force(true);
+            }
+        }
+    }
+
+    // Index of the newline that ends the record starting at {@code from}, or -1 if it is missing.
+    // Newlines inside quoted fields belong to the record; '"' never occurs inside a UTF-8 sequence.
+    private static int recordEnd(byte[] data, int from) {
+        boolean inQuotes = false;
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == '"') {
+                inQuotes = !inQuotes;
+            } else if (data[i] == '\n' && !inQuotes) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Null if the bytes are not valid UTF-8, e.g. a record torn mid-character and then overwritten
+    private static String decodeStrict(byte[] data, int from, int to) {
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .decode(ByteBuffer.wrap(data, from, to - from))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+
+    // Record: crc, op, order, id[, name, sku, qty, price, location]
+    private boolean applyRecord(List<String> fields) {
+        if (fields.size() < 4) {
+            return false;
+        }
+        List<String> body = fields.subList(1, fields.size());
+        if (!fields.get(0).equals(checksum(body))) {
+            return false;
+        }
+        try {
+            long order = Long.parseLong(body.get(1));
+            if (body.get(0).equals(DELETE)) {
+                remove(body.get(2));
+                return true;
+            }
+            if (body.get(0).equals(PUT) && body.size() >= 8) {
+                put(Row.of(order, body, 2));
+                return true;
+            }
+        } catch (NumberFormatException e) {
+            // fall through: malformed record
+        }
+        return false;
+    }
+
+    // === WRITES ===
+
+    // Adds products above the current first row, keeping their relative order
+    public synchronized void addFirst(List<Product> products) throws IOException {
+        long order = idsByOrder.isEmpty() ? 0 : idsByOrder.firstKey();
+        order -= products.size();
+        for (Product p : products) {
+            Row row = Row.of(order++, p);
+            put(row);
+            append(row.toRecord(PUT));
+        }
+        afterWrite();
+    }
+
+    // Saves new field values for an existing product (or appends it if unknown)
+    public synchronized void update(Product p) throws IOException {
+        Row existing = rows.get(p.getId());
+        long order = existing != null ? existing.order
+                : idsByOrder.isEmpty() ? 0 : idsByOrder.lastKey() + 1;
+        Row row = Row.of(order, p);
+        put(row);
+        append(row.toRecord(PUT));
+        afterWrite();
+    }
+
+    public synchronized void delete(String id) throws IOException {
+        Row removed = remove(id);
+        if (removed != null) {
+            append(deleteRecord(removed));
+            afterWrite();
+        }
+    }
+
+    /**
+     * Runs several writes as one unit: the sync policy and compaction are applied once at
+     * the end instead of after every record.
+     */
+    public synchronized void batch(Batch batch) throws IOException {
+        batchDepth++;
+        try {
+            batch.apply(this);
+        } finally {
+            batchDepth--;
+        }
+        afterWrite();
+    }
+
+    // Replaces the whole store (e.g. reset to sample data) with a fresh snapshot
+    public synchronized void replaceAll(Collection<Product> products) throws IOException {
+        rows.clear();
+        idsByOrder.clear();
+        long order = 0;
+        for (Product p : products) {
+            put(Row.of(order++, p));
+        }
+        compact();
+    }
+
+    /**
+     * Writes the live rows to a temp file, atomically swaps it in as the snapshot,
+     * then empties the journal.
+     */
+    public synchronized void compact() throws IOException {
+        Path dir = snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "products", ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (isCsv(snapshotFile)) {
+                    writeCsvSnapshot(ch);
+                } else {
+                    writeProtoSnapshot(ch);
+                }
+                ch.force(true);
+            }
+            try {
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        if (legacySnapshotFile != null) {
+            Files.deleteIfExists(legacySnapshotFile);
+        }
+        // A crash before this point replays the old journal over the new snapshot; records are idempotent
+        openJournal();
+        journal.truncate(0);
+        journal.force(true);
+        journalRecords = 0;
+        dirtySinceSync = false;
+    }
+
+    private void writeCsvSnapshot(FileChannel ch) throws IOException {
+        // Not closed here: closing the writer would close the channel before it is forced
+        CsvWriter w = new CsvWriter(ch, CsvWriter.DEFAULT_BUFFER_SIZE);
+        w.row(HEADER.split(","));
+        for (String id : idsByOrder.values()) {
+            rows.get(id).writeTo(w);
+        }
+        w.flush();
+    }
+
+    private void writeProtoSnapshot(FileChannel ch) throws IOException {
+        OutputStream out = Channels.newOutputStream(ch);
+        ProtoSnapshot.Writer<Row> w = ProtoSnapshot.writer(out, ROW_CODEC);
+        for (String id : idsByOrder.values()) {
+            w.write(rows.get(id));
+        }
+        w.flush();
+    }
+
+    // === EXPORT / IMPORT ===
+
+    // Writes products in the snapshot format, e.g. for an export; a ".gz" name compresses it
+    public static long exportSnapshot(Collection<Product> products, Path file) throws IOException {
+        try (ProtoSnapshot.Writer<Row> w = ProtoSnapshot.open(file, ROW_CODEC)) {
+            long order = 0;
+            for (Product p : products) {
+                w.write(Row.of(order++, p));
+            }
+            return w.getCount();
+        }
+    }
+
+    public static List<Product> importSnapshot(Path file) throws IOException {
+        List<Product> products = new ArrayList<>();
+        ProtoSnapshot.read(file, ROW_CODEC, ProtoSnapshot.DEFAULT_BATCH_SIZE, batch -> {
+            for (Row row : batch) {
+                products.add(row.toProduct());
+            }
+        });
+        return products;
+    }
+
+    // Forces pending journal writes to disk regardless of the sync policy
+    public synchronized void sync() throws IOException {
+        if (journal != null && dirtySinceSync) {
+            journal.force(false);
+            dirtySinceSync = false;
+            lastSync = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            sync();
+            journal.close();
+            journal = null;
+        }
+    }
+
+    public synchronized int size() {
+        return rows.size();
+    }
+
+    public synchronized int getJournalRecordCount() {
+        return journalRecords;
+    }
+
+    // Journal length that triggers compaction: at least 1000 records, or one per live row
+    public synchronized int compactionThreshold() {
+        return Math.max(MIN_COMPACTION_RECORDS, rows.size());
+    }
+
+    // === HELPER METHODS ===
+
+    private static boolean isCsv(Path file) {
+        return file.getFileName().toString().endsWith(".csv");
+    }
+
+    private List<Product> snapshot() {
+        List<Product> list = new ArrayList<>(rows.size());
+        for (String id : idsByOrder.values()) {
+            list.add(rows.get(id).toProduct());
+        }
+        return list;
+    }
+
+    private void put(Row row) {
+        Row previous = rows.put(row.id, row);
+        if (previous != null) {
+            idsByOrder.remove(previous.order);
+        }
+        // Order keys are unique; a clash (e.g. replay over a newer snapshot) moves the row down
+        long order = row.order;
+        while (idsByOrder.containsKey(order)) {
+            order++;
+        }
+        if (order != row.order) {
+            row = row.withOrder(order);
+            rows.put(row.id, row);
+        }
+        idsByOrder.put(order, row.id);
+    }
+
+    private Row remove(String id) {
+        Row removed = rows.remove(id);
+        if (removed != null) {
+            idsByOrder.remove(removed.order);
+        }
+        return removed;
+    }
+
+    private void openJournal() throws IOException {
+        if (journal == null) {
+            journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+    }
+
+    private void append(String record) throws IOException {
+        openJournal();
+        ByteBuffer buf = ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) {
+            journal.write(buf);
+        }
+        journalRecords++;
+        dirtySinceSync = true;
+    }
+
+    private void afterWrite() throws IOException {
+        if (batchDepth > 0) {
+            return;
+        }
+        if (journalRecords > compactionThreshold()) {
+            compact();
+            return;
+        }
+        if (syncPolicy == SyncPolicy.EVERY_WRITE
+                || (syncPolicy == SyncPolicy.INTERVAL && System.currentTimeMillis() - lastSync >= syncIntervalMs)) {
+            sync();
+        }
+    }
+
+    private static String deleteRecord(Row row) {
+        List<String> body = List.of(DELETE, Long.toString(row.order), row.id);
+        return record(body);
+    }
+
+    private static String record(List<String> body) {
+        StringBuilder sb = new StringBuilder(checksum(body));
+        for (String field : body) {
+            sb.append(',').append(csvEscape(field));
+        }
+        return sb.append('\n').toString();
+    }
+
+    private static String checksum(List<String> body) {
+        CRC32 crc = new CRC32();
+        for (String field : body) {
+            crc.update(field.getBytes(StandardCharsets.UTF_8));
+            crc.update(0);
+        }
+        return Long.toHexString(crc.getValue());
+    }
+
+    static String csvEscape(String v) {
+        if (v == null) return "";
+        String s = v.replace("\"", "\"\"");
+        if (s.contains(",") || s.contains("\"") || s.contains("\n") || s.contains("\r")) return "\"" + s + "\"";
+        return s;
+    }
+
+    // === INNER CLASSES ===
+
+    // Immutable copy of a product as persisted
+    private static final class Row {
+        final long order;
+        final String id;
+        final String name;
+        final String sku;
+        final int qty;
+        final double price;
+        final String location;
+
+        Row(long order, String id, String name, String sku, int qty, double price, String location) {
+            this.order = order;
+            this.id = id;
+            this.name = name;
+            this.sku = sku;
+            this.qty = qty;
+            this.price = price;
+            this.location = location;
+        }
+
+        static Row of(long order, Product p) {
+            return new Row(order, p.getId(), p.getName(), p.getSku(), p.getQty(), p.getPrice(), p.getLocation());
+        }
+
+        // Fields id, name, sku, qty, price, location starting at {@code from}
+        static Row of(long order, List<String> f, int from) {
+            return new Row(order, f.get(from), f.get(from + 1), f.get(from + 2),
+                    parseInt(f.get(from + 3)), parseDouble(f.get(from + 4)), f.get(from + 5));
+        }
+
+        Row withOrder(long newOrder) {
+            return new Row(newOrder, id, name, sku, qty, price, location);
+        }
+
+        Product toProduct() {
+            return new Product(id, name, sku, qty, price, location);
+        }
+
+        String toRecord(String op) {
+            return record(List.of(op, Long.toString(order), nz(id), nz(name), nz(sku),
+                    Integer.toString(qty), Double.toString(price), nz(location)));
+        }
+
+        void writeTo(CsvWriter w) throws IOException {
+            w.field(id).field(name).field(sku).field(qty).field(price).field(location).endRow();
+        }
+
+        private static String nz(String s) {
+            return s == null ? "" : s;
+        }
+
+        private static int parseInt(String s) {
+            try { return Integer.parseInt(s.trim()); } catch (Exception e) { return 0; }
+        }
+
+        private static double parseDouble(String s) {
+            try { return Double.parseDouble(s.trim()); } catch (Exception e) { return 0.0; }
+        }
+    }
+
+    // message Product { string id = 1; string name = 2; string sku = 3; int32 qty = 4; double price = 5; string location = 6; }
+    // Table order is the record order, so the order key is not stored
+    private static final ProtoSnapshot.Codec<Row> ROW_CODEC = new ProtoSnapshot.Codec<>() {
+        @Override
+        public String type() {
+            return "inventory.app.Product";
+        }
+
+        @Override
+        public int serializedSize(Row r) {
+            int size = 0;
+            if (notEmpty(r.id)) size += CodedOutputStream.computeStringSize(1, r.id);
+            if (notEmpty(r.name)) size += CodedOutputStream.computeStringSize(2, r.name);
+            if (notEmpty(r.sku)) size += CodedOutputStream.computeStringSize(3, r.sku);
+            if (r.qty != 0) size += CodedOutputStream.computeInt32Size(4, r.qty);
+            if (r.price != 0) size += CodedOutputStream.computeDoubleSize(5, r.price);
+            if (notEmpty(r.location)) size += CodedOutputStream.computeStringSize(6, r.location);
+            return size;
+        }
+
+        @Override
+        public void write(Row r, CodedOutputStream out) throws IOException {
+            if (notEmpty(r.id)) out.writeString(1, r.id);
+            if (notEmpty(r.name)) out.writeString(2, r.name);
+            if (notEmpty(r.sku)) out.writeString(3, r.sku);
+            if (r.qty != 0) out.writeInt32(4, r.qty);
+            if (r.price != 0) out.writeDouble(5, r.price);
+            if (notEmpty(r.location)) out.writeString(6, r.location);
+        }
+
+        @Override
+        public Row read(CodedInputStream in) throws IOException {
+            String id = "", name = "", sku = "", location = "";
+            int qty = 0;
+            double price = 0;
+            int tag;
+            while ((tag = in.readTag()) != 0) {
+                switch (WireFormat.getTagFieldNumber(tag)) {
+                    case 1 -> id = in.readString();
+                    case 2 -> name = in.readString();
+                    case 3 -> sku = in.readString();
+                    case 4 -> qty = in.readInt32();
+                    case 5 -> price = in.readDouble();
+                    case 6 -> location = in.readString();
+                    default -> in.skipField(tag);
+                }
+            }
+            return new Row(0, id, name, sku, qty, price, location);
+        }
+
+        private boolean notEmpty(String s) {
+            return s != null && !s.isEmpty();
+        }
+    };
+
+    /**
+     * Quote-aware CSV record iterator over an in-memory string; newlines inside quotes
+     * belong to the field.
+     */
+    private static final class CsvRecords implements Iterable<List<String>>, java.util.Iterator<List<String>> {
+        private final String text;
+        private int pos;
+
+        CsvRecords(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public java.util.Iterator<List<String>> iterator() {
+            return this;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pos < text.length() && (text.charAt(pos) == '\n' || text.charAt(pos) == '\r')) {
+                pos++;
+            }
+            return pos < text.length();
+        }
+
+        @Override
+        public List<String> next() {
+            List<String> fields = new ArrayList<>();
+            StringBuilder cur = new StringBuilder();
+            boolean inQuotes = false;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (inQuotes) {
+                    if (c == '"') {
+                        if (pos < text.length() && text.charAt(pos) == '"') {
+                            cur.append('"');
+                            pos++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else {
+                        cur.append(c);
+                    }
+                } else if (c == '"') {
+                    inQuotes = true;
+                } else if (c == ',') {
+                    fields.add(cur.toString());
+                    cur.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    cur.append(c);
+                }
+            }
+            fields.add(cur.toString());
+            return fields;
+        }
+    }
+}
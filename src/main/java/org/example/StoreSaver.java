@@ -0,0 +1,316 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Debounced background writer in front of {@link ProductJournalStore}.
+ * <p>
+ * Changes are queued from the FX thread and coalesced per product id: ten edits to the same
+ * row become one record, and an add followed by a delete writes nothing. The queue is saved
+ * as a single batch (one fsync) once no change has arrived for {@code quietMillis}, or at the
+ * latest {@code maxDelayMillis} after the first unsaved change, so a long editing session
+ * still reaches disk. Failed saves are kept and retried. {@link #close()} flushes.
+ */
+public class StoreSaver implements Closeable {
+
+    public static final long DEFAULT_QUIET_MS = 500;
+    public static final long DEFAULT_MAX_DELAY_MS = 5_000;
+
+    public enum State { SAVED, PENDING, SAVING, FAILED }
+
+    private final ProductJournalStore store;
+    private final long quietMillis;
+    private final long maxDelayMillis;
+    private final ScheduledExecutorService scheduler;
+
+    // Pending changes by product id, in the order they must be applied
+    private LinkedHashMap<String, Change> pending = new LinkedHashMap<>();
+    // Set when the whole store is replaced; pending changes apply on top of it
+    private List<Product> replacement;
+    private long firstChangeAt;
+    private ScheduledFuture<?> scheduled;
+    private State state = State.SAVED;
+    private Instant lastSaved;
+    private String lastError;
+    private int saveCount;
+    private volatile Consumer<Status> listener = s -> { };
+
+    public StoreSaver(ProductJournalStore store) {
+        this(store, DEFAULT_QUIET_MS, DEFAULT_MAX_DELAY_MS);
+    }
+
+    public StoreSaver(ProductJournalStore store, long quietMillis, long maxDelayMillis) {
+        this.store = store;
+        this.quietMillis = quietMillis;
+        this.maxDelayMillis = Math.max(quietMillis, maxDelayMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "store-saver");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Called on the saver thread whenever the state changes
+    public void setListener(Consumer<Status> listener) {
+        this.listener = listener;
+    }
+
+    // === CHANGES (any thread) ===
+
+    // Products end up above the current first row, in list order
+    public void addFirst(List<Product> products) {
+        synchronized (this) {
+            // Each add goes on top of the previous one, so queue them bottom-up
+            for (int i = products.size() - 1; i >= 0; i--) {
+                merge(new Change(Change.Kind.ADD, copy(products.get(i))));
+            }
+            changed();
+        }
+    }
+
+    public void update(Product product) {
+        synchronized (this) {
+            merge(new Change(Change.Kind.UPDATE, copy(product)));
+            changed();
+        }
+    }
+
+    public void delete(String id) {
+        synchronized (this) {
+            // Only the id of a deleted product matters
+            merge(new Change(Change.Kind.DELETE, new Product(id, "", "", 0, 0.0, "")));
+            changed();
+        }
+    }
+
+    public void replaceAll(List<Product> products) {
+        synchronized (this) {
+            List<Product> copies = new ArrayList<>(products.size());
+            for (Product p : products) {
+                copies.add(copy(p));
+            }
+            replacement = copies;
+            pending.clear();
+            changed();
+        }
+    }
+
+    // === SAVING ===
+
+    /**
+     * Writes everything queued so far and waits for it. Throws if the write fails;
+     * the changes then stay queued.
+     */
+    public void flush() throws IOException {
+        try {
+            scheduler.submit(() -> {
+                save();
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while saving", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            // Already closed: nothing left to write
+        }
+    }
+
+    // Flushes, then stops the saver thread and closes the store
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            scheduler.shutdown();
+            store.close();
+        }
+    }
+
+    public synchronized Status getStatus() {
+        return new Status(state, lastSaved, pending.size() + (replacement != null ? 1 : 0), lastError, saveCount);
+    }
+
+    // === HELPER METHODS ===
+
+    // Folds a change into the queue; must hold the lock
+    private void merge(Change change) {
+        String id = change.product.getId();
+        Change queued = pending.get(id);
+        if (queued == null || change.kind == Change.Kind.ADD) {
+            pending.remove(id);
+            pending.put(id, change);
+        } else if (queued.kind == Change.Kind.ADD) {
+            if (change.kind == Change.Kind.DELETE) {
+                pending.remove(id); // never written, nothing to delete
+            } else {
+                pending.put(id, new Change(Change.Kind.ADD, change.product)); // keeps its place
+            }
+        } else {
+            pending.put(id, change);
+        }
+    }
+
+    // Reschedules the save: quiet period after this change, capped by the max delay
+    private void changed() {
+        long now = System.currentTimeMillis();
+        if (state != State.PENDING && state != State.FAILED) {
+            firstChangeAt = now;
+        }
+        if (state != State.FAILED) {
+            state = State.PENDING;
+        }
+        long delay = Math.min(quietMillis, firstChangeAt + maxDelayMillis - now);
+        schedule(Math.max(0, delay));
+        notifyListener();
+    }
+
+    private void schedule(long delayMillis) {
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        try {
+            scheduled = scheduler.schedule(() -> {
+                try {
+                    save();
+                } catch (IOException e) {
+                    // Reported through the status; save() has already scheduled a retry
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            // Closed; close() has flushed what it could
+        }
+    }
+
+    // Runs on the saver thread only
+    private void save() throws IOException {
+        LinkedHashMap<String, Change> batch;
+        List<Product> replace;
+        synchronized (this) {
+            if (pending.isEmpty() && replacement == null) {
+                return;
+            }
+            batch = pending;
+            replace = replacement;
+            pending = new LinkedHashMap<>();
+            replacement = null;
+            state = State.SAVING;
+            notifyListener();
+        }
+
+        try {
+            store.batch(s -> {
+                if (replace != null) {
+                    s.replaceAll(replace);
+                }
+                for (Change change : batch.values()) {
+                    switch (change.kind) {
+                        case ADD: s.addFirst(List.of(change.product)); break;
+                        case UPDATE: s.update(change.product); break;
+                        default: s.delete(change.product.getId());
+                    }
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                // Put the failed batch back under anything queued meanwhile, then retry later.
+                // A newer replaceAll() supersedes it entirely.
+                if (replacement == null) {
+                    LinkedHashMap<String, Change> newer = pending;
+                    pending = batch;
+                    replacement = replace;
+                    for (Change change : newer.values()) {
+                        merge(change);
+                    }
+                }
+                state = State.FAILED;
+                firstChangeAt = System.currentTimeMillis();
+                lastError = e.getMessage();
+                System.err.println("❌ Failed to save store: " + e.getMessage());
+                schedule(maxDelayMillis);
+                notifyListener();
+            }
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+
+        synchronized (this) {
+            saveCount++;
+            lastSaved = Instant.now();
+            lastError = null;
+            if (pending.isEmpty() && replacement == null) {
+                state = State.SAVED;
+            } else {
+                state = State.PENDING;
+                firstChangeAt = System.currentTimeMillis();
+            }
+            notifyListener();
+        }
+    }
+
+    private void notifyListener() {
+        Status status = new Status(state, lastSaved, pending.size() + (replacement != null ? 1 : 0), lastError, saveCount);
+        try {
+            listener.accept(status);
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Save status listener failed: " + e.getMessage());
+        }
+    }
+
+    // The FX Product is mutable; queue a copy of its current values
+    private static Product copy(Product p) {
+        return new Product(p.getId(), p.getName(), p.getSku(), p.getQty(), p.getPrice(), p.getLocation());
+    }
+
+    // === INNER CLASSES ===
+
+    private static final class Change {
+        enum Kind { ADD, UPDATE, DELETE }
+
+        final Kind kind;
+        final Product product;
+
+        Change(Kind kind, Product product) {
+            this.kind = kind;
+            this.product = product;
+        }
+    }
+
+    public static final class Status {
+        private final State state;
+        private final Instant lastSaved;
+        private final int pendingChanges;
+        private final String lastError;
+        private final int saveCount;
+
+        Status(State state, Instant lastSaved, int pendingChanges, String lastError, int saveCount) {
+            this.state = state;
+            this.lastSaved = lastSaved;
+            this.pendingChanges = pendingChanges;
+            this.lastError = lastError;
+            this.saveCount = saveCount;
+        }
+
+        public State getState() { return state; }
+        public Instant getLastSaved() { return lastSaved; }
+        public int getPendingChanges() { return pendingChanges; }
+        public String getLastError() { return lastError; }
+        // Number of batches written so far
+        public int getSaveCount() { return saveCount; }
+
+        @Override
+        public String toString() {
+            return String.format("Status{state=%s, pending=%d, saves=%d}", state, pendingChanges, saveCount);
+        }
+    }
+}
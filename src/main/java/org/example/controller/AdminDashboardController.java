@@ -1,7 +1,6 @@
 package org.example.controller;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
@@ -9,10 +8,23 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
+import javafx.scene.text.Font;
 import javafx.stage.Stage;
+import org.example.dao.InstrumentedProductDAO;
 import org.example.dao.ProductDAO;
 import org.example.dao.ProductDAOImpl;
+import org.example.dao.ProductQuery;
+import org.example.dao.UpdateResult;
+import org.example.metrics.Metrics;
 import org.example.model.Product;
+import org.example.product.java.util.DBConnection;
+import org.example.product.java.util.SlowQueryLog;
+import org.example.service.EmailService;
+import org.example.service.StockAlertService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class AdminDashboardController {
 
@@ -30,55 +42,92 @@ public class AdminDashboardController {
     private TableColumn<Product, Double> priceColumn;
     @FXML
     private TableColumn<Product, Integer> thresholdColumn;
+    @FXML
+    private TextField searchField;
+    @FXML
+    private ProgressBar taskProgress;
+    @FXML
+    private Label statusLabel;
+    @FXML
+    private Button cancelButton;
 
     private ProductDAO productDAO;
-    private final ObservableList<Product> productList = FXCollections.observableArrayList();
+    // ✅ Only the pages around the viewport are held in memory
+    private LazyProductList productList;
+    // Name filter currently applied to productList
+    private String searchText = "";
+    // Task shown in the status bar; a newer one replaces it
+    private Task<?> currentTask;
 
     @FXML
     public void initialize() {
         try {
-            productDAO = new ProductDAOImpl();
+            productDAO = new InstrumentedProductDAO(new ProductDAOImpl());
         } catch (Exception e) {
             showAlert("Initialization Error",
                     "Failed to connect to database. check DBLink/DBUSER/PASSWORD env vars.\nError: " + e.getMessage());
         }
 
         // Create columns programmatically if not in FXML
+        // User data = server-side sort key for LazyProductList
         TableColumn<Product, Integer> idCol = new TableColumn<>("ID");
         idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
+        idCol.setUserData(ProductQuery.SortField.ID);
 
         TableColumn<Product, String> nameCol = new TableColumn<>("Name");
         nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        nameCol.setUserData(ProductQuery.SortField.NAME);
 
         TableColumn<Product, String> catCol = new TableColumn<>("Category");
         catCol.setCellValueFactory(new PropertyValueFactory<>("category"));
+        catCol.setUserData(ProductQuery.SortField.CATEGORY);
 
         TableColumn<Product, Integer> qtyCol = new TableColumn<>("Qty");
         qtyCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
+        qtyCol.setUserData(ProductQuery.SortField.QUANTITY);
 
         TableColumn<Product, Double> priceCol = new TableColumn<>("Price");
         priceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
+        priceCol.setUserData(ProductQuery.SortField.PRICE);
 
         TableColumn<Product, Integer> thrCol = new TableColumn<>("Threshold");
         thrCol.setCellValueFactory(new PropertyValueFactory<>("threshold"));
+        thrCol.setSortable(false);
 
         productTable.getColumns().clear();
         productTable.getColumns().addAll(idCol, nameCol, catCol, qtyCol, priceCol, thrCol);
-        productTable.setItems(productList);
+        hideProgress();
+
+        if (productDAO == null)
+            return;
+        productList = new LazyProductList(productDAO);
+        productList.setOnError(e -> showAlert("Error", "Failed to load products: " + e.getMessage()));
+        productList.attachTo(productTable);
 
         loadProducts();
     }
 
+    // Re-reads the first page; later pages are fetched again as the table scrolls
     private void loadProducts() {
-        if (productDAO == null)
-            return;
-        try {
-            productList.setAll(productDAO.getAllProducts());
-        } catch (Exception e) {
-            showAlert("Error", "Failed to load products: " + e.getMessage());
+        if (productList != null) {
+            productList.refresh();
         }
     }
 
+    // ✅ Name filter runs in the database, like sorting
+    @FXML
+    private void handleSearch() {
+        if (productList == null)
+            return;
+        searchText = searchField.getText().trim();
+        productList.setFilter(searchText.isEmpty() ? ProductQuery.all() : ProductQuery.all().nameContains(searchText));
+    }
+
+    // Same test as the nameContains filter under the default case-insensitive collation
+    private boolean matchesSearch(Product product) {
+        return product.getName().toLowerCase().contains(searchText.toLowerCase());
+    }
+
     @FXML
     private void handleAddProduct() {
         Dialog<Product> dialog = new Dialog<>();
@@ -134,18 +183,20 @@ public class AdminDashboardController {
             return null;
         });
 
-        dialog.showAndWait().ifPresent(product -> {
-            try {
-                if (productDAO.addProduct(product)) {
-                    loadProducts();
-                    showAlert("Success", "Product added successfully!");
-                } else {
-                    showAlert("Error", "Failed to add product");
-                }
-            } catch (Exception e) {
-                showAlert("Error", "Database error: " + e.getMessage());
-            }
-        });
+        dialog.showAndWait().ifPresent(product ->
+                runInBackground("Adding " + product.getName() + "...", "Database error",
+                        progress -> productDAO.addProduct(product),
+                        added -> {
+                            if (added) {
+                                // ✅ Slot the new row into its page instead of reloading the table
+                                if (matchesSearch(product)) {
+                                    showRow(productList.insertRow(product));
+                                }
+                                showAlert("Success", "Product added successfully!");
+                            } else {
+                                showAlert("Error", "Failed to add product");
+                            }
+                        }));
     }
 
     @FXML
@@ -195,12 +246,13 @@ public class AdminDashboardController {
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == updateType) {
                 try {
-                    selected.setName(name.getText());
-                    selected.setCategory(category.getText());
-                    selected.setQuantity(Integer.parseInt(quantity.getText()));
-                    selected.setPrice(Double.parseDouble(price.getText()));
-                    selected.setThreshold(Integer.parseInt(threshold.getText()));
-                    return selected;
+                    Product edited = new Product(selected);
+                    edited.setName(name.getText());
+                    edited.setCategory(category.getText());
+                    edited.setQuantity(Integer.parseInt(quantity.getText()));
+                    edited.setPrice(Double.parseDouble(price.getText()));
+                    edited.setThreshold(Integer.parseInt(threshold.getText()));
+                    return edited;
                 } catch (NumberFormatException e) {
                     return null;
                 }
@@ -208,18 +260,58 @@ public class AdminDashboardController {
             return null;
         });
 
-        dialog.showAndWait().ifPresent(product -> {
-            try {
-                if (productDAO.updateProduct(product)) {
-                    loadProducts();
-                    showAlert("Success", "Product updated successfully!");
-                } else {
-                    showAlert("Error", "Failed to update product");
-                }
-            } catch (Exception e) {
-                showAlert("Error", "Database error: " + e.getMessage());
-            }
-        });
+        dialog.showAndWait().ifPresent(product ->
+                runInBackground("Updating " + selected.getName() + "...", "Database error", progress -> {
+                    UpdateResult result;
+                    Product row;
+                    if (onlyQuantityChanged(selected, product)) {
+                        // ✅ Apply the difference atomically so concurrent sales are not overwritten
+                        boolean adjusted = productDAO.adjustQuantity(
+                                product.getId(), product.getQuantity() - selected.getQuantity());
+                        result = adjusted ? UpdateResult.UPDATED : UpdateResult.NOT_FOUND;
+                        // Other sales may have landed too: read back just this row
+                        row = adjusted ? productDAO.getProductById(product.getId()) : null;
+                    } else {
+                        // ✅ Compare-and-set on the row version read when the table was loaded
+                        result = productDAO.compareAndUpdateProduct(product);
+                        row = result == UpdateResult.CONFLICT ? productDAO.getProductById(product.getId()) : product;
+                    }
+                    return new RowUpdate(result, row);
+                }, update -> {
+                    // ✅ Patch only the affected row; the rest of the table is left alone
+                    if (update.row == null) {
+                        loadProducts();
+                    } else {
+                        showRow(productList.replaceRow(update.row));
+                    }
+                    switch (update.result) {
+                        case UPDATED:
+                            showAlert("Success", "Product updated successfully!");
+                            break;
+                        case CONFLICT:
+                            showAlert("Conflict", "Another admin changed " + selected.getName()
+                                    + " in the meantime. The row was refreshed; please apply your edit again.");
+                            break;
+                        default:
+                            showAlert("Error", "Failed to update product");
+                    }
+                }));
+    }
+
+    // Selects and scrolls to a patched row, keeping the admin's place in the table
+    private void showRow(int index) {
+        if (index >= 0) {
+            productTable.getSelectionModel().clearAndSelect(index);
+            productTable.scrollTo(index);
+        }
+    }
+
+    private static boolean onlyQuantityChanged(Product before, Product after) {
+        return before.getName().equals(after.getName())
+                && before.getCategory().equals(after.getCategory())
+                && before.getPrice() == after.getPrice()
+                && before.getThreshold() == after.getThreshold()
+                && before.getQuantity() != after.getQuantity();
     }
 
     @FXML
@@ -236,15 +328,15 @@ public class AdminDashboardController {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    if (productDAO.deleteProduct(selected.getId())) {
-                        loadProducts();
-                    } else {
-                        showAlert("Error", "Failed to delete product");
-                    }
-                } catch (Exception e) {
-                    showAlert("Error", "Database error: " + e.getMessage());
-                }
+                runInBackground("Deleting " + selected.getName() + "...", "Database error",
+                        progress -> productDAO.deleteProduct(selected.getId()),
+                        deleted -> {
+                            if (deleted) {
+                                productList.removeRow(selected);
+                            } else {
+                                showAlert("Error", "Failed to delete product");
+                            }
+                        });
             }
         });
     }
@@ -258,8 +350,10 @@ public class AdminDashboardController {
 
         dialog.showAndWait().ifPresent(email -> {
             if (email != null && !email.trim().isEmpty()) {
-                org.example.service.StockAlertService.sendLowStockAlerts(email);
-                showAlert("Success", "Stock alerts sent to " + email);
+                runInBackground("Checking stock levels...", "Failed to send alert", progress -> {
+                    StockAlertService.sendLowStockAlerts(email);
+                    return email;
+                }, to -> showAlert("Success", "Stock alerts sent to " + to));
             } else {
                 showAlert("Warning", "Email cannot be empty");
             }
@@ -275,17 +369,95 @@ public class AdminDashboardController {
 
         dialog.showAndWait().ifPresent(email -> {
             if (email != null && !email.trim().isEmpty()) {
-                org.example.service.EmailService.sendProductReport(
-                        email,
-                        "📦 Inventory Product Report",
-                        "Attached is the latest inventory report.");
-                showAlert("Success", "Report sent to " + email);
+                runInBackground("Exporting product report...", "Failed to send report", progress ->
+                        EmailService.sendProductReport(
+                                email,
+                                "📦 Inventory Product Report",
+                                "Attached is the latest inventory report."),
+                        queued -> showAlert(queued ? "Success" : "Warning",
+                                queued ? "Report queued for " + email : "No report was sent; see the log"));
             } else {
                 showAlert("Warning", "Email cannot be empty");
             }
         });
     }
 
+    // ✅ Same table as the CLI dump: calls, errors, rows and latency percentiles per DAO method
+    @FXML
+    private void handleShowMetrics() {
+        List<String> lines = new ArrayList<>(Metrics.report());
+        SlowQueryLog slowQueries = DBConnection.getSlowQueryLog();
+        if (slowQueries != null) {
+            lines.add("");
+            lines.add(slowQueries.toString());
+            slowQueries.recent().forEach(e -> lines.add("  " + e));
+        }
+        TextArea report = new TextArea(String.join("\n", lines));
+        report.setEditable(false);
+        report.setFont(Font.font("Monospaced", 12));
+        report.setPrefColumnCount(110);
+        report.setPrefRowCount(20);
+
+        ButtonType resetType = new ButtonType("Reset", ButtonBar.ButtonData.LEFT);
+        Alert alert = new Alert(Alert.AlertType.INFORMATION, "", resetType, ButtonType.CLOSE);
+        alert.setTitle("DAO Metrics");
+        alert.setHeaderText("Database calls since startup (latencies in µs)");
+        alert.getDialogPane().setContent(report);
+        alert.setResizable(true);
+        alert.showAndWait().ifPresent(response -> {
+            if (response == resetType) {
+                Metrics.registry().reset();
+            }
+        });
+    }
+
+    @FXML
+    private void handleCancelTask() {
+        if (currentTask != null) {
+            currentTask.cancel();
+        }
+    }
+
+    // ✅ Runs JDBC / mail work off the FX thread and shows it in the status bar
+    private <T> Task<T> runInBackground(String status, String errorTitle,
+                                        BackgroundTasks.Work<T> work, Consumer<T> onSuccess) {
+        Task<T> task = BackgroundTasks.submit(status, work, onSuccess,
+                error -> showAlert("Error", errorTitle + ": " + error.getMessage()));
+        showProgress(task);
+        return task;
+    }
+
+    private void showProgress(Task<?> task) {
+        currentTask = task;
+        if (taskProgress == null) {
+            return;
+        }
+        taskProgress.progressProperty().bind(task.progressProperty());
+        statusLabel.textProperty().bind(task.messageProperty());
+        taskProgress.setVisible(true);
+        cancelButton.setVisible(true);
+        task.runningProperty().addListener((obs, was, running) -> {
+            if (!running && currentTask == task) {
+                hideProgress();
+            }
+        });
+        if (task.isDone()) {
+            hideProgress();
+        }
+    }
+
+    private void hideProgress() {
+        currentTask = null;
+        if (taskProgress == null) {
+            return;
+        }
+        taskProgress.progressProperty().unbind();
+        statusLabel.textProperty().unbind();
+        statusLabel.setText("");
+        taskProgress.setVisible(false);
+        cancelButton.setVisible(false);
+    }
+
     private void showAlert(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
@@ -300,4 +472,16 @@ public class AdminDashboardController {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/LoginView.fxml"));
         stage.setScene(new Scene(loader.load()));
     }
+
+    // === INNER CLASS ===
+    // Outcome of an update plus the row as it now is (null if it is gone)
+    private static class RowUpdate {
+        final UpdateResult result;
+        final Product row;
+
+        RowUpdate(UpdateResult result, Product row) {
+            this.result = result;
+            this.row = row;
+        }
+    }
 }
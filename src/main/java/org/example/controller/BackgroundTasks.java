@@ -0,0 +1,119 @@
+package org.example.controller;
+
+import javafx.concurrent.Task;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs controller work (JDBC, mail) off the FX Application Thread.
+ * <p>
+ * Work runs on a small bounded pool of daemon threads; success and failure callbacks
+ * are invoked on the FX thread. The returned {@link Task} exposes progress and message
+ * properties for binding and can be cancelled, in which case neither callback runs.
+ */
+public final class BackgroundTasks {
+
+    public static final int THREADS = 4;
+    public static final int QUEUE_CAPACITY = 64;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            THREADS, THREADS, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            r -> {
+                Thread t = new Thread(r, "fx-background-" + THREAD_COUNT.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private BackgroundTasks() {
+    }
+
+    // Handed to the work so it can report progress and notice cancellation
+    public interface Progress {
+        void update(long done, long total);
+
+        void message(String message);
+
+        boolean isCancelled();
+
+        // Throws CancellationException if the task was cancelled
+        default void checkCancelled() {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(Progress progress) throws Exception;
+    }
+
+    /**
+     * Starts {@code work} in the background. Must be called on the FX thread.
+     * If the pool is saturated {@code onFailure} receives a RejectedExecutionException.
+     */
+    public static <T> Task<T> submit(String message, Work<T> work,
+                                     Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        UiTask<T> task = new UiTask<>(work);
+        task.message(message);
+        task.setOnSucceeded(e -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(e -> onFailure.accept(task.getException()));
+        try {
+            EXECUTOR.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+            onFailure.accept(new RejectedExecutionException("Too many background tasks are running, try again", e));
+        }
+        return task;
+    }
+
+    // The shared pool, for models that schedule their own fetches (e.g. LazyProductList)
+    public static Executor executor() {
+        return EXECUTOR;
+    }
+
+    public static int getActiveCount() {
+        return EXECUTOR.getActiveCount();
+    }
+
+    public static int getQueuedCount() {
+        return EXECUTOR.getQueue().size();
+    }
+
+    // === INNER CLASS ===
+    private static class UiTask<T> extends Task<T> implements Progress {
+        private final Work<T> work;
+
+        UiTask(Work<T> work) {
+            this.work = work;
+        }
+
+        @Override
+        protected T call() throws Exception {
+            return work.run(this);
+        }
+
+        @Override
+        public void update(long done, long total) {
+            updateProgress(done, total);
+        }
+
+        @Override
+        public void message(String message) {
+            updateMessage(message);
+        }
+    }
+}
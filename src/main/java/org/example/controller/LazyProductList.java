@@ -0,0 +1,477 @@
+package org.example.controller;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import org.example.dao.ProductDAO;
+import org.example.dao.ProductPage;
+import org.example.dao.ProductQuery;
+import org.example.model.Product;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Product list for a {@code TableView} that only holds the pages near what is on screen.
+ * <p>
+ * Pages are read with {@link ProductDAO#page(ProductQuery, String, int)}, so each one is an
+ * index seek from the continuation token of the page before it; the token and row count of
+ * every page seen are kept. No COUNT is run: {@link #size()} is the rows of the pages read so
+ * far plus one page-sized estimate for the next, and grows as the user scrolls into it.
+ * {@link #get(int)} returns the row if its page is cached, otherwise {@code null} (rendered
+ * as an empty row) and fetches the page in the background, plus the next page in the scroll
+ * direction. Pages more than {@code keepPages} away from the last requested one drop their
+ * rows, so heap use does not depend on catalogue size. Sorting and filtering are applied by
+ * the database through {@link #setSort} and {@link #setFilter}.
+ * <p>
+ * Not thread-safe: use it from the FX thread only; loads call back on {@code fxExecutor}.
+ */
+public class LazyProductList extends ObservableListBase<Product> {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_KEEP_PAGES = 5;
+
+    private final ProductDAO productDAO;
+    private final int pageSize;
+    private final int keepPages;
+    private final Executor background;
+    private final Executor fxExecutor;
+
+    // In list order; only the last one may still be unread (its size is an estimate)
+    private final List<Page> pages = new ArrayList<>();
+    // starts[i] is the index of the first row of page i; rebuilt after row counts change
+    private int[] starts;
+    private ProductQuery filter = ProductQuery.all();
+    private ProductQuery.SortField sortField = ProductQuery.SortField.ID;
+    private boolean ascending = true;
+    private int size;
+    private int lastPage;
+    // Bumped whenever the query changes; stale loads are discarded
+    private int generation;
+    private Consumer<Throwable> onError = e -> System.err.println("❌ Failed to load products: " + e.getMessage());
+
+    public LazyProductList(ProductDAO productDAO) {
+        this(productDAO, DEFAULT_PAGE_SIZE, DEFAULT_KEEP_PAGES, BackgroundTasks.executor(), Platform::runLater);
+    }
+
+    public LazyProductList(ProductDAO productDAO, int pageSize, int keepPages,
+                           Executor background, Executor fxExecutor) {
+        if (pageSize <= 0 || keepPages < 1) {
+            throw new IllegalArgumentException("Page size must be positive and at least one page kept");
+        }
+        this.productDAO = productDAO;
+        this.pageSize = pageSize;
+        this.keepPages = keepPages;
+        this.background = background;
+        this.fxExecutor = fxExecutor;
+    }
+
+    public void setOnError(Consumer<Throwable> onError) {
+        this.onError = onError;
+    }
+
+    // === LIST CONTRACT ===
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Product get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size);
+        }
+        int page = pageAt(index);
+        // Prefetch one page further in whichever direction the user is scrolling
+        int ahead = page >= lastPage ? page + 1 : page - 1;
+        lastPage = page;
+        request(page);
+        if (ahead >= 0 && ahead < pages.size()) {
+            request(ahead);
+        }
+        List<Product> rows = pages.get(page).rows;
+        return rows != null ? rows.get(index - start(page)) : null;
+    }
+
+    // === QUERY CHANGES (SERVER-SIDE) ===
+
+    // Filters only; sort, limit and offset of the given query are ignored
+    public void setFilter(ProductQuery filter) {
+        this.filter = filter.copy();
+        refresh();
+    }
+
+    public void setSort(ProductQuery.SortField field, boolean ascending) {
+        if (field == sortField && ascending == this.ascending) {
+            return;
+        }
+        this.sortField = field;
+        this.ascending = ascending;
+        refresh();
+    }
+
+    /**
+     * Forgets every page and starts again from the first one, which replaces the current
+     * rows when it arrives; further pages are read on demand as the table scrolls.
+     */
+    public void refresh() {
+        int gen = ++generation;
+        ProductQuery pageQuery = query();
+        submit(() -> {
+            ProductPage first = productDAO.page(pageQuery, null, pageSize);
+            fxExecutor.execute(() -> {
+                if (gen == generation) {
+                    resetTo(first);
+                }
+            });
+        });
+    }
+
+    /**
+     * Swaps in a changed row if its page is cached, without moving other rows.
+     * Returns its index, or -1 if the row is not loaded.
+     */
+    public int replaceRow(Product row) {
+        for (int page = 0; page < pages.size(); page++) {
+            List<Product> rows = pages.get(page).rows;
+            for (int i = 0; rows != null && i < rows.size(); i++) {
+                if (rows.get(i).getId() == row.getId()) {
+                    Product old = rows.set(i, row);
+                    int index = start(page) + i;
+                    beginChange();
+                    nextSet(index, old);
+                    endChange();
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Puts a newly added row in its sorted place and fires a single add, shifting the rows
+     * after it instead of reloading. The caller checks that it matches the current filter.
+     * Returns its index, or -1 if its page is not cached or it sorts beyond the pages read
+     * so far (it shows up when the table scrolls there).
+     */
+    public int insertRow(Product row) {
+        int page = pageFor(row);
+        if (page < 0) {
+            return -1;
+        }
+        Page target = pages.get(page);
+        int offset = 0;
+        if (target.rows != null) {
+            Comparator<Product> order = order();
+            while (offset < target.rows.size() && order.compare(target.rows.get(offset), row) < 0) {
+                offset++;
+            }
+            target.rows.add(offset, row);
+        }
+        // An uncached page only grows by one placeholder; its rows are read when scrolled to
+        int index = start(page) + offset;
+        resize(target, target.count + 1);
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+        return target.rows != null ? index : -1;
+    }
+
+    /**
+     * Takes a deleted row out of its page and fires a single remove, shifting the rows
+     * after it instead of reloading. Returns the index it had, or -1 if it was not listed.
+     */
+    public int removeRow(Product row) {
+        for (int page = 0; page < pages.size(); page++) {
+            List<Product> rows = pages.get(page).rows;
+            for (int i = 0; rows != null && i < rows.size(); i++) {
+                if (rows.get(i).getId() == row.getId()) {
+                    int index = start(page) + i;
+                    Product removed = rows.remove(i);
+                    resize(pages.get(page), rows.size());
+                    beginChange();
+                    nextRemove(index, removed);
+                    endChange();
+                    return index;
+                }
+            }
+        }
+        // Not cached: drop one placeholder from the uncached page its sort key falls in
+        int page = pageFor(row);
+        if (page < 0 || pages.get(page).rows != null || pages.get(page).count == 0) {
+            return -1;
+        }
+        int index = start(page);
+        resize(pages.get(page), pages.get(page).count - 1);
+        beginChange();
+        nextRemove(index, placeholders(1));
+        endChange();
+        return -1;
+    }
+
+    /**
+     * Shows this list in {@code table} and sends header-click sorting to the database.
+     * Sortable columns carry their {@link ProductQuery.SortField} as user data.
+     */
+    public void attachTo(TableView<Product> table) {
+        table.setItems(this);
+        table.setSortPolicy(t -> {
+            if (t.getSortOrder().isEmpty()) {
+                setSort(ProductQuery.SortField.ID, true);
+            } else {
+                TableColumn<Product, ?> column = t.getSortOrder().get(0);
+                if (column.getUserData() instanceof ProductQuery.SortField) {
+                    setSort((ProductQuery.SortField) column.getUserData(),
+                            column.getSortType() == TableColumn.SortType.ASCENDING);
+                }
+            }
+            return true;
+        });
+    }
+
+    public int getCachedPageCount() {
+        int cached = 0;
+        for (Page page : pages) {
+            if (page.rows != null) {
+                cached++;
+            }
+        }
+        return cached;
+    }
+
+    // === HELPER METHODS ===
+
+    private ProductQuery query() {
+        return filter.copy().sortBy(sortField, ascending);
+    }
+
+    private void request(int page) {
+        Page target = pages.get(page);
+        if (target.rows != null || target.pending) {
+            return;
+        }
+        if (target.read && target.count == 0) {
+            // Every row of this page was removed; nothing to fetch
+            target.rows = new ArrayList<>();
+            return;
+        }
+        target.pending = true;
+        int gen = generation;
+        // A page read before is fetched again with its known size; a new one with a full page
+        int limit = target.read ? target.count : pageSize;
+        ProductQuery pageQuery = query();
+        submit(() -> {
+            ProductPage result = productDAO.page(pageQuery, target.token, limit);
+            fxExecutor.execute(() -> {
+                if (gen == generation) {
+                    target.pending = false;
+                    beginChange();
+                    install(page, result);
+                    evictDistantPages();
+                    endChange();
+                    // The page on screen just grew the extent: keep one page read ahead
+                    if (page == lastPage && page + 1 < pages.size()) {
+                        request(page + 1);
+                    }
+                }
+            });
+        }, () -> target.pending = false);
+    }
+
+    // Stores the rows of a page and fires the changes; call between beginChange/endChange
+    private void install(int page, ProductPage result) {
+        Page target = pages.get(page);
+        List<Product> rows = new ArrayList<>(result.getItems());
+        int from = start(page);
+        int oldCount = target.count;
+        boolean frontier = !target.read;
+        target.rows = rows;
+        target.read = true;
+        if (frontier && result.hasNext()) {
+            // The next page's token was made from this row, so it bounds this page for good
+            target.bound = rows.get(rows.size() - 1);
+        }
+        resize(target, rows.size());
+
+        int kept = Math.min(oldCount, rows.size());
+        if (kept > 0) {
+            nextReplace(from, from + kept, placeholders(kept));
+        }
+        if (rows.size() > oldCount) {
+            nextAdd(from + oldCount, from + rows.size());
+        } else if (rows.size() < oldCount) {
+            nextRemove(from + rows.size(), placeholders(oldCount - rows.size()));
+        }
+        if (frontier && result.hasNext()) {
+            // ✅ Grow the extent by one estimated page; it is read when scrolled into
+            Page next = new Page(result.getNextToken());
+            pages.add(next);
+            starts = null;
+            resize(next, pageSize);
+            nextAdd(size - pageSize, size);
+        }
+    }
+
+    private void evictDistantPages() {
+        for (int page = 0; page < pages.size(); page++) {
+            Page target = pages.get(page);
+            if (target.rows != null && Math.abs(page - lastPage) > keepPages) {
+                // Token and row count stay, so the page can be read again from the same place
+                List<Product> dropped = target.rows;
+                target.rows = null;
+                int from = start(page);
+                nextReplace(from, from + dropped.size(), dropped);
+            }
+        }
+    }
+
+    private void resetTo(ProductPage first) {
+        int oldSize = size;
+        pages.clear();
+        starts = null;
+        size = 0;
+        lastPage = 0;
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, placeholders(oldSize));
+        }
+        pages.add(new Page(null));
+        install(0, first);
+        endChange();
+    }
+
+    // Read page whose key range holds row: the first one whose bound it does not sort after
+    private int pageFor(Product row) {
+        Comparator<Product> order = order();
+        for (int page = 0; page < pages.size(); page++) {
+            Page target = pages.get(page);
+            if (!target.read) {
+                return -1;
+            }
+            if (target.bound == null || order.compare(row, target.bound) <= 0) {
+                return page;
+            }
+        }
+        return -1;
+    }
+
+    // Same order as the page query: sort column (text compared like the default collation), then id
+    private Comparator<Product> order() {
+        Comparator<Product> bySort = switch (sortField) {
+            case NAME -> Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER);
+            case CATEGORY -> Comparator.comparing(Product::getCategory, String.CASE_INSENSITIVE_ORDER);
+            case QUANTITY -> Comparator.comparingInt(Product::getQuantity);
+            case PRICE -> Comparator.comparingDouble(Product::getPrice);
+            case ID -> (a, b) -> 0;
+        };
+        Comparator<Product> order = bySort.thenComparingInt(Product::getId);
+        return ascending ? order : order.reversed();
+    }
+
+    private void resize(Page page, int count) {
+        size += count - page.count;
+        page.count = count;
+        starts = null;
+    }
+
+    private int start(int page) {
+        if (starts == null) {
+            starts = new int[pages.size()];
+            int index = 0;
+            for (int i = 0; i < pages.size(); i++) {
+                starts[i] = index;
+                index += pages.get(i).count;
+            }
+        }
+        return starts[page];
+    }
+
+    // Last page starting at or before index, i.e. the non-empty page that holds it
+    private int pageAt(int index) {
+        start(0);
+        int lo = 0;
+        int hi = pages.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (starts[mid] <= index) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    // Stand-in for rows that are not loaded (avoids materialising a list of nulls)
+    private static List<Product> placeholders(int count) {
+        return new AbstractList<>() {
+            @Override
+            public Product get(int index) {
+                return null;
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Fetch {
+        void run() throws Exception;
+    }
+
+    private void submit(Fetch fetch) {
+        submit(fetch, () -> { });
+    }
+
+    // Runs fetch in the background; failures are reported on the FX thread
+    private void submit(Fetch fetch, Runnable onFailure) {
+        try {
+            background.execute(() -> {
+                try {
+                    fetch.run();
+                } catch (Exception e) {
+                    fxExecutor.execute(() -> {
+                        onFailure.run();
+                        onError.accept(e);
+                    });
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool is busy; the row stays empty and is requested again when redrawn
+            onFailure.run();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LazyProductList{size=%d, pages=%d, cachedPages=%d, sort=%s %s}",
+                size, pages.size(), getCachedPageCount(), sortField, ascending ? "ASC" : "DESC");
+    }
+
+    // === INNER CLASS ===
+
+    // One keyset page: where it starts, how many rows it holds, and the rows while cached
+    private static class Page {
+        final String token;
+        // Last row when first read if another page follows; null for the final page
+        Product bound;
+        int count;
+        List<Product> rows;
+        boolean read;
+        boolean pending;
+
+        Page(String token) {
+            this.token = token;
+        }
+    }
+}
@@ -16,15 +16,35 @@ public class LoginController {
     private PasswordField passwordField;
     @FXML
     private Label errorLabel;
+    @FXML
+    private Button loginButton;
 
     private final UserService userService = new UserService();
 
     @FXML
     private void handleLogin() {
-        User user = userService.login(
-                usernameField.getText(),
-                passwordField.getText());
+        String username = usernameField.getText();
+        String password = passwordField.getText();
+
+        // ✅ The user lookup hits the database, so keep it off the FX thread
+        setBusy(true, "⏳ Signing in...");
+        BackgroundTasks.submit("Signing in...",
+                progress -> userService.login(username, password),
+                user -> {
+                    setBusy(false, "");
+                    onLoginResult(user);
+                },
+                e -> setBusy(false, "💥 Login failed: " + e.getMessage()));
+    }
+
+    private void setBusy(boolean busy, String message) {
+        errorLabel.setText(message);
+        if (loginButton != null) {
+            loginButton.setDisable(busy);
+        }
+    }
 
+    private void onLoginResult(User user) {
         if (user == null) {
             errorLabel.setText("❌ Invalid credentials");
             return;
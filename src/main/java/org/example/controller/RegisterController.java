@@ -38,9 +38,15 @@ public class RegisterController {
             statusLabel.setText("⚠️ Enter a valid email.");
             return;
         }
-        OTPService.generateOTP(email);
-        otpSent = true;
-        statusLabel.setText("✅ OTP sent to your email.");
+        // ✅ Composing and queueing the mail happens off the FX thread
+        statusLabel.setText("⏳ Sending OTP...");
+        BackgroundTasks.submit("Sending OTP...",
+                progress -> OTPService.generateOTP(email),
+                otp -> {
+                    otpSent = true;
+                    statusLabel.setText("✅ OTP sent to your email.");
+                },
+                e -> statusLabel.setText("❌ Failed to send OTP: " + e.getMessage()));
     }
 
     @FXML
@@ -66,8 +72,14 @@ public class RegisterController {
             return;
         }
 
-        userService.register(username, password, role);
-        statusLabel.setText("✅ Registration successful! Go back to Login.");
+        statusLabel.setText("⏳ Registering...");
+        BackgroundTasks.submit("Registering...",
+                progress -> {
+                    userService.register(username, password, role);
+                    return username;
+                },
+                registered -> statusLabel.setText("✅ Registration successful! Go back to Login."),
+                e -> statusLabel.setText("❌ Registration failed: " + e.getMessage()));
     }
 
     @FXML
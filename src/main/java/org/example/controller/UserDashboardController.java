@@ -6,22 +6,23 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
+import org.example.dao.InstrumentedProductDAO;
 import org.example.dao.ProductDAO;
 import org.example.dao.ProductDAOImpl;
+import org.example.dao.ProductQuery;
 import org.example.model.Product;
-import java.sql.SQLException;
-import java.util.List;
 
 public class UserDashboardController {
 
     @FXML
     private TableView<Product> productTable;
+
     private ProductDAO productDAO;
 
     @FXML
     public void initialize() {
         try {
-            productDAO = new ProductDAOImpl();
+            productDAO = new InstrumentedProductDAO(new ProductDAOImpl());
         } catch (Exception e) {
             showAlert("Initialization Error", "Failed to connect to database: " + e.getMessage());
             return;
@@ -30,32 +31,36 @@ public class UserDashboardController {
         // Create columns programmatically
         TableColumn<Product, Integer> idCol = new TableColumn<>("ID");
         idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
+        idCol.setUserData(ProductQuery.SortField.ID);
 
         TableColumn<Product, String> nameCol = new TableColumn<>("Name");
         nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        nameCol.setUserData(ProductQuery.SortField.NAME);
 
         TableColumn<Product, String> categoryCol = new TableColumn<>("Category");
         categoryCol.setCellValueFactory(new PropertyValueFactory<>("category"));
+        categoryCol.setUserData(ProductQuery.SortField.CATEGORY);
 
         TableColumn<Product, Integer> qtyCol = new TableColumn<>("Quantity");
         qtyCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
+        qtyCol.setUserData(ProductQuery.SortField.QUANTITY);
 
         TableColumn<Product, Double> priceCol = new TableColumn<>("Price");
         priceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
+        priceCol.setUserData(ProductQuery.SortField.PRICE);
 
         productTable.getColumns().addAll(idCol, nameCol, categoryCol, qtyCol, priceCol);
 
-        loadProducts();
+        // ✅ Rows are fetched page by page as the table scrolls
+        LazyProductList products = new LazyProductList(productDAO);
+        products.setOnError(this::showLoadError);
+        products.attachTo(productTable);
+        products.refresh();
     }
 
-    private void loadProducts() {
-        try {
-            List<Product> products = productDAO.getAllProducts();
-            productTable.getItems().setAll(products);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert("Error", "Failed to load products");
-        }
+    private void showLoadError(Throwable e) {
+        e.printStackTrace();
+        showAlert("Error", "Failed to load products");
     }
 
     private void showAlert(String title, String content) {
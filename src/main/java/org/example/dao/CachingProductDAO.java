@@ -0,0 +1,286 @@
+package org.example.dao;
+
+import org.example.model.Product;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache for {@link ProductDAO#getProductById}, decorating any ProductDAO.
+ * <p>
+ * Entries are kept in a bounded LRU map and expire after a fixed time-to-live. Writes
+ * go straight to the delegate and invalidate the touched ids. Callers always get a
+ * copy, so a caller mutating its Product cannot corrupt the cached row.
+ * Listing and search methods pass straight through.
+ */
+public class CachingProductDAO implements ProductDAO {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final long DEFAULT_TTL_MS = 60_000;
+
+    private final ProductDAO delegate;
+    private final long ttlNanos;
+    private final Map<Integer, CacheEntry> cache;
+
+    // Bumped on every invalidation so a load racing with a write is not cached
+    private long writeEpoch;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CachingProductDAO(ProductDAO delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MS);
+    }
+
+    public CachingProductDAO(ProductDAO delegate, int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.delegate = delegate;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CacheEntry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // === CACHED READ ===
+
+    @Override
+    public Product getProductById(int id) throws SQLException {
+        long epoch;
+        synchronized (this) {
+            CacheEntry entry = cache.get(id);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                    hits.incrementAndGet();
+                    return new Product(entry.product);
+                }
+                cache.remove(id);
+                evictions.incrementAndGet();
+            }
+            epoch = writeEpoch;
+        }
+
+        misses.incrementAndGet();
+        Product loaded = delegate.getProductById(id);
+        if (loaded == null) {
+            return null;
+        }
+        synchronized (this) {
+            if (epoch == writeEpoch) {
+                cache.put(id, new CacheEntry(new Product(loaded), System.nanoTime()));
+            }
+        }
+        return loaded;
+    }
+
+    // === WRITE-THROUGH WITH INVALIDATION ===
+
+    @Override
+    public boolean addProduct(Product product) throws SQLException {
+        return delegate.addProduct(product);
+    }
+
+    @Override
+    public boolean updateProduct(Product product) throws SQLException {
+        try {
+            return delegate.updateProduct(product);
+        } finally {
+            invalidate(product.getId());
+        }
+    }
+
+    @Override
+    public UpdateResult compareAndUpdateProduct(Product product) throws SQLException {
+        try {
+            return delegate.compareAndUpdateProduct(product);
+        } finally {
+            invalidate(product.getId());
+        }
+    }
+
+    @Override
+    public boolean deleteProduct(int id) throws SQLException {
+        try {
+            return delegate.deleteProduct(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean adjustQuantity(int id, int delta) throws SQLException {
+        try {
+            return delegate.adjustQuantity(id, delta);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean tryReserve(int id, int quantity) throws SQLException {
+        try {
+            return delegate.tryReserve(id, quantity);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean tryReserveAll(Map<Integer, Integer> basket) throws SQLException {
+        try {
+            return delegate.tryReserveAll(basket);
+        } finally {
+            synchronized (this) {
+                for (int id : basket.keySet()) {
+                    cache.remove(id);
+                }
+                writeEpoch++;
+            }
+        }
+    }
+
+    @Override
+    public int[] addProducts(Collection<Product> products) throws SQLException {
+        return delegate.addProducts(products);
+    }
+
+    @Override
+    public int updateProducts(Collection<Product> products) throws SQLException {
+        try {
+            return delegate.updateProducts(products);
+        } finally {
+            synchronized (this) {
+                for (Product p : products) {
+                    cache.remove(p.getId());
+                }
+                writeEpoch++;
+            }
+        }
+    }
+
+    @Override
+    public int deleteProducts(int[] ids) throws SQLException {
+        try {
+            return delegate.deleteProducts(ids);
+        } finally {
+            synchronized (this) {
+                for (int id : ids) {
+                    cache.remove(id);
+                }
+                writeEpoch++;
+            }
+        }
+    }
+
+    // === PASS-THROUGH READS ===
+
+    @Override
+    public List<Product> getAllProducts() throws SQLException {
+        return delegate.getAllProducts();
+    }
+
+    @Override
+    public List<Product> getProductsByPriceRange(double minPrice, double maxPrice) throws SQLException {
+        return delegate.getProductsByPriceRange(minPrice, maxPrice);
+    }
+
+    @Override
+    public List<Product> findProducts(ProductQuery query) throws SQLException {
+        return delegate.findProducts(query);
+    }
+
+    @Override
+    public int countProducts(ProductQuery query) throws SQLException {
+        return delegate.countProducts(query);
+    }
+
+    @Override
+    public ProductPage page(String afterToken, int pageSize, ProductQuery.SortField sort) throws SQLException {
+        return delegate.page(afterToken, pageSize, sort);
+    }
+
+    @Override
+    public ProductPage page(ProductQuery query, String afterToken, int pageSize) throws SQLException {
+        return delegate.page(query, afterToken, pageSize);
+    }
+
+    @Override
+    public void forEachProduct(Consumer<Product> action) throws SQLException {
+        delegate.forEachProduct(action);
+    }
+
+    @Override
+    public void forEachProduct(ProductQuery query, Consumer<Product> action) throws SQLException {
+        delegate.forEachProduct(query, action);
+    }
+
+    @Override
+    public Stream<Product> streamAll() throws SQLException {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public void forEachDeletedSince(Instant since, Consumer<ProductTombstone> action) throws SQLException {
+        delegate.forEachDeletedSince(since, action);
+    }
+
+    @Override
+    public Instant currentDatabaseTime() throws SQLException {
+        return delegate.currentDatabaseTime();
+    }
+
+    // === CACHE MANAGEMENT ===
+
+    public synchronized void invalidate(int id) {
+        cache.remove(id);
+        writeEpoch++;
+    }
+
+    public synchronized void invalidateAll() {
+        cache.clear();
+        writeEpoch++;
+    }
+
+    public synchronized int size() { return cache.size(); }
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    public long getEvictionCount() { return evictions.get(); }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CachingProductDAO{size=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%}",
+                size(), getHitCount(), getMissCount(), getEvictionCount(), getHitRate() * 100);
+    }
+
+    // === INNER CLASS ===
+    private static class CacheEntry {
+        final Product product;
+        final long loadedAt;
+
+        CacheEntry(Product product, long loadedAt) {
+            this.product = product;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
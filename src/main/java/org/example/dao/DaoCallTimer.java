@@ -0,0 +1,119 @@
+package org.example.dao;
+
+import org.example.jfr.DaoCallEvent;
+import org.example.metrics.Metrics;
+import org.example.metrics.MetricsRegistry;
+
+import java.sql.SQLException;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Times DAO calls into a {@link MetricsRegistry}: every call adds a latency sample under
+ * {@code prefix + method}, failures bump {@code .errors} and row-returning calls add to {@code .rows}.
+ * Each call is also a {@link DaoCallEvent} for JFR recordings.
+ */
+final class DaoCallTimer {
+
+    private final String prefix;
+    // "product" / "user" for the JFR event
+    private final String dao;
+    // Null means "whatever Metrics.registry() is at call time"
+    private final MetricsRegistry registry;
+
+    DaoCallTimer(String prefix, MetricsRegistry registry) {
+        this.prefix = prefix;
+        this.dao = prefix.replaceFirst("^dao\\.", "").replaceFirst("\\.$", "");
+        this.registry = registry;
+    }
+
+    MetricsRegistry registry() {
+        return registry != null ? registry : Metrics.registry();
+    }
+
+    <T> T time(String method, SqlCall<T> call) throws SQLException {
+        return time(method, call, null);
+    }
+
+    // rows == null: the call returns no rows (writes, counts)
+    <T> T time(String method, SqlCall<T> call, ToLongFunction<? super T> rows) throws SQLException {
+        Call timed = start(method);
+        try {
+            T result = call.call();
+            timed.ok = true;
+            if (rows != null) {
+                timed.rows = result == null ? 0 : rows.applyAsLong(result);
+                registry().increment(timed.name + Metrics.ROWS, timed.rows);
+            }
+            return result;
+        } finally {
+            finish(timed);
+        }
+    }
+
+    // ✅ Streaming reads: rows are counted as the consumer sees them
+    <T> void forEach(String method, Consumer<T> action, SqlRun<Consumer<T>> call) throws SQLException {
+        Call timed = start(method);
+        try {
+            call.run(row -> {
+                timed.rows++;
+                action.accept(row);
+            });
+            timed.ok = true;
+        } finally {
+            registry().increment(timed.name + Metrics.ROWS, timed.rows);
+            finish(timed);
+        }
+    }
+
+    // For calls that end later than they return, like streams; pair with finish()
+    Call start(String method) {
+        Call call = new Call(prefix + method, method);
+        call.event.begin();
+        return call;
+    }
+
+    void finish(Call call) {
+        MetricsRegistry target = registry();
+        target.recordLatency(call.name, System.nanoTime() - call.start);
+        if (!call.ok) {
+            target.increment(call.name + Metrics.ERRORS, 1);
+        }
+        DaoCallEvent event = call.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.dao = dao;
+            event.operation = call.method;
+            event.rows = call.rows;
+            event.success = call.ok;
+            event.commit();
+        }
+    }
+
+    // === INNER CLASSES ===
+
+    // One call in flight
+    static final class Call {
+        final String name;
+        final String method;
+        final long start = System.nanoTime();
+        final DaoCallEvent event = new DaoCallEvent();
+        long rows;
+        boolean ok;
+
+        Call(String name, String method) {
+            this.name = name;
+            this.method = method;
+        }
+    }
+
+    @FunctionalInterface
+    interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface SqlRun<A> {
+        void run(A argument) throws SQLException;
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.dao;
+
+import org.example.metrics.Metrics;
+import org.example.metrics.MetricsRegistry;
+import org.example.model.Product;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Records call counts, errors, latency histograms and rows returned for every
+ * {@link ProductDAO} method, decorating any ProductDAO.
+ * <p>
+ * Metrics are named {@code dao.product.<method>}. Put it directly around
+ * {@link ProductDAOImpl} (below {@link CachingProductDAO}) so the numbers are database calls,
+ * not cache hits.
+ */
+public class InstrumentedProductDAO implements ProductDAO {
+
+    public static final String PREFIX = "dao.product.";
+
+    private final ProductDAO delegate;
+    private final DaoCallTimer timer;
+
+    // Records into Metrics.registry()
+    public InstrumentedProductDAO(ProductDAO delegate) {
+        this(delegate, null);
+    }
+
+    public InstrumentedProductDAO(ProductDAO delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.timer = new DaoCallTimer(PREFIX, registry);
+    }
+
+    // === WRITES ===
+
+    @Override
+    public boolean addProduct(Product product) throws SQLException {
+        return timer.time("addProduct", () -> delegate.addProduct(product));
+    }
+
+    @Override
+    public boolean updateProduct(Product product) throws SQLException {
+        return timer.time("updateProduct", () -> delegate.updateProduct(product));
+    }
+
+    @Override
+    public UpdateResult compareAndUpdateProduct(Product product) throws SQLException {
+        return timer.time("compareAndUpdateProduct", () -> delegate.compareAndUpdateProduct(product));
+    }
+
+    @Override
+    public boolean deleteProduct(int id) throws SQLException {
+        return timer.time("deleteProduct", () -> delegate.deleteProduct(id));
+    }
+
+    @Override
+    public boolean adjustQuantity(int id, int delta) throws SQLException {
+        return timer.time("adjustQuantity", () -> delegate.adjustQuantity(id, delta));
+    }
+
+    @Override
+    public boolean tryReserve(int id, int quantity) throws SQLException {
+        return timer.time("tryReserve", () -> delegate.tryReserve(id, quantity));
+    }
+
+    @Override
+    public boolean tryReserveAll(Map<Integer, Integer> basket) throws SQLException {
+        return timer.time("tryReserveAll", () -> delegate.tryReserveAll(basket));
+    }
+
+    @Override
+    public int[] addProducts(Collection<Product> products) throws SQLException {
+        return timer.time("addProducts", () -> delegate.addProducts(products));
+    }
+
+    @Override
+    public int updateProducts(Collection<Product> products) throws SQLException {
+        return timer.time("updateProducts", () -> delegate.updateProducts(products));
+    }
+
+    @Override
+    public int deleteProducts(int[] ids) throws SQLException {
+        return timer.time("deleteProducts", () -> delegate.deleteProducts(ids));
+    }
+
+    // === READS ===
+
+    @Override
+    public Product getProductById(int id) throws SQLException {
+        return timer.time("getProductById", () -> delegate.getProductById(id), p -> 1);
+    }
+
+    @Override
+    public List<Product> getAllProducts() throws SQLException {
+        return timer.time("getAllProducts", delegate::getAllProducts, List::size);
+    }
+
+    @Override
+    public List<Product> getProductsByPriceRange(double minPrice, double maxPrice) throws SQLException {
+        return timer.time("getProductsByPriceRange",
+                () -> delegate.getProductsByPriceRange(minPrice, maxPrice), List::size);
+    }
+
+    @Override
+    public List<Product> findProducts(ProductQuery query) throws SQLException {
+        return timer.time("findProducts", () -> delegate.findProducts(query), List::size);
+    }
+
+    @Override
+    public int countProducts(ProductQuery query) throws SQLException {
+        return timer.time("countProducts", () -> delegate.countProducts(query));
+    }
+
+    @Override
+    public ProductPage page(String afterToken, int pageSize, ProductQuery.SortField sort) throws SQLException {
+        return timer.time("page", () -> delegate.page(afterToken, pageSize, sort), p -> p.getItems().size());
+    }
+
+    @Override
+    public ProductPage page(ProductQuery query, String afterToken, int pageSize) throws SQLException {
+        return timer.time("page", () -> delegate.page(query, afterToken, pageSize), p -> p.getItems().size());
+    }
+
+    @Override
+    public void forEachProduct(Consumer<Product> action) throws SQLException {
+        timer.forEach("forEachProduct", action, delegate::forEachProduct);
+    }
+
+    @Override
+    public void forEachProduct(ProductQuery query, Consumer<Product> action) throws SQLException {
+        timer.forEach("forEachProduct", action, counting -> delegate.forEachProduct(query, counting));
+    }
+
+    // ✅ Timed from the call until the stream is closed, since that is how long the connection is held
+    @Override
+    public Stream<Product> streamAll() throws SQLException {
+        DaoCallTimer.Call call = timer.start("streamAll");
+        Stream<Product> stream;
+        try {
+            stream = delegate.streamAll();
+        } catch (SQLException | RuntimeException e) {
+            timer.finish(call);
+            throw e;
+        }
+        call.ok = true;
+        return stream.peek(p -> call.rows++).onClose(() -> {
+            timer.registry().increment(call.name + Metrics.ROWS, call.rows);
+            timer.finish(call);
+        });
+    }
+
+    @Override
+    public void forEachDeletedSince(Instant since, Consumer<ProductTombstone> action) throws SQLException {
+        timer.forEach("forEachDeletedSince", action, counting -> delegate.forEachDeletedSince(since, counting));
+    }
+
+    @Override
+    public Instant currentDatabaseTime() throws SQLException {
+        return timer.time("currentDatabaseTime", delegate::currentDatabaseTime);
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.dao;
+
+import org.example.metrics.MetricsRegistry;
+import org.example.model.User;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Records call counts, errors, latency histograms and rows returned for every
+ * {@link UserDAO} method, decorating any UserDAO. Metrics are named {@code dao.user.<method>}.
+ */
+public class InstrumentedUserDAO implements UserDAO {
+
+    public static final String PREFIX = "dao.user.";
+
+    private final UserDAO delegate;
+    private final DaoCallTimer timer;
+
+    // Records into Metrics.registry()
+    public InstrumentedUserDAO(UserDAO delegate) {
+        this(delegate, null);
+    }
+
+    public InstrumentedUserDAO(UserDAO delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.timer = new DaoCallTimer(PREFIX, registry);
+    }
+
+    @Override
+    public boolean addUser(User user) throws SQLException {
+        return timer.time("addUser", () -> delegate.addUser(user));
+    }
+
+    @Override
+    public User getUserById(int id) throws SQLException {
+        return timer.time("getUserById", () -> delegate.getUserById(id), u -> 1);
+    }
+
+    @Override
+    public User getUserByUsername(String username) throws SQLException {
+        return timer.time("getUserByUsername", () -> delegate.getUserByUsername(username), u -> 1);
+    }
+
+    @Override
+    public List<User> getAllUsers() throws SQLException {
+        return timer.time("getAllUsers", delegate::getAllUsers, List::size);
+    }
+
+    @Override
+    public boolean updateUser(User user) throws SQLException {
+        return timer.time("updateUser", () -> delegate.updateUser(user));
+    }
+
+    @Override
+    public boolean deleteUser(int id) throws SQLException {
+        return timer.time("deleteUser", () -> delegate.deleteUser(id));
+    }
+
+    // ✅ The login lookup; a slow one shows up here
+    @Override
+    public User getUserByCredentials(String username, String password) throws SQLException {
+        return timer.time("getUserByCredentials", () -> delegate.getUserByCredentials(username, password), u -> 1);
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.dao;
+
+import org.example.model.Product;
+
+/**
+ * Notified by {@link ProductDAOImpl} after a product write has been committed.
+ * Callbacks run on the writing thread, so implementations must be quick.
+ */
+public interface ProductChangeListener {
+
+    // Insert or full update; the product holds the row as written
+    void productSaved(Product product);
+
+    // Quantity changed in place (adjust / reserve); the new row state is not known
+    void productChanged(int id);
+
+    void productDeleted(int id);
+}
@@ -2,15 +2,54 @@ package org.example.dao;
 
 import org.example.model.Product;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface ProductDAO {
     boolean addProduct(Product product) throws SQLException;
     boolean updateProduct(Product product) throws SQLException;
+    // ✅ Optimistic update: only writes if the row still has product.getVersion()
+    UpdateResult compareAndUpdateProduct(Product product) throws SQLException;
     boolean deleteProduct(int id) throws SQLException;
     Product getProductById(int id) throws SQLException;
     List<Product> getAllProducts() throws SQLException;
 
     // ✅ New method
     List<Product> getProductsByPriceRange(double minPrice, double maxPrice) throws SQLException;
+
+    // ✅ Server-side search: filters, sort and paging compiled into one SELECT
+    List<Product> findProducts(ProductQuery query) throws SQLException;
+    // ✅ Number of rows matching the query's filters (sort and paging ignored)
+    int countProducts(ProductQuery query) throws SQLException;
+
+    // ✅ Keyset pagination: pass null for the first page, then the previous page's token
+    ProductPage page(String afterToken, int pageSize, ProductQuery.SortField sort) throws SQLException;
+    // Same, over the query's filters and sort order (its limit and offset are ignored)
+    ProductPage page(ProductQuery query, String afterToken, int pageSize) throws SQLException;
+
+    // ✅ Streaming reads: rows are handed over as they arrive instead of being collected first
+    void forEachProduct(Consumer<Product> action) throws SQLException;
+    void forEachProduct(ProductQuery query, Consumer<Product> action) throws SQLException;
+    // The stream holds a connection until it is closed: use try-with-resources
+    Stream<Product> streamAll() throws SQLException;
+
+    // ✅ Atomic stock changes: single conditional UPDATEs, safe under concurrent sales
+    boolean adjustQuantity(int id, int delta) throws SQLException;
+    boolean tryReserve(int id, int quantity) throws SQLException;
+    // Reserves every line of the basket or nothing (keys are product ids, values quantities)
+    boolean tryReserveAll(Map<Integer, Integer> basket) throws SQLException;
+
+    // ✅ Batch operations: one transaction, sent to the server in chunks
+    int[] addProducts(Collection<Product> products) throws SQLException;
+    int updateProducts(Collection<Product> products) throws SQLException;
+    int deleteProducts(int[] ids) throws SQLException;
+
+    // ✅ Delta exports: changed rows come from forEachProduct(ProductQuery.all().changedSince(t), ...)
+    void forEachDeletedSince(Instant since, Consumer<ProductTombstone> action) throws SQLException;
+    // The database clock, so export watermarks do not depend on the client's clock
+    Instant currentDatabaseTime() throws SQLException;
 }
@@ -1,32 +1,87 @@
 package org.example.dao;
 
+import org.example.exception.DatabaseException;
 import org.example.model.Product;
 import org.example.product.java.util.DBConnection;
 
 import java.sql.*;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ProductDAOImpl implements ProductDAO {
 
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    // Rows per round trip for cursor-based streaming (non-MySQL drivers or useCursorFetch=true)
+    public static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, category, quantity, price, threshold) VALUES (?, ?, ?, ?, ?)";
+    private static final String RESERVE_SQL =
+            "UPDATE products SET quantity = quantity - ?, version = version + 1 WHERE id = ? AND quantity >= ?";
+    private static final String UPDATE_SQL =
+            "UPDATE products SET name=?, category=?, quantity=?, price=?, threshold=?, version=version+1 WHERE id=?";
+    private static final String CAS_UPDATE_SQL =
+            "UPDATE products SET name=?, category=?, quantity=?, price=?, threshold=?, version=version+1"
+                    + " WHERE id=? AND version=?";
+    // Upsert, so deleting an id again just moves its tombstone forward
+    private static final String TOMBSTONE_SQL =
+            "INSERT INTO product_tombstones (product_id, deleted_at) VALUES (?, CURRENT_TIMESTAMP(3))"
+                    + " ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP(3)";
+
+    // Shared by every DAO instance so a write made anywhere in the process is seen
+    private static final List<ProductChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+
     private final Scanner sc = new Scanner(System.in);
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public static void addChangeListener(ProductChangeListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeChangeListener(ProductChangeListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    // Number of rows sent per executeBatch() / IN (...) list in the batch methods
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
 
     // === CORE DAO METHODS ===
 
     @Override
     public boolean addProduct(Product p) throws SQLException {
-        String sql = "INSERT INTO products (name, category, quantity, price, threshold) VALUES (?, ?, ?, ?, ?)";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, p.getName());
-            ps.setString(2, p.getCategory());
-            ps.setInt(3, p.getQuantity());
-            ps.setDouble(4, p.getPrice());
-            ps.setInt(5, p.getThreshold());
-
-            return ps.executeUpdate() > 0;
+             PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+            bindProductColumns(ps, p);
+
+            boolean added = ps.executeUpdate() > 0;
+            if (added) {
+                p.setVersion(0);
+                // ✅ Hand the generated id back to the caller
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    if (keys != null && keys.next()) {
+                        p.setId(keys.getInt(1));
+                    }
+                }
+                fireSaved(p);
+            }
+            return added;
         }
     }
 
@@ -59,31 +114,80 @@ public class ProductDAOImpl implements ProductDAO {
         return null;
     }
 
+    // On success the product's version is read back from the row, which other writers may have moved on
     @Override
     public boolean updateProduct(Product p) throws SQLException {
-        String sql = "UPDATE products SET name=?, category=?, quantity=?, price=?, threshold=? WHERE id=?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, p.getName());
-            ps.setString(2, p.getCategory());
-            ps.setInt(3, p.getQuantity());
-            ps.setDouble(4, p.getPrice());
-            ps.setInt(5, p.getThreshold());
-            ps.setInt(6, p.getId());
+        boolean updated;
+        try (Connection conn = DBConnection.getConnection()) {
+            updated = inTransaction(conn, () -> {
+                try (PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+                    bindProductColumns(ps, p);
+                    ps.setInt(6, p.getId());
+                    if (ps.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                readVersions(conn, List.of(p));
+                return true;
+            });
+        }
+        if (updated) {
+            fireSaved(p);
+        }
+        return updated;
+    }
 
-            return ps.executeUpdate() > 0;
+    /**
+     * Writes the product only if its row still carries {@code p.getVersion()}.
+     * On success the product's version is advanced to match the row.
+     */
+    @Override
+    public UpdateResult compareAndUpdateProduct(Product p) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(CAS_UPDATE_SQL)) {
+                bindProductColumns(ps, p);
+                ps.setInt(6, p.getId());
+                ps.setInt(7, p.getVersion());
+                if (ps.executeUpdate() > 0) {
+                    p.setVersion(p.getVersion() + 1);
+                    fireSaved(p);
+                    return UpdateResult.UPDATED;
+                }
+            }
+            // Nothing matched: tell a stale version apart from a deleted row
+            try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM products WHERE id = ?")) {
+                ps.setInt(1, p.getId());
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? UpdateResult.CONFLICT : UpdateResult.NOT_FOUND;
+                }
+            }
         }
     }
 
     @Override
     public boolean deleteProduct(int id) throws SQLException {
         String sql = "DELETE FROM products WHERE id=?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+        boolean deleted;
+        try (Connection conn = DBConnection.getConnection()) {
+            // ✅ Row and tombstone go together, so a delta export never misses the delete
+            deleted = inTransaction(conn, () -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, id);
+                    if (ps.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                try (PreparedStatement ps = conn.prepareStatement(TOMBSTONE_SQL)) {
+                    ps.setInt(1, id);
+                    ps.executeUpdate();
+                }
+                return true;
+            });
         }
+        if (deleted) {
+            fireDeleted(id);
+        }
+        return deleted;
     }
 
     @Override
@@ -104,6 +208,456 @@ public class ProductDAOImpl implements ProductDAO {
         return list;
     }
 
+    @Override
+    public List<Product> findProducts(ProductQuery query) throws SQLException {
+        List<Product> list = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(query.toSql())) {
+
+            bindParameters(ps, query.parameters());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRowToProduct(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public int countProducts(ProductQuery query) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(query.toCountSql())) {
+
+            bindParameters(ps, query.parameters());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Keyset page ordered by {@code sort} ascending with id as tie-breaker.
+     */
+    @Override
+    public ProductPage page(String afterToken, int pageSize, ProductQuery.SortField sort) throws SQLException {
+        return page(ProductQuery.all().sortBy(sort, true), afterToken, pageSize);
+    }
+
+    /**
+     * Keyset page of the rows matching {@code query}, in its sort order with id as tie-breaker.
+     * The seek predicate is ANDed onto the filters; limit and offset of the query are ignored.
+     * Fetches one extra row to know whether another page follows.
+     */
+    @Override
+    public ProductPage page(ProductQuery query, String afterToken, int pageSize) throws SQLException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        ProductQuery.SortField sort = query.getSortField();
+        boolean ascending = query.isAscending();
+        String column = sort.column();
+        String seek = ascending ? " > ?" : " < ?";
+        String direction = ascending ? " ASC" : " DESC";
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM products");
+        List<Object> params = new ArrayList<>();
+        boolean filtered = query.appendWhere(sql, params);
+        ProductPage.Cursor cursor = afterToken == null ? null : ProductPage.decodeToken(afterToken, sort, ascending);
+        if (cursor != null) {
+            sql.append(filtered ? " AND " : " WHERE ");
+            if (sort == ProductQuery.SortField.ID) {
+                sql.append("id").append(seek);
+            } else {
+                sql.append("(").append(column).append(seek).append(" OR (")
+                        .append(column).append(" = ? AND id").append(seek).append("))");
+                params.add(cursor.value);
+                params.add(cursor.value);
+            }
+            params.add(cursor.id);
+        }
+        sql.append(" ORDER BY ").append(column).append(direction);
+        if (sort != ProductQuery.SortField.ID) {
+            sql.append(", id").append(direction);
+        }
+        sql.append(" LIMIT ?");
+
+        List<Product> items = new ArrayList<>(pageSize + 1);
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+
+            bindParameters(ps, params);
+            ps.setInt(params.size() + 1, pageSize + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapRowToProduct(rs));
+                }
+            }
+        }
+
+        String nextToken = null;
+        if (items.size() > pageSize) {
+            items.remove(pageSize);
+            nextToken = ProductPage.encodeToken(sort, ascending, items.get(pageSize - 1));
+        }
+        return new ProductPage(items, nextToken);
+    }
+
+    // === ATOMIC STOCK METHODS ===
+
+    /**
+     * Adds {@code delta} (may be negative) to the stored quantity in one statement.
+     * Returns false if the product does not exist or the result would go below zero.
+     */
+    @Override
+    public boolean adjustQuantity(int id, int delta) throws SQLException {
+        String sql = "UPDATE products SET quantity = quantity + ?, version = version + 1"
+                + " WHERE id = ? AND quantity + ? >= 0";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, delta);
+            ps.setInt(2, id);
+            ps.setInt(3, delta);
+            boolean adjusted = ps.executeUpdate() > 0;
+            if (adjusted) {
+                fireChanged(id);
+            }
+            return adjusted;
+        }
+    }
+
+    /**
+     * Takes {@code quantity} units if at least that many are in stock.
+     */
+    @Override
+    public boolean tryReserve(int id, int quantity) throws SQLException {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Reserved quantity must be positive");
+        }
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(RESERVE_SQL)) {
+            bindReserve(ps, id, quantity);
+            boolean reserved = ps.executeUpdate() > 0;
+            if (reserved) {
+                fireChanged(id);
+            }
+            return reserved;
+        }
+    }
+
+    /**
+     * Reserves all basket lines in one transaction and one batch round trip.
+     * If any line lacks stock the whole basket is rolled back and false is returned.
+     */
+    @Override
+    public boolean tryReserveAll(Map<Integer, Integer> basket) throws SQLException {
+        if (basket.isEmpty()) {
+            return true;
+        }
+        for (int qty : basket.values()) {
+            if (qty <= 0) {
+                throw new IllegalArgumentException("Reserved quantity must be positive");
+            }
+        }
+        try (Connection conn = DBConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(RESERVE_SQL)) {
+                // Lock rows in id order so two overlapping baskets cannot deadlock
+                for (Map.Entry<Integer, Integer> line : new TreeMap<>(basket).entrySet()) {
+                    bindReserve(ps, line.getKey(), line.getValue());
+                    ps.addBatch();
+                }
+                for (int count : ps.executeBatch()) {
+                    if (count == 0) {
+                        conn.rollback();
+                        return false;
+                    }
+                }
+                conn.commit();
+                basket.keySet().forEach(ProductDAOImpl::fireChanged);
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private static void bindReserve(PreparedStatement ps, int id, int quantity) throws SQLException {
+        ps.setInt(1, quantity);
+        ps.setInt(2, id);
+        ps.setInt(3, quantity);
+    }
+
+    // === STREAMING METHODS ===
+
+    @Override
+    public void forEachProduct(Consumer<Product> action) throws SQLException {
+        forEachProduct(ProductQuery.all(), action);
+    }
+
+    /**
+     * Runs the query on a forward-only, read-only result set with streaming fetch,
+     * handing each row to {@code action} as it arrives. Memory use is one row,
+     * not the result size.
+     */
+    @Override
+    public void forEachProduct(ProductQuery query, Consumer<Product> action) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = prepareStreaming(conn, query.toSql())) {
+
+            bindParameters(ps, query.parameters());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapRowToProduct(rs));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Stream<Product> streamAll() throws SQLException {
+        Connection conn = DBConnection.getConnection();
+        PreparedStatement ps = null;
+        ResultSet rs;
+        try {
+            ps = prepareStreaming(conn, ProductQuery.all().toSql());
+            rs = ps.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(ps);
+            closeQuietly(conn);
+            throw e;
+        }
+
+        PreparedStatement statement = ps;
+        Spliterator<Product> rows = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Product> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(mapRowToProduct(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new DatabaseException("Failed to read product row", e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            closeQuietly(rs);
+            closeQuietly(statement);
+            closeQuietly(conn);
+        });
+    }
+
+    private static PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(streamingFetchSize(conn));
+        return ps;
+    }
+
+    /**
+     * Connector/J only streams rows when the fetch size is Integer.MIN_VALUE, unless the
+     * URL enables server-side cursors (useCursorFetch=true). Other drivers take a positive size.
+     */
+    private static int streamingFetchSize(Connection conn) throws SQLException {
+        String url = conn.getMetaData().getURL();
+        if (url != null && url.startsWith("jdbc:mysql:") && !url.contains("useCursorFetch=true")) {
+            return Integer.MIN_VALUE;
+        }
+        return STREAM_FETCH_SIZE;
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            System.err.println("⚠️ Error closing JDBC resource: " + e.getMessage());
+        }
+    }
+
+    // === BATCH METHODS ===
+
+    /**
+     * Inserts all products in one transaction, {@code batchSize} rows per round trip.
+     * Generated ids are set on the products and returned in iteration order.
+     */
+    @Override
+    public int[] addProducts(Collection<Product> products) throws SQLException {
+        int[] ids = new int[products.size()];
+        if (products.isEmpty()) {
+            return ids;
+        }
+        try (Connection conn = DBConnection.getConnection()) {
+            inTransaction(conn, () -> {
+                try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    List<Product> chunk = new ArrayList<>(Math.min(batchSize, products.size()));
+                    int next = 0;
+                    for (Product p : products) {
+                        bindProductColumns(ps, p);
+                        ps.addBatch();
+                        chunk.add(p);
+                        if (chunk.size() == batchSize) {
+                            next = flushInsertBatch(ps, chunk, ids, next);
+                        }
+                    }
+                    if (!chunk.isEmpty()) {
+                        flushInsertBatch(ps, chunk, ids, next);
+                    }
+                }
+                return ids;
+            });
+        }
+        products.forEach(ProductDAOImpl::fireSaved);
+        return ids;
+    }
+
+    /**
+     * Updates all products in one transaction and returns the number of rows changed.
+     * Listeners hear only about the products whose row was actually updated, and only
+     * those have their version advanced once the transaction commits.
+     */
+    @Override
+    public int updateProducts(Collection<Product> products) throws SQLException {
+        if (products.isEmpty()) {
+            return 0;
+        }
+        List<Product> updatedProducts;
+        try (Connection conn = DBConnection.getConnection()) {
+            updatedProducts = inTransaction(conn, () -> {
+                List<Product> updated = new ArrayList<>();
+                try (PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+                    List<Product> pending = new ArrayList<>(batchSize);
+                    for (Product p : products) {
+                        bindProductColumns(ps, p);
+                        ps.setInt(6, p.getId());
+                        ps.addBatch();
+                        pending.add(p);
+                        if (pending.size() == batchSize) {
+                            collectUpdated(ps.executeBatch(), pending, updated);
+                            pending.clear();
+                        }
+                    }
+                    if (!pending.isEmpty()) {
+                        collectUpdated(ps.executeBatch(), pending, updated);
+                    }
+                }
+                readVersions(conn, updated);
+                return updated;
+            });
+        }
+        updatedProducts.forEach(ProductDAOImpl::fireSaved);
+        return updatedProducts.size();
+    }
+
+    /**
+     * Deletes the given ids with {@code DELETE ... WHERE id IN (...)} statements of
+     * at most {@code batchSize} ids each, in one transaction. Ids that do not exist
+     * are skipped and get no tombstone.
+     */
+    @Override
+    public int deleteProducts(int[] ids) throws SQLException {
+        if (ids.length == 0) {
+            return 0;
+        }
+        List<Integer> deletedIds;
+        try (Connection conn = DBConnection.getConnection()) {
+            deletedIds = inTransaction(conn, () -> {
+                List<Integer> deleted = new ArrayList<>();
+                for (int from = 0; from < ids.length; from += batchSize) {
+                    int to = Math.min(from + batchSize, ids.length);
+                    // ✅ Lock the rows that exist, so only real deletes get a tombstone
+                    List<Integer> existing = new ArrayList<>();
+                    try (PreparedStatement ps = conn.prepareStatement(
+                            "SELECT id FROM products WHERE id IN (" + placeholders(to - from) + ") FOR UPDATE")) {
+                        for (int i = from; i < to; i++) {
+                            ps.setInt(i - from + 1, ids[i]);
+                        }
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                existing.add(rs.getInt(1));
+                            }
+                        }
+                    }
+                    if (existing.isEmpty()) {
+                        continue;
+                    }
+                    try (PreparedStatement ps = conn.prepareStatement(
+                            "DELETE FROM products WHERE id IN (" + placeholders(existing.size()) + ")")) {
+                        for (int i = 0; i < existing.size(); i++) {
+                            ps.setInt(i + 1, existing.get(i));
+                        }
+                        ps.executeUpdate();
+                    }
+                    try (PreparedStatement ps = conn.prepareStatement(TOMBSTONE_SQL)) {
+                        for (int id : existing) {
+                            ps.setInt(1, id);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                    deleted.addAll(existing);
+                }
+                return deleted;
+            });
+        }
+        deletedIds.forEach(ProductDAOImpl::fireDeleted);
+        return deletedIds.size();
+    }
+
+    /**
+     * Streams tombstones of products deleted at or after {@code since}, oldest first.
+     */
+    @Override
+    public void forEachDeletedSince(Instant since, Consumer<ProductTombstone> action) throws SQLException {
+        String sql = "SELECT product_id, deleted_at FROM product_tombstones WHERE deleted_at >= ? ORDER BY deleted_at";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = prepareStreaming(conn, sql)) {
+            ps.setTimestamp(1, Timestamp.from(since));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(new ProductTombstone(rs.getInt("product_id"),
+                            rs.getTimestamp("deleted_at").toInstant()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Instant currentDatabaseTime() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT CURRENT_TIMESTAMP(3)");
+             ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) {
+                throw new SQLException("SELECT CURRENT_TIMESTAMP returned no row");
+            }
+            return rs.getTimestamp(1).toInstant();
+        }
+    }
+
+    private int flushInsertBatch(PreparedStatement ps, List<Product> chunk, int[] ids, int next) throws SQLException {
+        ps.executeBatch();
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            for (Product p : chunk) {
+                if (keys == null || !keys.next()) {
+                    throw new SQLException("Driver returned fewer generated keys than inserted rows");
+                }
+                p.setId(keys.getInt(1));
+                ids[next++] = p.getId();
+            }
+        }
+        chunk.clear();
+        return next;
+    }
+
     // === INTERACTIVE METHODS (USED BY APP) ===
 
     public void addProductFromInput() throws SQLException {
@@ -211,7 +765,107 @@ public class ProductDAOImpl implements ProductDAO {
 
     // === HELPER METHODS ===
 
-    private Product mapRowToProduct(ResultSet rs) throws SQLException {
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    // Runs work with auto-commit off; commits on success, rolls back on any failure
+    private static <T> T inTransaction(Connection conn, SqlWork<T> work) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            T result = work.run();
+            conn.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void fireSaved(Product p) {
+        for (ProductChangeListener l : LISTENERS) {
+            l.productSaved(p);
+        }
+    }
+
+    private static void fireChanged(int id) {
+        for (ProductChangeListener l : LISTENERS) {
+            l.productChanged(id);
+        }
+    }
+
+    private static void fireDeleted(int id) {
+        for (ProductChangeListener l : LISTENERS) {
+            l.productDeleted(id);
+        }
+    }
+
+    private static void bindProductColumns(PreparedStatement ps, Product p) throws SQLException {
+        ps.setString(1, p.getName());
+        ps.setString(2, p.getCategory());
+        ps.setInt(3, p.getQuantity());
+        ps.setDouble(4, p.getPrice());
+        ps.setInt(5, p.getThreshold());
+    }
+
+    private static void bindParameters(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            ps.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * Copies the stored version onto each product, {@code batchSize} ids per SELECT.
+     * Run inside the transaction that updated them: the row locks are still held, so the
+     * version read is the one that transaction wrote.
+     */
+    private void readVersions(Connection conn, List<Product> products) throws SQLException {
+        for (int from = 0; from < products.size(); from += batchSize) {
+            List<Product> chunk = products.subList(from, Math.min(from + batchSize, products.size()));
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT id, version FROM products WHERE id IN (" + placeholders(chunk.size()) + ")")) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    ps.setInt(i + 1, chunk.get(i).getId());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int id = rs.getInt(1);
+                        int version = rs.getInt(2);
+                        for (Product p : chunk) {
+                            if (p.getId() == id) {
+                                p.setVersion(version);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Adds the products of one executed batch whose statement changed a row
+    private static void collectUpdated(int[] counts, List<Product> batch, List<Product> updated) {
+        for (int i = 0; i < counts.length && i < batch.size(); i++) {
+            // Rewritten multi-row statements may report SUCCESS_NO_INFO per row
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                updated.add(batch.get(i));
+            }
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ",?");
+        }
+        return sb.toString();
+    }
+
+    // Package-private so the JMH row-mapping benchmark can call it directly
+    Product mapRowToProduct(ResultSet rs) throws SQLException {
         Product p = new Product(
                 rs.getInt("id"),
                 rs.getString("name"),
@@ -220,6 +874,9 @@ public class ProductDAOImpl implements ProductDAO {
                 rs.getDouble("price")
         );
         p.setThreshold(rs.getInt("threshold")); // ✅ Add this line
+        p.setVersion(rs.getInt("version"));
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        p.setUpdatedAt(updatedAt == null ? null : updatedAt.toInstant());
         return p;
     }
 
@@ -0,0 +1,105 @@
+package org.example.dao;
+
+import org.example.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) listing returned by {@link ProductDAO#page}.
+ * <p>
+ * The continuation token encodes the sort value and id of the last row, so the
+ * next page is fetched with an index seek instead of OFFSET, and stays stable
+ * while rows are inserted or deleted elsewhere in the table.
+ */
+public class ProductPage {
+
+    private final List<Product> items;
+    private final String nextToken;
+
+    public ProductPage(List<Product> items, String nextToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+    }
+
+    public List<Product> getItems() { return items; }
+
+    // Token for the following page, or null when this is the last one
+    public String getNextToken() { return nextToken; }
+
+    public boolean hasNext() { return nextToken != null; }
+
+    // === TOKEN ENCODING ===
+
+    static String encodeToken(ProductQuery.SortField sort, Product last) {
+        return encodeToken(sort, true, last);
+    }
+
+    // Descending tokens are tagged so they cannot be replayed against the ascending order
+    static String encodeToken(ProductQuery.SortField sort, boolean ascending, Product last) {
+        String raw = order(sort, ascending) + ":" + last.getId() + ":" + sortValue(sort, last);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token into {id, sortValue}. Rejects tokens produced for another sort order.
+     */
+    static Cursor decodeToken(String token, ProductQuery.SortField sort) {
+        return decodeToken(token, sort, true);
+    }
+
+    static Cursor decodeToken(String token, ProductQuery.SortField sort, boolean ascending) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed page token", e);
+        }
+        String[] parts = raw.split(":", 3);
+        if (parts.length != 3 || !parts[0].equals(order(sort, ascending))) {
+            throw new IllegalArgumentException("Page token does not match sort order " + order(sort, ascending));
+        }
+        try {
+            return new Cursor(Integer.parseInt(parts[1]), parseSortValue(sort, parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed page token", e);
+        }
+    }
+
+    private static String order(ProductQuery.SortField sort, boolean ascending) {
+        return ascending ? sort.name() : sort.name() + "_DESC";
+    }
+
+    private static String sortValue(ProductQuery.SortField sort, Product p) {
+        switch (sort) {
+            case NAME: return p.getName();
+            case CATEGORY: return p.getCategory();
+            case QUANTITY: return Integer.toString(p.getQuantity());
+            case PRICE: return Double.toString(p.getPrice());
+            default: return "";
+        }
+    }
+
+    private static Object parseSortValue(ProductQuery.SortField sort, String value) {
+        switch (sort) {
+            case QUANTITY: return Integer.parseInt(value);
+            case PRICE: return Double.parseDouble(value);
+            case NAME:
+            case CATEGORY: return value;
+            default: return null;
+        }
+    }
+
+    // === INNER CLASS ===
+    static class Cursor {
+        final int id;
+        final Object value;
+
+        Cursor(int id, Object value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+}
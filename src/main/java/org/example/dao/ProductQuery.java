@@ -0,0 +1,243 @@
+package org.example.dao;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Composable product search that {@link ProductDAOImpl} compiles into a single
+ * parameterized SELECT, so filtering, sorting and paging happen in MySQL.
+ * <p>
+ * Text comparisons follow the column collation (case-insensitive with the MySQL defaults),
+ * which matches the {@code equalsIgnoreCase} filtering the CLI used before.
+ * <pre>
+ *   ProductQuery.all().category("Audio").priceBetween(400, 800).sortBy(SortField.PRICE, false).limit(20)
+ * </pre>
+ */
+public class ProductQuery {
+
+    public enum SortField {
+        ID("id"), NAME("name"), CATEGORY("category"), QUANTITY("quantity"), PRICE("price");
+
+        private final String column;
+
+        SortField(String column) {
+            this.column = column;
+        }
+
+        public String column() {
+            return column;
+        }
+    }
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private String nameEquals;
+    private String namePrefix;
+    private String nameContains;
+    private String category;
+    private Double minPrice;
+    private Double maxPrice;
+    private boolean lowStockOnly;
+    private Instant changedSince;
+    private SortField sortField = SortField.ID;
+    private boolean ascending = true;
+    private int limit = -1;
+    private int offset;
+
+    public static ProductQuery all() {
+        return new ProductQuery();
+    }
+
+    // Independent copy, so a shared base query can be narrowed without changing it
+    public ProductQuery copy() {
+        ProductQuery q = new ProductQuery();
+        q.nameEquals = nameEquals;
+        q.namePrefix = namePrefix;
+        q.nameContains = nameContains;
+        q.category = category;
+        q.minPrice = minPrice;
+        q.maxPrice = maxPrice;
+        q.lowStockOnly = lowStockOnly;
+        q.changedSince = changedSince;
+        q.sortField = sortField;
+        q.ascending = ascending;
+        q.limit = limit;
+        q.offset = offset;
+        return q;
+    }
+
+    public ProductQuery nameEquals(String name) {
+        this.nameEquals = name;
+        return this;
+    }
+
+    public ProductQuery nameStartsWith(String prefix) {
+        this.namePrefix = prefix;
+        return this;
+    }
+
+    public ProductQuery nameContains(String text) {
+        this.nameContains = text;
+        return this;
+    }
+
+    public ProductQuery category(String category) {
+        this.category = category;
+        return this;
+    }
+
+    public ProductQuery priceBetween(double min, double max) {
+        this.minPrice = min;
+        this.maxPrice = max;
+        return this;
+    }
+
+    public ProductQuery minPrice(double min) {
+        this.minPrice = min;
+        return this;
+    }
+
+    public ProductQuery maxPrice(double max) {
+        this.maxPrice = max;
+        return this;
+    }
+
+    // Same rule as the stock alerts: quantity <= threshold
+    public ProductQuery lowStockOnly() {
+        this.lowStockOnly = true;
+        return this;
+    }
+
+    // Rows written at or after the given instant (updated_at >= ?)
+    public ProductQuery changedSince(Instant since) {
+        this.changedSince = since;
+        return this;
+    }
+
+    public ProductQuery sortBy(SortField field, boolean ascending) {
+        this.sortField = field;
+        this.ascending = ascending;
+        return this;
+    }
+
+    public ProductQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public ProductQuery offset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative");
+        }
+        this.offset = offset;
+        return this;
+    }
+
+    public SortField getSortField() { return sortField; }
+    public boolean isAscending() { return ascending; }
+    public int getLimit() { return limit; }
+    public int getOffset() { return offset; }
+
+    // === SQL COMPILATION ===
+
+    /**
+     * Full SELECT including ORDER BY and LIMIT/OFFSET. Bind {@link #parameters()} in order.
+     */
+    public String toSql() {
+        StringBuilder sql = new StringBuilder("SELECT * FROM products");
+        appendWhere(sql, new ArrayList<>());
+        sql.append(" ORDER BY ").append(sortField.column()).append(ascending ? " ASC" : " DESC");
+        if (sortField != SortField.ID) {
+            // Tie-breaker keeps pages stable when sort values repeat
+            sql.append(", id").append(ascending ? " ASC" : " DESC");
+        }
+        if (limit >= 0) {
+            sql.append(" LIMIT ").append(limit);
+            if (offset > 0) {
+                sql.append(" OFFSET ").append(offset);
+            }
+        } else if (offset > 0) {
+            sql.append(" LIMIT ").append(Long.MAX_VALUE).append(" OFFSET ").append(offset);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * {@code SELECT COUNT(*)} over the same filters (sort and paging are ignored).
+     */
+    public String toCountSql() {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM products");
+        appendWhere(sql, new ArrayList<>());
+        return sql.toString();
+    }
+
+    /**
+     * Values for the {@code ?} placeholders produced by {@link #toSql()} / {@link #toCountSql()}.
+     */
+    public List<Object> parameters() {
+        List<Object> params = new ArrayList<>();
+        appendWhere(new StringBuilder(), params);
+        return Collections.unmodifiableList(params);
+    }
+
+    /**
+     * Appends " WHERE ..." (or nothing) and collects the matching parameters.
+     * Returns true if at least one predicate was written.
+     */
+    boolean appendWhere(StringBuilder sql, List<Object> params) {
+        List<String> predicates = new ArrayList<>();
+        if (nameEquals != null) {
+            predicates.add("name = ?");
+            params.add(nameEquals);
+        }
+        if (namePrefix != null) {
+            predicates.add("name LIKE ? ESCAPE '" + LIKE_ESCAPE + "'");
+            params.add(escapeLike(namePrefix) + "%");
+        }
+        if (nameContains != null) {
+            predicates.add("name LIKE ? ESCAPE '" + LIKE_ESCAPE + "'");
+            params.add("%" + escapeLike(nameContains) + "%");
+        }
+        if (category != null) {
+            predicates.add("category = ?");
+            params.add(category);
+        }
+        if (minPrice != null) {
+            predicates.add("price >= ?");
+            params.add(minPrice);
+        }
+        if (maxPrice != null) {
+            predicates.add("price <= ?");
+            params.add(maxPrice);
+        }
+        if (lowStockOnly) {
+            predicates.add("quantity <= threshold");
+        }
+        if (changedSince != null) {
+            predicates.add("updated_at >= ?");
+            params.add(Timestamp.from(changedSince));
+        }
+        if (!predicates.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", predicates));
+        }
+        return !predicates.isEmpty();
+    }
+
+    static String escapeLike(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                sb.append(LIKE_ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
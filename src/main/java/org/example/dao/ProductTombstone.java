@@ -0,0 +1,26 @@
+package org.example.dao;
+
+import java.time.Instant;
+
+/**
+ * Marker left in {@code product_tombstones} when a product is deleted, so delta
+ * exports can tell downstream copies to drop the row.
+ */
+public class ProductTombstone {
+
+    private final int productId;
+    private final Instant deletedAt;
+
+    public ProductTombstone(int productId, Instant deletedAt) {
+        this.productId = productId;
+        this.deletedAt = deletedAt;
+    }
+
+    public int getProductId() { return productId; }
+    public Instant getDeletedAt() { return deletedAt; }
+
+    @Override
+    public String toString() {
+        return "ProductTombstone{productId=" + productId + ", deletedAt=" + deletedAt + "}";
+    }
+}
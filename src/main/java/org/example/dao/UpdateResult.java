@@ -0,0 +1,13 @@
+package org.example.dao;
+
+/**
+ * Outcome of a compare-and-set update ({@link ProductDAO#compareAndUpdateProduct}).
+ */
+public enum UpdateResult {
+    // Row matched the expected version and was written
+    UPDATED,
+    // Someone else changed the row since it was read; reload and retry
+    CONFLICT,
+    // Row no longer exists
+    NOT_FOUND
+}
@@ -0,0 +1,44 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A whole CSV export or import through {@code CSVHelper}: rows, the batches they were handed
+ * over in, and the size of the file.
+ */
+@Name("org.example.CsvTransfer")
+@Label("CSV Import/Export")
+@Category({"Inventory", "Files"})
+@Description("Products written to or read from a CSV file")
+@StackTrace(false)
+public class CsvTransferEvent extends jdk.jfr.Event {
+
+    public static final String EXPORT = "export";
+    public static final String IMPORT = "import";
+
+    @Label("Direction")
+    @Description("export or import")
+    public String direction;
+
+    @Label("File")
+    public String file;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Batches")
+    @Description("Batches handed to the import sink; 1 for exports")
+    public int batches;
+
+    @Label("Invalid Rows")
+    public long invalidRows;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
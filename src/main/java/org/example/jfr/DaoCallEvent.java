@@ -0,0 +1,34 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One ProductDAO / UserDAO call, from the call until its result (or the last streamed row)
+ * is back. Emitted by the instrumented DAO decorators, so it covers every SQL method.
+ */
+@Name("org.example.DaoCall")
+@Label("DAO Call")
+@Category({"Inventory", "Database"})
+@Description("A ProductDAO or UserDAO method and the rows it returned")
+@StackTrace(false)
+public class DaoCallEvent extends jdk.jfr.Event {
+
+    @Label("DAO")
+    @Description("product or user")
+    public String dao;
+
+    @Label("Operation")
+    @Description("DAO method name, e.g. getAllProducts")
+    public String operation;
+
+    @Label("Rows")
+    @Description("Rows returned or streamed; 0 for writes")
+    public long rows;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,47 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One delivery attempt by a mail outbox worker, including the SMTP connect when the worker
+ * had no open connection.
+ */
+@Name("org.example.MailSend")
+@Label("Mail Send")
+@Category({"Inventory", "Mail"})
+@Description("An SMTP delivery attempt for a queued message")
+@StackTrace(false)
+public class MailSendEvent extends jdk.jfr.Event {
+
+    @Label("Subject")
+    public String subject;
+
+    @Label("Recipients")
+    public int recipients;
+
+    @Label("Attempt")
+    @Description("1 for the first try, higher for retries")
+    public int attempt;
+
+    @Label("Connected")
+    @Description("Whether this attempt had to open a new SMTP connection")
+    public boolean connected;
+
+    @Label("Queued")
+    @Description("Time from submit() to the start of this attempt")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queued;
+
+    @Label("Message Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,29 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * OTP generation or validation. The email address and the code are deliberately not recorded.
+ */
+@Name("org.example.Otp")
+@Label("OTP")
+@Category({"Inventory", "Security"})
+@Description("One-time password generated or checked")
+@StackTrace(false)
+public class OtpEvent extends jdk.jfr.Event {
+
+    public static final String GENERATE = "generate";
+    public static final String VALIDATE = "validate";
+
+    @Label("Action")
+    @Description("generate or validate")
+    public String action;
+
+    @Label("Outcome")
+    @Description("queued, invalid-address or not-configured when generating; verified, invalid, expired or missing when validating")
+    public String outcome;
+}
@@ -0,0 +1,34 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A low-stock alert run: the tracker scan (a full database scan the first time) and queuing
+ * of the alert mail.
+ */
+@Name("org.example.StockAlertScan")
+@Label("Stock Alert Scan")
+@Category({"Inventory", "Alerts"})
+@Description("Low-stock check and alert for one recipient")
+@StackTrace(false)
+public class StockAlertScanEvent extends jdk.jfr.Event {
+
+    @Label("Full Scan")
+    @Description("The tracker was seeded from the database during this run")
+    public boolean fullScan;
+
+    @Label("Low Stock Items")
+    @Description("Products newly below their threshold")
+    public int lowStockItems;
+
+    @Label("Tracked Items")
+    @Description("Products the tracker currently holds as low on stock")
+    public int trackedItems;
+
+    @Label("Alert Queued")
+    public boolean alertQueued;
+}
@@ -0,0 +1,47 @@
+package org.example.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default registry: one {@link LatencyHistogram} per timer and a {@link LongAdder} per counter,
+ * created on first use and kept for the life of the process.
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordLatency(String name, long nanos) {
+        timers.computeIfAbsent(name, n -> new LatencyHistogram()).record(nanos);
+    }
+
+    @Override
+    public void increment(String name, long delta) {
+        counters.computeIfAbsent(name, n -> new LongAdder()).add(delta);
+    }
+
+    @Override
+    public Map<String, LatencyHistogram.Snapshot> latencies() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        timers.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+        return snapshots;
+    }
+
+    @Override
+    public Map<String, Long> counters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, adder) -> values.put(name, adder.sum()));
+        return values;
+    }
+
+    // Zeroes every metric but keeps the names, so a dump after reset still lists them
+    @Override
+    public void reset() {
+        timers.values().forEach(LatencyHistogram::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Process-wide access to the current {@link MetricsRegistry} and a plain-text dump of it for
+ * the CLI menus and the admin dashboard.
+ */
+public final class Metrics {
+
+    public static final String ERRORS = ".errors";
+    public static final String ROWS = ".rows";
+
+    private static volatile MetricsRegistry registry = new InMemoryMetricsRegistry();
+
+    private Metrics() {
+    }
+
+    public static MetricsRegistry registry() {
+        return registry;
+    }
+
+    // ✅ Swaps the backend; null falls back to MetricsRegistry.NOOP
+    public static void setRegistry(MetricsRegistry newRegistry) {
+        registry = newRegistry != null ? newRegistry : MetricsRegistry.NOOP;
+    }
+
+    public static List<String> report() {
+        return report(registry);
+    }
+
+    /**
+     * One row per timer with its error and row counters alongside; latencies in microseconds.
+     * Counters that belong to no timer are listed after the table.
+     */
+    public static List<String> report(MetricsRegistry source) {
+        Map<String, LatencyHistogram.Snapshot> latencies = source.latencies();
+        Map<String, Long> counters = source.counters();
+        List<String> lines = new ArrayList<>();
+        if (latencies.isEmpty() && counters.isEmpty()) {
+            lines.add("📭 No metrics recorded yet.");
+            return lines;
+        }
+
+        int width = 10;
+        for (String name : latencies.keySet()) {
+            width = Math.max(width, name.length());
+        }
+        String header = "%-" + width + "s %8s %7s %10s %9s %9s %9s %9s %9s";
+        lines.add(String.format(header, "Metric", "Calls", "Errors", "Rows",
+                "Mean (µs)", "p50 (µs)", "p95 (µs)", "p99 (µs)", "Max (µs)"));
+        for (Map.Entry<String, LatencyHistogram.Snapshot> e : latencies.entrySet()) {
+            String name = e.getKey();
+            LatencyHistogram.Snapshot s = e.getValue();
+            Long rows = counters.get(name + ROWS);
+            lines.add(String.format(Locale.ROOT, "%-" + width + "s %8d %7d %10s %9.1f %9.1f %9.1f %9.1f %9.1f",
+                    name, s.getCount(), counters.getOrDefault(name + ERRORS, 0L), rows == null ? "-" : rows,
+                    s.getMean() / 1e3, s.percentile(50) / 1e3, s.percentile(95) / 1e3,
+                    s.percentile(99) / 1e3, s.getMax() / 1e3));
+        }
+        for (Map.Entry<String, Long> e : counters.entrySet()) {
+            String name = e.getKey();
+            if (!latencies.containsKey(stripSuffix(name))) {
+                lines.add(name + " = " + e.getValue());
+            }
+        }
+        return lines;
+    }
+
+    private static String stripSuffix(String name) {
+        if (name.endsWith(ERRORS)) return name.substring(0, name.length() - ERRORS.length());
+        if (name.endsWith(ROWS)) return name.substring(0, name.length() - ROWS.length());
+        return name;
+    }
+}
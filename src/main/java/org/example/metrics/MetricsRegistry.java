@@ -0,0 +1,52 @@
+package org.example.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Where timings and counters go. The application records through {@link Metrics#registry()},
+ * so a different backend (or {@link #NOOP}) can be plugged in with {@link Metrics#setRegistry}.
+ * <p>
+ * Names are dotted, e.g. {@code dao.product.getAllProducts}; a timer's companion counters use
+ * the {@link Metrics#ERRORS} and {@link Metrics#ROWS} suffixes.
+ */
+public interface MetricsRegistry {
+
+    // Adds one latency sample (nanoseconds) to the named timer
+    void recordLatency(String name, long nanos);
+
+    void increment(String name, long delta);
+
+    // Timers by name, sorted
+    Map<String, LatencyHistogram.Snapshot> latencies();
+
+    // Counters by name, sorted
+    Map<String, Long> counters();
+
+    void reset();
+
+    // ✅ Discards everything; for when even atomic adds are unwanted
+    MetricsRegistry NOOP = new MetricsRegistry() {
+        @Override
+        public void recordLatency(String name, long nanos) {
+        }
+
+        @Override
+        public void increment(String name, long delta) {
+        }
+
+        @Override
+        public Map<String, LatencyHistogram.Snapshot> latencies() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<String, Long> counters() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public void reset() {
+        }
+    };
+}
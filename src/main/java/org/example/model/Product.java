@@ -1,5 +1,7 @@
 package org.example.model;
 
+import java.time.Instant;
+
 public class Product {
     private int id;
     private String name;
@@ -22,6 +24,14 @@ public class Product {
         this.price = price;
     }
 
+    // Copy constructor (used by caches that must not share mutable instances)
+    public Product(Product other) {
+        this(other.id, other.name, other.category, other.quantity, other.price);
+        this.threshold = other.threshold;
+        this.version = other.version;
+        this.updatedAt = other.updatedAt;
+    }
+
     public int getId() { return id; }
     public String getName() { return name; }
     public String getCategory() { return category; }
@@ -42,4 +52,14 @@ public class Product {
     private int threshold;
     public int getThreshold() { return threshold; }
     public void setThreshold(int threshold) { this.threshold = threshold; }
+
+    // Row version for optimistic locking; incremented by every UPDATE of the row
+    private int version;
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+
+    // When the row was last written (the updated_at column); drives delta exports
+    private Instant updatedAt;
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
 }
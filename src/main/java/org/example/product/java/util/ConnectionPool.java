@@ -0,0 +1,310 @@
+package org.example.product.java.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool.
+ * <p>
+ * Callers receive a proxy whose {@code close()} hands the physical connection back
+ * to the pool, so the DAOs can keep using try-with-resources unchanged. Idle
+ * connections are validated on borrow, evicted after {@link PoolConfig#getIdleTimeoutMs()},
+ * and, when leak detection is on, connections held longer than
+ * {@link PoolConfig#getLeakThresholdMs()} are reported together with the stack trace of the borrower.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final PoolConfig config;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledEntry, Boolean> active = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final ScheduledExecutorService maintenance;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public ConnectionPool(ConnectionFactory factory, PoolConfig config) {
+        if (config.getMaxSize() <= 0) {
+            throw new IllegalArgumentException("Pool max size must be positive");
+        }
+        this.factory = factory;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = config.getMaintenanceIntervalMs();
+        maintenance.scheduleWithFixedDelay(this::runMaintenance, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting at most {@link PoolConfig#getBorrowTimeoutMs()}.
+     * The returned connection must be closed to give it back.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed.get()) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(config.getBorrowTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new SQLTransientConnectionException("Timed out after " + config.getBorrowTimeoutMs()
+                    + "ms waiting for a database connection (active=" + active.size()
+                    + ", max=" + config.getMaxSize() + ")");
+        }
+
+        try {
+            PooledEntry entry = takeValidIdle();
+            while (entry == null) {
+                if (reserveSlot()) {
+                    entry = createEntry();
+                } else {
+                    // The maintenance thread is warming a connection into the last free slot
+                    entry = pollIdle();
+                }
+            }
+            entry.borrowedAt = System.currentTimeMillis();
+            // ✅ Filling in a stack trace costs microseconds, so only pay it when leaks are tracked
+            entry.borrower = config.getLeakThresholdMs() > 0 ? new Throwable("Connection borrowed here") : null;
+            entry.leakReported = false;
+            entry.returned.set(false);
+            active.put(entry, Boolean.TRUE);
+            recordWait(System.nanoTime() - start);
+            return entry.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private boolean reserveSlot() {
+        int current;
+        do {
+            current = total.get();
+            if (current >= config.getMaxSize()) {
+                return false;
+            }
+        } while (!total.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private PooledEntry createEntry() throws SQLException {
+        try {
+            PooledEntry entry = new PooledEntry(factory.create());
+            createdCount.incrementAndGet();
+            return entry;
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private PooledEntry pollIdle() throws SQLException {
+        try {
+            return idle.pollFirst(50, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    private PooledEntry takeValidIdle() {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            try {
+                if (entry.connection.isValid(config.getValidationTimeoutSeconds())) {
+                    return entry;
+                }
+            } catch (SQLException e) {
+                // fall through and discard
+            }
+            destroy(entry);
+        }
+        return null;
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void release(PooledEntry entry) {
+        if (!entry.returned.compareAndSet(false, true)) {
+            return;
+        }
+        active.remove(entry);
+        try {
+            boolean reusable = !closed.get() && !entry.connection.isClosed();
+            if (reusable && !entry.connection.getAutoCommit()) {
+                // Never hand an open transaction to the next borrower
+                entry.connection.rollback();
+                entry.connection.setAutoCommit(true);
+            }
+            if (reusable) {
+                entry.connection.clearWarnings();
+                entry.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            } else {
+                destroy(entry);
+            }
+        } catch (SQLException e) {
+            destroy(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledEntry entry) {
+        total.decrementAndGet();
+        destroyedCount.incrementAndGet();
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            System.err.println("⚠️ Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    void runMaintenance() {
+        long now = System.currentTimeMillis();
+
+        // Evict the least recently used idle connections beyond minIdle
+        while (idle.size() > config.getMinIdle()) {
+            PooledEntry oldest = idle.peekLast();
+            if (oldest == null || now - oldest.lastUsed < config.getIdleTimeoutMs()) {
+                break;
+            }
+            if (idle.removeLastOccurrence(oldest)) {
+                destroy(oldest);
+            }
+        }
+
+        // Keep minIdle warm connections so the next borrow skips the TCP+auth handshake
+        while (!closed.get() && idle.size() < config.getMinIdle() && reserveSlot()) {
+            try {
+                idle.offerLast(createEntry());
+            } catch (SQLException e) {
+                System.err.println("⚠️ Could not pre-create pooled connection: " + e.getMessage());
+                break;
+            }
+        }
+
+        long leakThresholdMs = config.getLeakThresholdMs();
+        if (leakThresholdMs <= 0) {
+            return;
+        }
+        for (PooledEntry entry : active.keySet()) {
+            Throwable borrower = entry.borrower;
+            if (!entry.leakReported && borrower != null && now - entry.borrowedAt > leakThresholdMs) {
+                entry.leakReported = true;
+                leakCount.incrementAndGet();
+                System.err.println("⚠️ Possible connection leak: connection held for "
+                        + (now - entry.borrowedAt) + "ms");
+                borrower.printStackTrace();
+            }
+        }
+    }
+
+    public PoolStats getStats() {
+        return new PoolStats(active.size(), idle.size(), config.getMaxSize(),
+                borrowCount.get(), timeoutCount.get(), createdCount.get(), destroyedCount.get(),
+                leakCount.get(), totalWaitNanos.get(), maxWaitNanos.get());
+    }
+
+    /**
+     * Closes idle connections and stops maintenance. Borrowed connections are
+     * closed when their holders give them back.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        maintenance.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            destroy(entry);
+        }
+    }
+
+    // === INNER CLASS ===
+    private final class PooledEntry implements InvocationHandler {
+        final Connection connection;
+        final Connection proxy;
+        final AtomicBoolean returned = new AtomicBoolean(true);
+        volatile long borrowedAt;
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile Throwable borrower;
+        volatile boolean leakReported;
+
+        PooledEntry(Connection connection) {
+            this.connection = connection;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release(this);
+                    return null;
+                case "isClosed":
+                    return returned.get() || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + connection + "]";
+                default:
+                    break;
+            }
+            if (returned.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
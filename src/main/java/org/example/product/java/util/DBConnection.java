@@ -1,59 +1,120 @@
 package org.example.product.java.util;
 
+import org.example.metrics.Metrics;
+import org.example.metrics.MetricsRegistry;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBConnection {
 
-    // ✅ Single reusable connection instance
-    private static Connection connection;
+    // ✅ Shared pool; every getConnection() borrows from it and close() gives the connection back
+    private static ConnectionPool pool;
+    // ✅ Where pooled connections come from; null means MySQL from DBLink/DBUSER/PASSWORD
+    private static ConnectionPool.ConnectionFactory connectionFactory;
+    private static PoolConfig poolConfig;
+
+    // ✅ Time spent waiting for a pooled connection, as a metrics timer
+    public static final String ACQUIRE_METRIC = "db.connection.acquire";
+    // ✅ Statements slower than DB_SLOW_QUERY_MS are logged with their plan; null when turned off
+    private static volatile SlowQueryLog slowQueryLog = SlowQueryLog.fromEnvironment();
 
     public static Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        boolean ok = false;
         try {
-            if (connection == null || connection.isClosed()) {
-
-                // ✅ Load environment variables
-                String url = System.getenv("DBLink");
-                String user = System.getenv("DBUSER");
-                String pass = System.getenv("PASSWORD");
-
-                // ✅ Validate environment variables
-                if (url == null || user == null || pass == null) {
-                    throw new IllegalStateException(
-                            "❌ Missing DB environment variables. Please set DBLink, USERNAME, and PASSWORD."
-                    );
-                }
-
-                // ✅ Load MySQL driver explicitly (optional for newer JDBC versions)
-                try {
-                    Class.forName("com.mysql.cj.jdbc.Driver");
-                } catch (ClassNotFoundException e) {
-                    System.err.println("⚠️ MySQL JDBC Driver not found. Add it to your classpath.");
-                }
-
-                // ✅ Establish database connection
-                connection = DriverManager.getConnection(url, user, pass);
-                // System.out.println("✅ Database connected successfully!");
-            }
+            Connection connection = getPool().getConnection();
+            ok = true;
+            SlowQueryLog log = slowQueryLog;
+            return log == null ? connection : log.wrap(connection);
         } catch (SQLException e) {
             System.err.println("💥 Database connection failed: " + e.getMessage());
             throw e;
+        } finally {
+            MetricsRegistry metrics = Metrics.registry();
+            metrics.recordLatency(ACQUIRE_METRIC, System.nanoTime() - start);
+            if (!ok) {
+                metrics.increment(ACQUIRE_METRIC + Metrics.ERRORS, 1);
+            }
         }
-        return connection;
     }
 
     /**
-     * Safely closes the database connection.
+     * Makes every new connection come from {@code factory} (e.g. an embedded database for tests)
+     * instead of the environment variables. The current pool is closed first; a null factory
+     * switches back to the environment, a null config uses {@link PoolConfig#fromEnvironment()}.
      */
-    public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("🔌 Database connection closed.");
+    public static synchronized void setConnectionFactory(ConnectionPool.ConnectionFactory factory, PoolConfig config) {
+        closeConnection();
+        connectionFactory = factory;
+        poolConfig = config;
+    }
+
+    // Replaces the slow-query log for connections handed out from now on; null turns it off
+    public static void setSlowQueryLog(SlowQueryLog log) {
+        slowQueryLog = log;
+    }
+
+    public static SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    private static synchronized ConnectionPool getPool() {
+        if (pool == null && connectionFactory != null) {
+            pool = new ConnectionPool(connectionFactory, poolConfig != null ? poolConfig : PoolConfig.fromEnvironment());
+        }
+        if (pool == null) {
+
+            // ✅ Load environment variables
+            String url = System.getenv("DBLink");
+            String user = System.getenv("DBUSER");
+            String pass = System.getenv("PASSWORD");
+
+            // ✅ Validate environment variables
+            if (url == null || user == null || pass == null) {
+                throw new IllegalStateException(
+                        "❌ Missing DB environment variables. Please set DBLink, USERNAME, and PASSWORD."
+                );
             }
-        } catch (SQLException e) {
-            System.err.println("⚠️ Error closing connection: " + e.getMessage());
+
+            // ✅ Load MySQL driver explicitly (optional for newer JDBC versions)
+            try {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                System.err.println("⚠️ MySQL JDBC Driver not found. Add it to your classpath.");
+            }
+
+            String jdbcUrl = withBatchRewrite(url);
+            pool = new ConnectionPool(() -> DriverManager.getConnection(jdbcUrl, user, pass),
+                    PoolConfig.fromEnvironment());
+        }
+        return pool;
+    }
+
+    // ✅ Let Connector/J collapse executeBatch() into multi-row statements
+    private static String withBatchRewrite(String url) {
+        if (!url.startsWith("jdbc:mysql:") || url.contains("rewriteBatchedStatements")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+    }
+
+    /**
+     * Returns the current pool counters, or null if no connection has been requested yet.
+     */
+    public static synchronized PoolStats getPoolStats() {
+        return pool == null ? null : pool.getStats();
+    }
+
+    /**
+     * Safely closes the pool and every idle database connection.
+     */
+    public static synchronized void closeConnection() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+            System.out.println("🔌 Database connection pool closed.");
         }
     }
 }
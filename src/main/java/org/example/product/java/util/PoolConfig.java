@@ -0,0 +1,62 @@
+package org.example.product.java.util;
+
+/**
+ * Sizing and timing options for {@link ConnectionPool}.
+ * Defaults suit a single desktop/CLI process; every value can be overridden
+ * through the environment (see {@link #fromEnvironment()}).
+ */
+public class PoolConfig {
+
+    private int minIdle = 2;
+    private int maxSize = 10;
+    private long borrowTimeoutMs = 5_000;
+    private long idleTimeoutMs = 300_000;
+    // 0 turns leak detection off; borrows then skip capturing a stack trace
+    private long leakThresholdMs = 0;
+    private long maintenanceIntervalMs = 30_000;
+    private int validationTimeoutSeconds = 2;
+
+    /**
+     * Builds a config from DB_POOL_MIN_IDLE, DB_POOL_MAX_SIZE, DB_POOL_BORROW_TIMEOUT_MS,
+     * DB_POOL_IDLE_TIMEOUT_MS and DB_POOL_LEAK_THRESHOLD_MS, falling back to the defaults.
+     */
+    public static PoolConfig fromEnvironment() {
+        PoolConfig config = new PoolConfig();
+        config.setMinIdle((int) readLong("DB_POOL_MIN_IDLE", config.getMinIdle()));
+        config.setMaxSize((int) readLong("DB_POOL_MAX_SIZE", config.getMaxSize()));
+        config.setBorrowTimeoutMs(readLong("DB_POOL_BORROW_TIMEOUT_MS", config.getBorrowTimeoutMs()));
+        config.setIdleTimeoutMs(readLong("DB_POOL_IDLE_TIMEOUT_MS", config.getIdleTimeoutMs()));
+        config.setLeakThresholdMs(readLong("DB_POOL_LEAK_THRESHOLD_MS", config.getLeakThresholdMs()));
+        return config;
+    }
+
+    // Shared with SlowQueryLog.fromEnvironment()
+    static long readLong(String name, long fallback) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️ Ignoring invalid " + name + "=" + value);
+            return fallback;
+        }
+    }
+
+    public int getMinIdle() { return minIdle; }
+    public int getMaxSize() { return maxSize; }
+    public long getBorrowTimeoutMs() { return borrowTimeoutMs; }
+    public long getIdleTimeoutMs() { return idleTimeoutMs; }
+    public long getLeakThresholdMs() { return leakThresholdMs; }
+    public long getMaintenanceIntervalMs() { return maintenanceIntervalMs; }
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+
+    public void setMinIdle(int minIdle) { this.minIdle = minIdle; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+    public void setBorrowTimeoutMs(long borrowTimeoutMs) { this.borrowTimeoutMs = borrowTimeoutMs; }
+    public void setIdleTimeoutMs(long idleTimeoutMs) { this.idleTimeoutMs = idleTimeoutMs; }
+    public void setLeakThresholdMs(long leakThresholdMs) { this.leakThresholdMs = leakThresholdMs; }
+    public void setMaintenanceIntervalMs(long maintenanceIntervalMs) { this.maintenanceIntervalMs = maintenanceIntervalMs; }
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) { this.validationTimeoutSeconds = validationTimeoutSeconds; }
+}
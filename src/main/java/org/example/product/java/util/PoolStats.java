@@ -0,0 +1,56 @@
+package org.example.product.java.util;
+
+/**
+ * Point-in-time snapshot of {@link ConnectionPool} counters.
+ */
+public class PoolStats {
+
+    private final int active;
+    private final int idle;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long destroyedCount;
+    private final long leakCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+
+    public PoolStats(int active, int idle, int maxSize, long borrowCount, long timeoutCount,
+                     long createdCount, long destroyedCount, long leakCount,
+                     long totalWaitNanos, long maxWaitNanos) {
+        this.active = active;
+        this.idle = idle;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.destroyedCount = destroyedCount;
+        this.leakCount = leakCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getMaxSize() { return maxSize; }
+    public long getBorrowCount() { return borrowCount; }
+    public long getTimeoutCount() { return timeoutCount; }
+    public long getCreatedCount() { return createdCount; }
+    public long getDestroyedCount() { return destroyedCount; }
+    public long getLeakCount() { return leakCount; }
+    public long getTotalWaitNanos() { return totalWaitNanos; }
+    public long getMaxWaitNanos() { return maxWaitNanos; }
+
+    public double getAverageWaitMillis() {
+        return borrowCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolStats{active=%d, idle=%d, max=%d, borrows=%d, timeouts=%d, created=%d, "
+                        + "destroyed=%d, leaks=%d, avgWait=%.3fms, maxWait=%.3fms}",
+                active, idle, maxSize, borrowCount, timeoutCount, createdCount, destroyedCount, leakCount,
+                getAverageWaitMillis(), maxWaitNanos / 1_000_000.0);
+    }
+}
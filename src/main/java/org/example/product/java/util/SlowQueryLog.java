@@ -0,0 +1,666 @@
+package org.example.product.java.util;
+
+import org.example.metrics.Metrics;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Logs statements that take longer than a threshold, with their SQL, bound parameters,
+ * row count and duration. The first time a statement shape (the SQL with literals and
+ * IN lists collapsed) is slow, its {@code EXPLAIN} plan is captured and attached.
+ * <p>
+ * {@link #wrap(Connection)} returns a connection that times every statement created from it;
+ * {@link DBConnection} wraps each connection it hands out. Statements and result sets are
+ * wrapped in plain delegating classes, so binds and getters cost one extra virtual call and
+ * only the execute, {@code next()} and {@code close()} calls do any work. For queries the
+ * time is the execute call plus the {@code next()} calls, so slow row processing in the
+ * caller does not count. Parameters bound to a {@code password} column are redacted.
+ */
+public class SlowQueryLog {
+
+    public static final long DEFAULT_THRESHOLD_MS = 500;
+    public static final int RECENT_CAPACITY = 100;
+    // Counter in Metrics.registry()
+    public static final String SLOW_QUERY_METRIC = "db.slow_queries";
+
+    private static final Set<String> SENSITIVE_COLUMNS = Set.of("password");
+    private static final String REDACTED = "'***'";
+    private static final int MAX_PARAMETER_LENGTH = 64;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern COMPARED_COLUMN =
+            Pattern.compile("(?i)([\\w.`]+)\\s*(?:=|<>|!=|<=|>=|<|>|\\bLIKE)\\s*$");
+    private static final Pattern INSERT_COLUMNS =
+            Pattern.compile("(?is)^\\s*INSERT\\s+INTO\\s+\\S+\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(");
+    private static final Pattern EXPLAINABLE = Pattern.compile("(?is)^\\s*(SELECT|UPDATE|DELETE)\\b.*");
+
+    private final long thresholdNanos;
+    private final boolean explain;
+    private final Consumer<Entry> sink;
+    private final Set<String> explainedShapes = ConcurrentHashMap.newKeySet();
+    private final Deque<Entry> recent = new ArrayDeque<>();
+    private final AtomicLong slowCount = new AtomicLong();
+
+    public SlowQueryLog(long thresholdMs, boolean explain) {
+        this(thresholdMs, explain, SlowQueryLog::print);
+    }
+
+    public SlowQueryLog(long thresholdMs, boolean explain, Consumer<Entry> sink) {
+        if (thresholdMs < 0) {
+            throw new IllegalArgumentException("Slow query threshold must not be negative");
+        }
+        this.thresholdNanos = thresholdMs * 1_000_000L;
+        this.explain = explain;
+        this.sink = sink;
+    }
+
+    /**
+     * Builds a log from DB_SLOW_QUERY_MS (default {@value #DEFAULT_THRESHOLD_MS}; 0 logs every
+     * statement, a negative value turns the log off and returns null) and DB_SLOW_QUERY_EXPLAIN
+     * (default true).
+     */
+    public static SlowQueryLog fromEnvironment() {
+        long thresholdMs = PoolConfig.readLong("DB_SLOW_QUERY_MS", DEFAULT_THRESHOLD_MS);
+        if (thresholdMs < 0) {
+            return null;
+        }
+        String explain = System.getenv("DB_SLOW_QUERY_EXPLAIN");
+        return new SlowQueryLog(thresholdMs, explain == null || !explain.trim().equalsIgnoreCase("false"));
+    }
+
+    // ✅ Statements created from the returned connection are timed; everything else passes through
+    public Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    public long getThresholdMs() { return thresholdNanos / 1_000_000L; }
+    public long getSlowCount() { return slowCount.get(); }
+    public int getExplainedShapeCount() { return explainedShapes.size(); }
+
+    // The last slow statements, oldest first
+    public synchronized List<Entry> recent() {
+        return new ArrayList<>(recent);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SlowQueryLog{threshold=%dms, slow=%d, explainedShapes=%d}",
+                getThresholdMs(), getSlowCount(), getExplainedShapeCount());
+    }
+
+    // === RECORDING ===
+
+    private void record(Connection connection, String sql, Map<Integer, Object> params, int batchSize,
+                        long rows, long nanos) {
+        if (nanos < thresholdNanos || sql == null) {
+            return;
+        }
+        String shape = shapeOf(sql);
+        List<String> plan = List.of();
+        if (explain && EXPLAINABLE.matcher(sql).matches() && explainedShapes.add(shape)) {
+            plan = explain(connection, sql, params);
+        }
+        Entry entry = new Entry(sql, shape, formatParameters(sql, params, batchSize), rows, nanos, plan);
+        slowCount.incrementAndGet();
+        Metrics.registry().increment(SLOW_QUERY_METRIC, 1);
+        synchronized (this) {
+            if (recent.size() == RECENT_CAPACITY) {
+                recent.removeFirst();
+            }
+            recent.addLast(entry);
+        }
+        sink.accept(entry);
+    }
+
+    // Runs EXPLAIN with the same parameters on the caller's connection; one line per plan row
+    private static List<String> explain(Connection connection, String sql, Map<Integer, Object> params) {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (Map.Entry<Integer, Object> p : params.entrySet()) {
+                ps.setObject(p.getKey(), p.getValue());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    StringBuilder line = new StringBuilder();
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        Object value = rs.getObject(i);
+                        if (value != null) {
+                            if (line.length() > 0) line.append(" | ");
+                            line.append(meta.getColumnLabel(i).toLowerCase(Locale.ROOT)).append('=').append(value);
+                        }
+                    }
+                    plan.add(line.toString());
+                }
+            }
+        } catch (SQLException e) {
+            plan.add("EXPLAIN failed: " + e.getMessage());
+        }
+        return plan;
+    }
+
+    private static void print(Entry entry) {
+        StringBuilder out = new StringBuilder("🐢 Slow query: ").append(entry.describeCost()).append('\n')
+                .append("   SQL: ").append(entry.sql).append('\n');
+        if (!entry.parameters.isEmpty()) {
+            out.append("   Params: ").append(entry.parameters).append('\n');
+        }
+        if (!entry.plan.isEmpty()) {
+            out.append("   EXPLAIN (first slow run of this statement shape):\n");
+            entry.plan.forEach(line -> out.append("     ").append(line).append('\n'));
+        }
+        System.err.print(out);
+    }
+
+    // === SQL HELPERS ===
+
+    // Literals become ?, IN lists become IN (?+), whitespace is collapsed
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("IN (?+)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    /**
+     * Positions (1-based) of the parameters bound to a sensitive column, from
+     * {@code column = ?} comparisons and INSERT column lists. If the SQL mentions a sensitive
+     * column but no parameter could be matched to it, every parameter is treated as sensitive.
+     */
+    static BitSet sensitiveParameters(String sql) {
+        BitSet sensitive = new BitSet();
+        String lower = sql.toLowerCase(Locale.ROOT);
+        if (SENSITIVE_COLUMNS.stream().noneMatch(lower::contains)) {
+            return sensitive;
+        }
+
+        List<Integer> placeholders = placeholderOffsets(sql);
+        for (int i = 0; i < placeholders.size(); i++) {
+            Matcher m = COMPARED_COLUMN.matcher(sql.substring(0, placeholders.get(i)));
+            if (m.find() && isSensitive(m.group(1))) {
+                sensitive.set(i + 1);
+            }
+        }
+
+        Matcher insert = INSERT_COLUMNS.matcher(sql);
+        if (insert.find()) {
+            String[] columns = insert.group(1).split(",");
+            int param = countBefore(placeholders, insert.end());
+            int depth = 0;
+            int column = 0;
+            StringBuilder value = new StringBuilder();
+            for (int i = insert.end(); i < sql.length() && depth >= 0; i++) {
+                char c = sql.charAt(i);
+                if (c == '(') depth++;
+                if (c == ')') depth--;
+                if ((c == ',' && depth == 0) || depth < 0) {
+                    if (value.toString().trim().equals("?") && column < columns.length
+                            && isSensitive(columns[column])) {
+                        sensitive.set(param);
+                    }
+                    column++;
+                    value.setLength(0);
+                    continue;
+                }
+                if (c == '?') {
+                    param++;
+                }
+                value.append(c);
+            }
+        }
+
+        if (sensitive.isEmpty()) {
+            sensitive.set(1, placeholders.size() + 1);
+        }
+        return sensitive;
+    }
+
+    private static boolean isSensitive(String column) {
+        String name = column.trim().replace("`", "").toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        return SENSITIVE_COLUMNS.contains(dot < 0 ? name : name.substring(dot + 1));
+    }
+
+    // Offsets of the ? placeholders outside quoted strings
+    private static List<Integer> placeholderOffsets(String sql) {
+        List<Integer> offsets = new ArrayList<>();
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '?') {
+                offsets.add(i);
+            }
+        }
+        return offsets;
+    }
+
+    private static int countBefore(List<Integer> offsets, int end) {
+        int n = 0;
+        for (int offset : offsets) {
+            if (offset < end) n++;
+        }
+        return n;
+    }
+
+    private static String formatParameters(String sql, Map<Integer, Object> params, int batchSize) {
+        if (params.isEmpty()) {
+            return batchSize > 0 ? "(batch of " + batchSize + ")" : "";
+        }
+        BitSet sensitive = sensitiveParameters(sql);
+        StringBuilder out = new StringBuilder("[");
+        for (Map.Entry<Integer, Object> p : params.entrySet()) {
+            if (out.length() > 1) out.append(", ");
+            out.append(sensitive.get(p.getKey()) ? REDACTED : formatValue(p.getValue()));
+        }
+        out.append(']');
+        if (batchSize > 0) {
+            out.append(" (last of a batch of ").append(batchSize).append(')');
+        }
+        return out.toString();
+    }
+
+    private static String formatValue(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+        String text = String.valueOf(value);
+        if (text.length() > MAX_PARAMETER_LENGTH) {
+            text = text.substring(0, MAX_PARAMETER_LENGTH) + "…";
+        }
+        return value instanceof Number || value instanceof Boolean ? text : "'" + text + "'";
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // === INNER CLASSES ===
+
+    /**
+     * One slow statement. {@code rows} is -1 when the driver did not report a count;
+     * {@code plan} is empty unless this was the first slow run of its shape.
+     */
+    public static class Entry {
+        private final Instant at = Instant.now();
+        private final String sql;
+        private final String shape;
+        private final String parameters;
+        private final long rows;
+        private final long durationNanos;
+        private final List<String> plan;
+
+        Entry(String sql, String shape, String parameters, long rows, long durationNanos, List<String> plan) {
+            this.sql = sql;
+            this.shape = shape;
+            this.parameters = parameters;
+            this.rows = rows;
+            this.durationNanos = durationNanos;
+            this.plan = plan;
+        }
+
+        public Instant getAt() { return at; }
+        public String getSql() { return sql; }
+        public String getShape() { return shape; }
+        public String getParameters() { return parameters; }
+        public long getRows() { return rows; }
+        public long getDurationNanos() { return durationNanos; }
+        public List<String> getPlan() { return plan; }
+
+        String describeCost() {
+            return String.format(Locale.ROOT, "%.1f ms, %s", durationNanos / 1e6,
+                    rows < 0 ? "rows unknown" : rows + (rows == 1 ? " row" : " rows"));
+        }
+
+        @Override
+        public String toString() {
+            return describeCost() + ": " + sql + (parameters.isEmpty() ? "" : " " + parameters);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlCall<T> {
+        T run() throws SQLException;
+    }
+
+    // Only creates the timed statements; the few other connection calls pass through
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SlowQueryLog.invoke(connection, method, args);
+            if (result instanceof CallableStatement) {
+                // Stored procedures are not used by the DAOs and are not timed
+                return result;
+            }
+            if (result instanceof PreparedStatement) {
+                return new TimedPreparedStatement(new StatementTimer(connection, (Statement) result, (String) args[0]));
+            }
+            if (result instanceof Statement) {
+                return new TimedStatement(new StatementTimer(connection, (Statement) result, null));
+            }
+            return result;
+        }
+    }
+
+    // State and timing shared by the plain and prepared statement wrappers
+    private final class StatementTimer {
+        private final Connection connection;
+        private final Statement statement;
+        private final String preparedSql;
+        // Parameters bound since the last clearParameters(), by position
+        private final Map<Integer, Object> params = new TreeMap<>();
+        private int batchSize;
+        private TimedResultSet openResult;
+
+        StatementTimer(Connection connection, Statement statement, String preparedSql) {
+            this.connection = connection;
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        ResultSet query(String sql, SqlCall<ResultSet> call) throws SQLException {
+            long start = System.nanoTime();
+            ResultSet rs = call.run();
+            openResult = new TimedResultSet(this, rs, sql, System.nanoTime() - start);
+            return openResult;
+        }
+
+        // executeUpdate / executeLargeUpdate / execute
+        <T> T update(String sql, SqlCall<T> call) throws SQLException {
+            long start = System.nanoTime();
+            T result = call.run();
+            long nanos = System.nanoTime() - start;
+            long rows = result instanceof Number ? ((Number) result).longValue()
+                    : Boolean.FALSE.equals(result) ? statement.getUpdateCount() : -1;
+            record(connection, sql, params, 0, rows, nanos);
+            return result;
+        }
+
+        <T> T batch(SqlCall<T> call) throws SQLException {
+            long start = System.nanoTime();
+            T result = call.run();
+            long nanos = System.nanoTime() - start;
+            long rows = 0;
+            int length = Array.getLength(result);
+            for (int i = 0; i < length && rows >= 0; i++) {
+                long count = ((Number) Array.get(result, i)).longValue();
+                rows = count >= 0 ? rows + count : -1;
+            }
+            record(connection, preparedSql, params, batchSize, rows, nanos);
+            batchSize = 0;
+            return result;
+        }
+
+        // Closing the statement closes its result set without going through our wrapper
+        void closing() {
+            if (openResult != null) {
+                openResult.finish();
+            }
+        }
+    }
+
+    private final class TimedStatement extends DelegatingStatement {
+        private final StatementTimer timer;
+
+        TimedStatement(StatementTimer timer) {
+            super(timer.statement);
+            this.timer = timer;
+        }
+
+        @Override
+        public ResultSet executeQuery(String sql) throws SQLException {
+            return timer.query(sql, () -> super.executeQuery(sql));
+        }
+
+        @Override
+        public int executeUpdate(String sql) throws SQLException {
+            return timer.update(sql, () -> super.executeUpdate(sql));
+        }
+
+        @Override
+        public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+            return timer.update(sql, () -> super.executeUpdate(sql, autoGeneratedKeys));
+        }
+
+        @Override
+        public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+            return timer.update(sql, () -> super.executeUpdate(sql, columnIndexes));
+        }
+
+        @Override
+        public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+            return timer.update(sql, () -> super.executeUpdate(sql, columnNames));
+        }
+
+        @Override
+        public long executeLargeUpdate(String sql) throws SQLException {
+            return timer.update(sql, () -> super.executeLargeUpdate(sql));
+        }
+
+        @Override
+        public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+            return timer.update(sql, () -> super.executeLargeUpdate(sql, autoGeneratedKeys));
+        }
+
+        @Override
+        public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+            return timer.update(sql, () -> super.executeLargeUpdate(sql, columnIndexes));
+        }
+
+        @Override
+        public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+            return timer.update(sql, () -> super.executeLargeUpdate(sql, columnNames));
+        }
+
+        @Override
+        public boolean execute(String sql) throws SQLException {
+            return timer.update(sql, () -> super.execute(sql));
+        }
+
+        @Override
+        public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+            return timer.update(sql, () -> super.execute(sql, autoGeneratedKeys));
+        }
+
+        @Override
+        public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+            return timer.update(sql, () -> super.execute(sql, columnIndexes));
+        }
+
+        @Override
+        public boolean execute(String sql, String[] columnNames) throws SQLException {
+            return timer.update(sql, () -> super.execute(sql, columnNames));
+        }
+
+        @Override
+        public void addBatch(String sql) throws SQLException {
+            super.addBatch(sql);
+            timer.batchSize++;
+        }
+
+        @Override
+        public void clearBatch() throws SQLException {
+            super.clearBatch();
+            timer.batchSize = 0;
+        }
+
+        @Override
+        public int[] executeBatch() throws SQLException {
+            return timer.batch(super::executeBatch);
+        }
+
+        @Override
+        public long[] executeLargeBatch() throws SQLException {
+            return timer.batch(super::executeLargeBatch);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            timer.closing();
+            super.close();
+        }
+    }
+
+    private final class TimedPreparedStatement extends DelegatingPreparedStatement {
+        private final StatementTimer timer;
+
+        TimedPreparedStatement(StatementTimer timer) {
+            super((PreparedStatement) timer.statement);
+            this.timer = timer;
+        }
+
+        @Override
+        protected void bound(int parameterIndex, Object value) {
+            timer.params.put(parameterIndex, value);
+        }
+
+        @Override
+        public void clearParameters() throws SQLException {
+            super.clearParameters();
+            timer.params.clear();
+        }
+
+        @Override
+        public ResultSet executeQuery() throws SQLException {
+            return timer.query(timer.preparedSql, super::executeQuery);
+        }
+
+        @Override
+        public int executeUpdate() throws SQLException {
+            return timer.update(timer.preparedSql, super::executeUpdate);
+        }
+
+        @Override
+        public long executeLargeUpdate() throws SQLException {
+            return timer.update(timer.preparedSql, super::executeLargeUpdate);
+        }
+
+        @Override
+        public boolean execute() throws SQLException {
+            return timer.update(timer.preparedSql, super::execute);
+        }
+
+        @Override
+        public void addBatch() throws SQLException {
+            super.addBatch();
+            timer.batchSize++;
+        }
+
+        @Override
+        public void clearBatch() throws SQLException {
+            super.clearBatch();
+            timer.batchSize = 0;
+        }
+
+        @Override
+        public int[] executeBatch() throws SQLException {
+            return timer.batch(super::executeBatch);
+        }
+
+        @Override
+        public long[] executeLargeBatch() throws SQLException {
+            return timer.batch(super::executeLargeBatch);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            timer.closing();
+            super.close();
+        }
+    }
+
+    // Times next() only; every getter is a plain forwarding call
+    private final class TimedResultSet extends DelegatingResultSet {
+        private final StatementTimer owner;
+        private final String sql;
+        private final Map<Integer, Object> params;
+        // Execute time plus time spent inside next(); the caller's row handling is excluded
+        private long nanos;
+        private long rows;
+        private boolean finished;
+
+        TimedResultSet(StatementTimer owner, ResultSet resultSet, String sql, long executeNanos) {
+            super(resultSet);
+            this.owner = owner;
+            this.sql = sql;
+            this.params = new TreeMap<>(owner.params);
+            this.nanos = executeNanos;
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            long start = System.nanoTime();
+            boolean hasRow = super.next();
+            nanos += System.nanoTime() - start;
+            if (hasRow) {
+                rows++;
+            }
+            return hasRow;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                super.close();
+            } finally {
+                finish();
+            }
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                if (owner.openResult == this) {
+                    owner.openResult = null;
+                }
+                record(owner.connection, sql, params, 0, rows, nanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.service;
+
+import org.example.dao.ProductDAO;
+import org.example.dao.ProductQuery;
+import org.example.util.CsvWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Writes only the products changed since the previous export, plus tombstones for deletions.
+ * <p>
+ * The watermark (database time when the last export started) is stored next to the export
+ * as {@code <file>.watermark}. Each row is a full upsert ({@code U}) or a delete ({@code D})
+ * keyed by id, so consumers merge a delta by applying it in order; re-applying a row is
+ * harmless. Every export re-reads a short overlap before the watermark to pick up
+ * transactions that committed late with an older {@code updated_at}. Without a watermark
+ * the export is a full baseline.
+ * <p>
+ * When the file still has to reach its consumer (e.g. as a mail attachment), use
+ * {@link #exportPending} and {@link #commit} so the watermark only moves once it arrived.
+ */
+public class DeltaExporter {
+
+    public static final Duration DEFAULT_OVERLAP = Duration.ofSeconds(5);
+    public static final String[] HEADER =
+            {"Op", "ID", "Name", "Category", "Quantity", "Price", "Threshold", "UpdatedAt"};
+
+    private final ProductDAO productDAO;
+    private final Duration overlap;
+
+    public DeltaExporter(ProductDAO productDAO) {
+        this(productDAO, DEFAULT_OVERLAP);
+    }
+
+    public DeltaExporter(ProductDAO productDAO, Duration overlap) {
+        this.productDAO = productDAO;
+        this.overlap = overlap;
+    }
+
+    public static Path watermarkFileFor(Path exportFile) {
+        return exportFile.resolveSibling(exportFile.getFileName() + ".watermark");
+    }
+
+    /**
+     * Exports the changes since the stored watermark into {@code file} and advances the
+     * watermark once the file is complete.
+     */
+    public Summary export(Path file) throws SQLException, IOException {
+        Summary summary = exportPending(file, watermarkFileFor(file));
+        commit(summary);
+        return summary;
+    }
+
+    /**
+     * Exports the changes since the watermark in {@code watermarkFile} but leaves it in place;
+     * until {@link #commit} is called the same changes are exported again next time.
+     */
+    public Summary exportPending(Path file, Path watermarkFile) throws SQLException, IOException {
+        Instant previous = readWatermark(watermarkFile);
+        // Taken before reading, so changes made during the export are picked up next time
+        Instant until = productDAO.currentDatabaseTime();
+        Instant since = previous == null ? null : previous.minus(overlap);
+
+        long[] counts = new long[2];
+        try (CsvWriter w = CsvWriter.open(file)) {
+            w.row(HEADER);
+            ProductQuery changed = since == null ? ProductQuery.all() : ProductQuery.all().changedSince(since);
+            productDAO.forEachProduct(changed, p -> {
+                try {
+                    w.field("U").field(p.getId()).field(p.getName()).field(p.getCategory())
+                            .field(p.getQuantity()).money(p.getPrice()).field(p.getThreshold())
+                            .field(p.getUpdatedAt() == null ? "" : p.getUpdatedAt().toString())
+                            .endRow();
+                    counts[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (since != null) {
+                // A baseline has no deleted rows to report
+                productDAO.forEachDeletedSince(since, t -> {
+                    try {
+                        w.field("D").field(t.getProductId()).field("").field("").field("").field("").field("")
+                                .field(t.getDeletedAt().toString())
+                                .endRow();
+                        counts[1]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new Summary(watermarkFile, since, until, counts[0], counts[1]);
+    }
+
+    // Advances the summary's watermark to its end; never moves it backwards
+    public static synchronized void commit(Summary summary) throws IOException {
+        Instant current = readWatermark(summary.watermarkFile);
+        if (current == null || current.isBefore(summary.until)) {
+            writeWatermark(summary.watermarkFile, summary.until);
+        }
+    }
+
+    // Forgets the watermark, so the next export is a full baseline again
+    public static void reset(Path exportFile) throws IOException {
+        Files.deleteIfExists(watermarkFileFor(exportFile));
+    }
+
+    // === HELPER METHODS ===
+
+    private static Instant readWatermark(Path watermarkFile) throws IOException {
+        if (!Files.exists(watermarkFile)) {
+            return null;
+        }
+        String text = Files.readString(watermarkFile, StandardCharsets.UTF_8).trim();
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeParseException e) {
+            System.err.println("⚠️ Ignoring unreadable export watermark '" + text + "'; doing a full export");
+            return null;
+        }
+    }
+
+    private static void writeWatermark(Path watermarkFile, Instant until) throws IOException {
+        Path tmp = watermarkFile.resolveSibling(watermarkFile.getFileName() + ".tmp");
+        Files.writeString(tmp, until.toString(), StandardCharsets.UTF_8);
+        try {
+            Files.move(tmp, watermarkFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, watermarkFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // === INNER CLASS ===
+
+    public static class Summary {
+        private final Path watermarkFile;
+        private final Instant since;
+        private final Instant until;
+        private final long upserts;
+        private final long deletes;
+
+        Summary(Path watermarkFile, Instant since, Instant until, long upserts, long deletes) {
+            this.watermarkFile = watermarkFile;
+            this.since = since;
+            this.until = until;
+            this.upserts = upserts;
+            this.deletes = deletes;
+        }
+
+        // Null for a full baseline export
+        public Instant getSince() { return since; }
+        public Instant getUntil() { return until; }
+        public long getUpserts() { return upserts; }
+        public long getDeletes() { return deletes; }
+        public boolean isBaseline() { return since == null; }
+        public boolean isEmpty() { return upserts == 0 && deletes == 0; }
+
+        @Override
+        public String toString() {
+            return isBaseline()
+                    ? String.format("full export: %d products", upserts)
+                    : String.format("changes since %s: %d updated, %d deleted", since, upserts, deletes);
+        }
+    }
+}
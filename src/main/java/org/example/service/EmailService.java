@@ -2,20 +2,32 @@ package org.example.service;
 
 import jakarta.mail.*;
 import jakarta.mail.internet.*;
+import jakarta.mail.util.ByteArrayDataSource;
+import org.example.dao.InstrumentedProductDAO;
+import org.example.dao.ProductDAO;
 import org.example.dao.ProductDAOImpl;
-import org.example.model.Product;
 import org.example.util.CSVHelper;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
-import java.util.List;
-import java.util.Properties;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 public class EmailService {
 
     private static final String FROM_EMAIL = System.getenv("MAIL_USER");
     private static final String APP_PASSWORD = System.getenv("MAIL_PASS");
     private static final String CSV_PATH = "product_report.csv";
+    private static final String CHANGES_CSV_PATH = "product_changes_report.csv";
+    // Export and attach one change report at a time; they share CHANGES_CSV_PATH
+    private static final Object CHANGES_LOCK = new Object();
+
+    // ✅ Shared outbox: one long-lived SMTP connection per worker instead of one per message
+    private static volatile MailOutbox outbox;
 
     private static void validateCredentials() {
         if (isNullOrEmpty(FROM_EMAIL) || isNullOrEmpty(APP_PASSWORD)) {
@@ -27,29 +39,65 @@ public class EmailService {
         return value == null || value.trim().isEmpty();
     }
 
-    // ✅ Sends the actual report from the database
-    public static void sendProductReport(String toEmail, String subject, String body) {
-        validateCredentials();
+    // True when mail can be sent: credentials are set or an outbox was installed
+    public static boolean isConfigured() {
+        return outbox != null || !(isNullOrEmpty(FROM_EMAIL) || isNullOrEmpty(APP_PASSWORD));
+    }
+
+    /**
+     * Returns the shared outbox, creating the Gmail-backed one on first use.
+     * It is flushed for a few seconds when the JVM exits.
+     */
+    public static MailOutbox getOutbox() {
+        MailOutbox current = outbox;
+        if (current == null) {
+            synchronized (EmailService.class) {
+                current = outbox;
+                if (current == null) {
+                    validateCredentials();
+                    current = new MailOutbox(SmtpMailTransport.gmail(FROM_EMAIL, APP_PASSWORD));
+                    MailOutbox created = current;
+                    Runtime.getRuntime().addShutdownHook(
+                            new Thread(() -> created.shutdown(5_000), "mail-outbox-flush"));
+                    outbox = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Replaces the shared outbox, e.g. with one using InMemoryMailTransport in tests
+    public static synchronized void setOutbox(MailOutbox replacement) {
+        outbox = replacement;
+    }
+
+    private static String fromAddress() {
+        return isNullOrEmpty(FROM_EMAIL) ? "inventory@localhost" : FROM_EMAIL;
+    }
+
+    // ✅ Builds the report from the database and queues it for delivery; false if nothing was queued
+    public static boolean sendProductReport(String toEmail, String subject, String body) {
+        MailOutbox mail = getOutbox();
         try {
-            // 1️⃣ Fetch products from DB
-            ProductDAOImpl productDAO = new ProductDAOImpl();
-            List<Product> products = productDAO.getAllProducts();
+            // 1️⃣ Stream products from DB straight into the CSV
+            ProductDAO productDAO = new InstrumentedProductDAO(new ProductDAOImpl());
+            int rows = CSVHelper.saveProducts(productDAO, CSV_PATH);
 
-            if (products.isEmpty()) {
+            if (rows == 0) {
                 System.err.println("⚠️ No products found in the database!");
-                return;
+                return false;
             }
-
-            // 2️⃣ Save products to CSV
-            CSVHelper.saveProducts(products, CSV_PATH);
             // System.out.println("📄 Product report saved to: " + CSV_PATH);
 
-            // 3️⃣ Prepare and send the email
-            Session session = createEmailSession();
-            Message message = composeMessage(session, toEmail, subject, body, CSV_PATH);
+            // 2️⃣ Prepare the email and hand it to the outbox workers
+            Message message = composeMessage(mail.getSession(), toEmail, subject, body, CSV_PATH);
 
-            Transport.send(message);
-            // System.out.println("✅ Product report sent successfully to " + toEmail);
+            mail.submit(message).whenComplete((ok, error) -> {
+                if (error != null) {
+                    System.err.println("❌ Product report to " + toEmail + " was not delivered: " + error.getMessage());
+                }
+            });
+            return true;
 
         } catch (SQLException e) {
             System.err.println("❌ Database error: " + e.getMessage());
@@ -57,30 +105,73 @@ public class EmailService {
             System.err.println("❌ Email sending failed: " + e.getMessage());
             e.printStackTrace();
         }
+        return false;
     }
 
-    private static Session createEmailSession() {
-        Properties props = new Properties();
-        props.put("mail.smtp.host", "smtp.gmail.com");
-        props.put("mail.smtp.port", "587");
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-
-        return Session.getInstance(props, new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(FROM_EMAIL, APP_PASSWORD);
+    /**
+     * Like {@link #sendProductReport} but attaches only the rows changed or deleted since the
+     * previous change report to the same recipient; nothing is sent when there are no changes.
+     * Each recipient has its own watermark, and it only advances once the mail is delivered,
+     * so a failed send is retried with the same changes next time.
+     */
+    public static boolean sendProductChangesReport(String toEmail, String subject, String body) {
+        MailOutbox mail = getOutbox();
+        try {
+            DeltaExporter.Summary summary;
+            Message message;
+            synchronized (CHANGES_LOCK) {
+                summary = new DeltaExporter(new InstrumentedProductDAO(new ProductDAOImpl()))
+                        .exportPending(Paths.get(CHANGES_CSV_PATH), changesWatermarkFor(toEmail));
+                if (summary.isEmpty()) {
+                    DeltaExporter.commit(summary);
+                    System.out.println("✅ No product changes since the last report; nothing sent.");
+                    return false;
+                }
+                message = composeMessage(mail.getSession(), toEmail, subject, body, CHANGES_CSV_PATH);
             }
-        });
+            mail.submit(message).whenComplete((ok, error) -> {
+                if (error != null) {
+                    System.err.println("❌ Change report to " + toEmail + " was not delivered: " + error.getMessage()
+                            + "; the changes will be sent again with the next report");
+                    return;
+                }
+                try {
+                    DeltaExporter.commit(summary);
+                } catch (IOException e) {
+                    System.err.println("⚠️ Could not save the change report watermark: " + e.getMessage());
+                }
+            });
+            return true;
+        } catch (SQLException e) {
+            System.err.println("❌ Database error: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("❌ Email sending failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // product_changes_report.csv.<recipient>.watermark, with the address made file-name safe
+    static Path changesWatermarkFor(String toEmail) {
+        String recipient = toEmail.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9@._-]", "_");
+        return Paths.get(CHANGES_CSV_PATH + "." + recipient + ".watermark");
     }
 
+    // Queues an HTML email; delivery happens on the outbox workers
     public static void sendEmail(String toEmail, String subject, String body) throws MessagingException {
-        // Validate credentials
-        validateCredentials();
-        Session session = createEmailSession();
+        sendEmailAsync(toEmail, subject, body);
+    }
 
-        Message message = new MimeMessage(session);
-        message.setFrom(new InternetAddress(FROM_EMAIL));
+    /**
+     * Queues an HTML email. Address errors are thrown here; delivery failures
+     * complete the returned future exceptionally.
+     */
+    public static CompletableFuture<Void> sendEmailAsync(String toEmail, String subject, String body)
+            throws MessagingException {
+        MailOutbox mail = getOutbox();
+
+        Message message = new MimeMessage(mail.getSession());
+        message.setFrom(new InternetAddress(fromAddress()));
         message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toEmail));
         message.setSubject(subject);
 
@@ -92,14 +183,28 @@ public class EmailService {
         multipart.addBodyPart(textPart);
         message.setContent(multipart);
 
-        Transport.send(message);
+        return mail.submit(message);
+    }
+
+    // Queues a plain-text email
+    public static CompletableFuture<Void> sendPlainTextAsync(String toEmail, String subject, String body)
+            throws MessagingException {
+        MailOutbox mail = getOutbox();
+
+        Message message = new MimeMessage(mail.getSession());
+        message.setFrom(new InternetAddress(fromAddress()));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toEmail));
+        message.setSubject(subject);
+        message.setText(body);
+
+        return mail.submit(message);
     }
 
     private static Message composeMessage(Session session, String toEmail, String subject, String body,
             String attachmentPath)
             throws MessagingException {
         Message message = new MimeMessage(session);
-        message.setFrom(new InternetAddress(FROM_EMAIL));
+        message.setFrom(new InternetAddress(fromAddress()));
         message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toEmail));
         message.setSubject(subject);
 
@@ -115,7 +220,9 @@ public class EmailService {
         if (file.exists()) {
             MimeBodyPart attachmentPart = new MimeBodyPart();
             try {
-                attachmentPart.attachFile(file);
+                // Read now: the file may be rewritten before a worker sends the message
+                attachmentPart.setDataHandler(new jakarta.activation.DataHandler(
+                        new ByteArrayDataSource(Files.readAllBytes(file.toPath()), "text/csv")));
                 attachmentPart.setFileName(file.getName());
                 multipart.addBodyPart(attachmentPart);
             } catch (Exception e) {
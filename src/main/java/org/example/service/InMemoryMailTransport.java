@@ -0,0 +1,107 @@
+package org.example.service;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stand-in for an SMTP server, for tests and benchmarks. Messages are kept in memory;
+ * a per-message delay, a number of failing sends and refused recipients can be configured.
+ */
+public class InMemoryMailTransport implements MailTransport {
+
+    private final Session session = Session.getInstance(new Properties());
+    private final List<Message> sent = new ArrayList<>();
+    private final AtomicInteger connects = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+    private volatile long sendDelayMillis;
+
+    // Simulated round-trip time per message
+    public void setSendDelayMillis(long sendDelayMillis) {
+        this.sendDelayMillis = sendDelayMillis;
+    }
+
+    // The next n sends throw a MessagingException and drop the connection
+    public void failNextSends(int n) {
+        failuresLeft.set(n);
+    }
+
+    // Messages to this address fail with a SendFailedException, like an unknown mailbox
+    public void rejectRecipient(String address) {
+        rejected.add(address.toLowerCase());
+    }
+
+    public synchronized List<Message> getSentMessages() {
+        return new ArrayList<>(sent);
+    }
+
+    public int getConnectCount() {
+        return connects.get();
+    }
+
+    @Override
+    public Session getSession() {
+        return session;
+    }
+
+    @Override
+    public Connection connect() {
+        connects.incrementAndGet();
+        return new Connection() {
+            private volatile boolean open = true;
+
+            @Override
+            public void send(Message message) throws MessagingException {
+                if (!open) {
+                    throw new MessagingException("Not connected");
+                }
+                if (sendDelayMillis > 0) {
+                    try {
+                        Thread.sleep(sendDelayMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new MessagingException("Interrupted while sending", e);
+                    }
+                }
+                if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    open = false;
+                    throw new MessagingException("Simulated SMTP failure");
+                }
+                List<Address> invalid = new ArrayList<>();
+                Address[] recipients = message.getAllRecipients();
+                for (Address address : recipients == null ? new Address[0] : recipients) {
+                    if (rejected.contains(address.toString().toLowerCase())) {
+                        invalid.add(address);
+                    }
+                }
+                if (!invalid.isEmpty()) {
+                    throw new SendFailedException("Invalid Addresses", null,
+                            new Address[0], new Address[0], invalid.toArray(new Address[0]));
+                }
+                synchronized (InMemoryMailTransport.this) {
+                    sent.add(message);
+                }
+            }
+
+            @Override
+            public boolean isConnected() {
+                return open;
+            }
+
+            @Override
+            public void close() {
+                open = false;
+            }
+        };
+    }
+}
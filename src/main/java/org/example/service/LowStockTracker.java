@@ -0,0 +1,200 @@
+package org.example.service;
+
+import org.example.dao.ProductChangeListener;
+import org.example.dao.ProductDAO;
+import org.example.dao.ProductQuery;
+import org.example.model.Product;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory set of products at or below their threshold, kept up to date from
+ * {@link ProductChangeListener} callbacks instead of rescanning the catalogue.
+ * <p>
+ * The set is seeded once with a {@code lowStockOnly()} query. After that every write
+ * costs O(log n): full rows are applied directly, and quantity-only changes mark the
+ * id dirty so it is re-read (one lookup per dirty id) on the next {@link #drainNewlyLow}.
+ * Products that dropped below threshold since the last drain are reported once;
+ * a product that recovers before the next drain is never reported.
+ * <p>
+ * Only writes made through {@code ProductDAOImpl} in this JVM are seen.
+ */
+public class LowStockTracker implements ProductChangeListener {
+
+    // Largest shortfall first, then by id so equal shortfalls stay distinct
+    private static final Comparator<LowStockItem> BY_SHORTFALL =
+            Comparator.comparingInt(LowStockItem::getShortfall).reversed()
+                    .thenComparingInt(LowStockItem::getId);
+
+    private final Map<Integer, LowStockItem> lowById = new HashMap<>();
+    private final TreeSet<LowStockItem> byShortfall = new TreeSet<>(BY_SHORTFALL);
+    private final Set<Integer> newlyLow = new LinkedHashSet<>();
+    private final Set<Integer> dirty = new LinkedHashSet<>();
+    private boolean seeded;
+
+    /**
+     * Loads the products that are already low. They count as newly low, so the
+     * first alert after start-up still lists them.
+     */
+    public void seed(ProductDAO productDAO) throws SQLException {
+        List<Product> low = new ArrayList<>();
+        productDAO.forEachProduct(ProductQuery.all().lowStockOnly(), low::add);
+        synchronized (this) {
+            for (Product p : low) {
+                apply(p);
+            }
+            seeded = true;
+        }
+    }
+
+    public synchronized boolean isSeeded() {
+        return seeded;
+    }
+
+    // === LISTENER CALLBACKS ===
+
+    @Override
+    public synchronized void productSaved(Product product) {
+        dirty.remove(product.getId());
+        apply(product);
+    }
+
+    @Override
+    public synchronized void productChanged(int id) {
+        dirty.add(id);
+    }
+
+    @Override
+    public synchronized void productDeleted(int id) {
+        dirty.remove(id);
+        newlyLow.remove(id);
+        remove(id);
+    }
+
+    // === QUERIES ===
+
+    /**
+     * Returns products that crossed their threshold since the previous call,
+     * largest shortfall first, and clears them. Dirty ids are re-read first.
+     */
+    public List<LowStockItem> drainNewlyLow(ProductDAO productDAO) throws SQLException {
+        resolveDirty(productDAO);
+        synchronized (this) {
+            List<LowStockItem> crossed = new ArrayList<>(newlyLow.size());
+            for (int id : newlyLow) {
+                crossed.add(lowById.get(id));
+            }
+            newlyLow.clear();
+            crossed.sort(BY_SHORTFALL);
+            return crossed;
+        }
+    }
+
+    /**
+     * Puts items back after a failed alert so the next drain reports them again.
+     */
+    public synchronized void requeue(Collection<LowStockItem> items) {
+        for (LowStockItem item : items) {
+            if (lowById.containsKey(item.getId())) {
+                newlyLow.add(item.getId());
+            }
+        }
+    }
+
+    // All products currently low, largest shortfall first
+    public synchronized List<LowStockItem> currentLowStock() {
+        return new ArrayList<>(byShortfall);
+    }
+
+    public synchronized int size() {
+        return lowById.size();
+    }
+
+    // === HELPER METHODS ===
+
+    private void resolveDirty(ProductDAO productDAO) throws SQLException {
+        List<Integer> ids;
+        synchronized (this) {
+            ids = new ArrayList<>(dirty);
+            dirty.clear();
+        }
+        for (int id : ids) {
+            Product p;
+            try {
+                p = productDAO.getProductById(id);
+            } catch (SQLException e) {
+                synchronized (this) {
+                    dirty.add(id);
+                }
+                throw e;
+            }
+            synchronized (this) {
+                // A full save that arrived meanwhile is newer than what we just read
+                if (dirty.contains(id)) {
+                    continue;
+                }
+                if (p == null) {
+                    newlyLow.remove(id);
+                    remove(id);
+                } else {
+                    apply(p);
+                }
+            }
+        }
+    }
+
+    private void apply(Product p) {
+        int id = p.getId();
+        if (p.getQuantity() <= p.getThreshold()) {
+            LowStockItem previous = remove(id);
+            if (previous == null) {
+                newlyLow.add(id);
+            }
+            LowStockItem item = new LowStockItem(id, p.getName(), p.getQuantity(), p.getThreshold());
+            lowById.put(id, item);
+            byShortfall.add(item);
+        } else {
+            // Recovered before anyone was alerted: nothing to report
+            newlyLow.remove(id);
+            remove(id);
+        }
+    }
+
+    private LowStockItem remove(int id) {
+        LowStockItem previous = lowById.remove(id);
+        if (previous != null) {
+            byShortfall.remove(previous);
+        }
+        return previous;
+    }
+
+    // === INNER CLASS ===
+    public static class LowStockItem {
+        private final int id;
+        private final String name;
+        private final int quantity;
+        private final int threshold;
+
+        LowStockItem(int id, String name, int quantity, int threshold) {
+            this.id = id;
+            this.name = name;
+            this.quantity = quantity;
+            this.threshold = threshold;
+        }
+
+        public int getId() { return id; }
+        public String getName() { return name; }
+        public int getQuantity() { return quantity; }
+        public int getThreshold() { return threshold; }
+        public int getShortfall() { return threshold - quantity; }
+    }
+}
@@ -0,0 +1,305 @@
+package org.example.service;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.AddressException;
+import org.example.jfr.MailSendEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue of outgoing mail, delivered by background workers.
+ * <p>
+ * Each worker keeps one {@link MailTransport.Connection} open and reuses it for every
+ * message it sends; the connection is dropped after a failure or after
+ * {@link #IDLE_DISCONNECT_MS} without work. Failed sends are retried with exponential
+ * backoff up to {@code maxAttempts}. {@link #submit} never blocks: when the queue is
+ * full the returned future fails with {@link RejectedExecutionException}.
+ */
+public class MailOutbox implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 500;
+    public static final int DEFAULT_WORKERS = 2;
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+    public static final long DEFAULT_INITIAL_BACKOFF_MS = 1_000;
+    public static final long MAX_BACKOFF_MS = 60_000;
+    public static final long IDLE_DISCONNECT_MS = 30_000;
+    // How often an idle worker wakes to check for shutdown and idle timeout
+    private static final long POLL_INTERVAL_MS = 500;
+
+    private final MailTransport transport;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final BlockingQueue<Envelope> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService retryScheduler;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong connectCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public MailOutbox(MailTransport transport) {
+        this(transport, DEFAULT_CAPACITY, DEFAULT_WORKERS, DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF_MS);
+    }
+
+    public MailOutbox(MailTransport transport, int capacity, int workerCount, int maxAttempts,
+                      long initialBackoffMs) {
+        if (capacity <= 0 || workerCount <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("Capacity, workers and attempts must be positive");
+        }
+        this.transport = transport;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mail-outbox-retry");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            Thread t = new Thread(this::runWorker, "mail-outbox-" + (i + 1));
+            t.setDaemon(true);
+            workers.add(t);
+            t.start();
+        }
+    }
+
+    // Messages must be created with this session
+    public Session getSession() {
+        return transport.getSession();
+    }
+
+    /**
+     * Queues a message for delivery. The future completes once the message is sent,
+     * or fails after the last attempt.
+     */
+    public CompletableFuture<Void> submit(Message message) {
+        Envelope envelope = new Envelope(message);
+        if (closed.get()) {
+            envelope.result.completeExceptionally(new RejectedExecutionException("Mail outbox is closed"));
+        } else if (queue.offer(envelope)) {
+            submittedCount.incrementAndGet();
+        } else {
+            rejectedCount.incrementAndGet();
+            envelope.result.completeExceptionally(new RejectedExecutionException(
+                    "Mail outbox is full (" + queue.size() + " queued)"));
+        }
+        return envelope.result;
+    }
+
+    // === WORKER ===
+
+    private void runWorker() {
+        MailTransport.Connection connection = null;
+        long lastUsed = System.currentTimeMillis();
+        try {
+            while (!closed.get() || !queue.isEmpty()) {
+                Envelope envelope = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (envelope == null) {
+                    if (connection != null && System.currentTimeMillis() - lastUsed > IDLE_DISCONNECT_MS) {
+                        connection = disconnect(connection);
+                    }
+                    continue;
+                }
+                lastUsed = System.currentTimeMillis();
+                MailSendEvent event = new MailSendEvent();
+                event.begin();
+                event.queued = System.nanoTime() - envelope.enqueuedAt;
+                try {
+                    if (connection == null || !connection.isConnected()) {
+                        connection = disconnect(connection);
+                        connection = transport.connect();
+                        connectCount.incrementAndGet();
+                        event.connected = true;
+                    }
+                    connection.send(envelope.message);
+                    event.success = true;
+                    commit(event, envelope);
+                    recordSent(envelope);
+                } catch (MessagingException | RuntimeException e) {
+                    commit(event, envelope);
+                    // Assume the connection is unusable and start fresh next time
+                    connection = disconnect(connection);
+                    handleFailure(envelope, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            disconnect(connection);
+        }
+    }
+
+    // ✅ Subject, recipients and size are only read when a JFR recording wants the event
+    private static void commit(MailSendEvent event, Envelope envelope) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.attempt = envelope.attempts + 1;
+        try {
+            event.subject = envelope.message.getSubject();
+            Address[] to = envelope.message.getAllRecipients();
+            event.recipients = to == null ? 0 : to.length;
+            ByteCounter counter = new ByteCounter();
+            envelope.message.writeTo(counter);
+            event.bytes = counter.count;
+        } catch (MessagingException | IOException | RuntimeException e) {
+            event.bytes = -1;
+        }
+        event.commit();
+    }
+
+    private void recordSent(Envelope envelope) {
+        long latency = System.nanoTime() - envelope.enqueuedAt;
+        sentCount.incrementAndGet();
+        totalLatencyNanos.addAndGet(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        envelope.result.complete(null);
+    }
+
+    private void handleFailure(Envelope envelope, Exception e) {
+        envelope.attempts++;
+        boolean permanent = e instanceof AddressException || rejectsRecipients(e);
+        if (permanent || envelope.attempts >= maxAttempts || closed.get()) {
+            failedCount.incrementAndGet();
+            System.err.println("❌ Mail delivery failed after " + envelope.attempts + " attempt(s): " + e.getMessage());
+            envelope.result.completeExceptionally(e);
+            return;
+        }
+        retryCount.incrementAndGet();
+        long delay = Math.min(MAX_BACKOFF_MS, initialBackoffMs << (envelope.attempts - 1));
+        try {
+            retryScheduler.schedule(() -> requeue(envelope, e), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException closing) {
+            failedCount.incrementAndGet();
+            envelope.result.completeExceptionally(e);
+        }
+    }
+
+    // The server refused some recipients: sending the same message again cannot succeed
+    private static boolean rejectsRecipients(Exception e) {
+        if (!(e instanceof SendFailedException)) {
+            return false;
+        }
+        Address[] invalid = ((SendFailedException) e).getInvalidAddresses();
+        return invalid != null && invalid.length > 0;
+    }
+
+    private void requeue(Envelope envelope, Exception lastError) {
+        if (!queue.offer(envelope)) {
+            failedCount.incrementAndGet();
+            envelope.result.completeExceptionally(lastError);
+        }
+    }
+
+    private static MailTransport.Connection disconnect(MailTransport.Connection connection) {
+        if (connection != null) {
+            connection.close();
+        }
+        return null;
+    }
+
+    // === LIFECYCLE ===
+
+    /**
+     * Stops accepting mail and waits up to {@code timeoutMillis} for queued messages
+     * to be delivered. Pending retries are abandoned.
+     */
+    public void shutdown(long timeoutMillis) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        retryScheduler.shutdownNow();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Thread t : workers) {
+            try {
+                t.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.forEach(Thread::interrupt);
+    }
+
+    @Override
+    public void close() {
+        shutdown(0);
+    }
+
+    // === METRICS ===
+
+    public int getQueueDepth() { return queue.size(); }
+    public long getSubmittedCount() { return submittedCount.get(); }
+    public long getSentCount() { return sentCount.get(); }
+    public long getFailedCount() { return failedCount.get(); }
+    public long getRetryCount() { return retryCount.get(); }
+    public long getRejectedCount() { return rejectedCount.get(); }
+    public long getConnectCount() { return connectCount.get(); }
+
+    // Time from submit() to successful delivery, averaged over sent messages
+    public double getAverageLatencyMillis() {
+        long sent = sentCount.get();
+        return sent == 0 ? 0.0 : totalLatencyNanos.get() / 1_000_000.0 / sent;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MailOutbox{queued=%d, sent=%d, failed=%d, retries=%d, rejected=%d, connects=%d,"
+                        + " avgLatency=%.1fms, maxLatency=%.1fms}",
+                getQueueDepth(), getSentCount(), getFailedCount(), getRetryCount(), getRejectedCount(),
+                getConnectCount(), getAverageLatencyMillis(), getMaxLatencyMillis());
+    }
+
+    // === INNER CLASSES ===
+    private static class ByteCounter extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    private static class Envelope {
+        final Message message;
+        final long enqueuedAt = System.nanoTime();
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        int attempts;
+
+        Envelope(Message message) {
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.service;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+
+/**
+ * Where {@link MailOutbox} delivers messages. Each outbox worker opens one
+ * {@link Connection} and sends many messages over it.
+ */
+public interface MailTransport {
+
+    // Session used to build messages for this transport
+    Session getSession();
+
+    Connection connect() throws MessagingException;
+
+    interface Connection extends AutoCloseable {
+
+        void send(Message message) throws MessagingException;
+
+        boolean isConnected();
+
+        @Override
+        void close();
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.service;
 
 import jakarta.mail.MessagingException;
+import org.example.jfr.OtpEvent;
 
 import java.util.Map;
 import java.util.Random;
@@ -25,6 +26,11 @@ public class OTPService {
      * @return The generated OTP (for testing/logging only, not shown to user in production).
      */
     public static String generateOTP(String email) {
+        OtpEvent event = new OtpEvent();
+        event.action = OtpEvent.GENERATE;
+        event.begin();
+        event.outcome = "queued";
+
         // Generate random 6-digit OTP
         String otp = String.format("%06d", new Random().nextInt(1_000_000));
 
@@ -39,13 +45,22 @@ public class OTPService {
 
         // Attempt to send the OTP
         try {
-            EmailService.sendEmail(email, subject, body);
-            System.out.println("📧 OTP sent successfully to " + email);
+            // ✅ Queued so the registration screen does not wait on SMTP
+            EmailService.sendEmailAsync(email, subject, body).whenComplete((ok, error) -> {
+                if (error == null) {
+                    System.out.println("📧 OTP sent successfully to " + email);
+                } else {
+                    System.err.println("❌ Failed to send OTP email: " + error.getMessage());
+                }
+            });
         } catch (MessagingException me) {
+            event.outcome = "invalid-address";
             System.err.println("❌ Failed to send OTP email: " + me.getMessage());
         } catch (IllegalStateException ise) {
+            event.outcome = "not-configured";
             System.err.println("⚠️ Email service not configured: " + ise.getMessage());
         }
+        event.commit();
 
         return otp; // For testing or logging (not for user display)
     }
@@ -57,11 +72,21 @@ public class OTPService {
      * @return True if valid, false otherwise.
      */
     public static boolean validateOTP(String email, String enteredOTP) {
+        OtpEvent event = new OtpEvent();
+        event.action = OtpEvent.VALIDATE;
+        event.begin();
+        event.outcome = checkOTP(email, enteredOTP);
+        event.commit();
+        return "verified".equals(event.outcome);
+    }
+
+    // Returns the outcome recorded in the OtpEvent
+    private static String checkOTP(String email, String enteredOTP) {
         OTPEntry entry = otpStorage.get(email);
 
         if (entry == null) {
             System.out.println("⚠️ No OTP found for this email. Please request a new one.");
-            return false;
+            return "missing";
         }
 
         long currentTime = System.currentTimeMillis();
@@ -70,17 +95,17 @@ public class OTPService {
         if (currentTime - entry.timestamp > OTP_VALIDITY_MS) {
             otpStorage.remove(email);
             System.out.println("⏰ OTP expired. Please request a new one.");
-            return false;
+            return "expired";
         }
 
         // Validate OTP
         if (entry.otp.equals(enteredOTP)) {
             otpStorage.remove(email);
             System.out.println("✅ OTP verified successfully!");
-            return true;
+            return "verified";
         } else {
             System.out.println("❌ Invalid OTP. Please try again.");
-            return false;
+            return "invalid";
         }
     }
 
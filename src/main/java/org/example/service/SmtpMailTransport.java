@@ -0,0 +1,73 @@
+package org.example.service;
+
+import jakarta.mail.Authenticator;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.PasswordAuthentication;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+
+import java.util.Properties;
+
+/**
+ * SMTP (STARTTLS) transport. A connection stays logged in between messages, unlike
+ * the static {@code Transport.send}, which connects and authenticates every time.
+ */
+public class SmtpMailTransport implements MailTransport {
+
+    private final Session session;
+
+    public SmtpMailTransport(String host, int port, String user, String password) {
+        Properties props = new Properties();
+        props.put("mail.smtp.host", host);
+        props.put("mail.smtp.port", String.valueOf(port));
+        props.put("mail.smtp.auth", "true");
+        props.put("mail.smtp.starttls.enable", "true");
+        props.put("mail.smtp.connectiontimeout", "10000");
+        props.put("mail.smtp.timeout", "30000");
+
+        this.session = Session.getInstance(props, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(user, password);
+            }
+        });
+    }
+
+    // Gmail settings used by the services so far
+    public static SmtpMailTransport gmail(String user, String password) {
+        return new SmtpMailTransport("smtp.gmail.com", 587, user, password);
+    }
+
+    @Override
+    public Session getSession() {
+        return session;
+    }
+
+    @Override
+    public Connection connect() throws MessagingException {
+        Transport transport = session.getTransport("smtp");
+        transport.connect();
+        return new Connection() {
+            @Override
+            public void send(Message message) throws MessagingException {
+                message.saveChanges();
+                transport.sendMessage(message, message.getAllRecipients());
+            }
+
+            @Override
+            public boolean isConnected() {
+                return transport.isConnected();
+            }
+
+            @Override
+            public void close() {
+                try {
+                    transport.close();
+                } catch (MessagingException ignored) {
+                    // Server already dropped the connection
+                }
+            }
+        };
+    }
+}
@@ -1,77 +1,92 @@
 package org.example.service;
 
-import jakarta.mail.*;
-import jakarta.mail.internet.*;
+import jakarta.mail.MessagingException;
+import org.example.dao.InstrumentedProductDAO;
+import org.example.dao.ProductDAO;
 import org.example.dao.ProductDAOImpl;
-import org.example.model.Product;
+import org.example.jfr.StockAlertScanEvent;
+import org.example.service.LowStockTracker.LowStockItem;
 
 import java.sql.SQLException;
 import java.util.List;
-import java.util.Properties;
 
 public class StockAlertService {
 
-    private static final String FROM_EMAIL = System.getenv("MAIL_USER");
-    private static final String APP_PASSWORD = System.getenv("MAIL_PASS");
-    private static final ProductDAOImpl productDAO = new ProductDAOImpl();
+    private static final ProductDAO productDAO = new InstrumentedProductDAO(new ProductDAOImpl());
+    // ✅ Fed by DAO change events, so an alert only looks at what changed
+    private static final LowStockTracker TRACKER = new LowStockTracker();
+
+    static {
+        ProductDAOImpl.addChangeListener(TRACKER);
+    }
+
+    public static LowStockTracker getTracker() {
+        return TRACKER;
+    }
 
     public static void sendLowStockAlerts(String recipientEmail) {
-        if (isNullOrEmpty(FROM_EMAIL) || isNullOrEmpty(APP_PASSWORD)) {
+        if (!EmailService.isConfigured()) {
             System.err.println("⚠️ Email credentials not set. Skipping alert.");
             return;
         }
 
+        StockAlertScanEvent event = new StockAlertScanEvent();
+        event.begin();
         try {
-            List<Product> products = productDAO.getAllProducts();
-            StringBuilder alertBody = new StringBuilder();
-
-            for (Product p : products) {
-                if (p.getQuantity() <= p.getThreshold()) { // ✅ Correct comparison
-                    alertBody.append("🔻 LOW STOCK: ")
-                            .append(p.getName())
-                            .append(" (Qty: ").append(p.getQuantity())
-                            .append(", Threshold: ").append(p.getThreshold()).append(")\n");
-                }
+            sendLowStockAlerts(recipientEmail, event);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.trackedItems = TRACKER.size();
+                event.commit();
             }
+        }
+    }
 
-            if (alertBody.length() == 0) {
-                System.out.println("✅ All products are sufficiently stocked.");
-            } else {
-                sendEmail(recipientEmail, "📦 Inventory Low Stock Alert", alertBody.toString());
-                System.out.println("📩 Low stock alert sent to " + recipientEmail);
-                System.out.println(alertBody);
+    private static void sendLowStockAlerts(String recipientEmail, StockAlertScanEvent event) {
+        List<LowStockItem> crossed;
+        try {
+            // One lowStockOnly() scan per process; after that only changed products are looked at
+            if (!TRACKER.isSeeded()) {
+                event.fullScan = true;
+                TRACKER.seed(productDAO);
             }
-
+            crossed = TRACKER.drainNewlyLow(productDAO);
         } catch (SQLException e) {
             System.err.println("❌ Failed to fetch products: " + e.getMessage());
-        } catch (MessagingException e) {
-            System.err.println("❌ Failed to send email: " + e.getMessage());
+            return;
         }
-    }
-
-    private static void sendEmail(String toEmail, String subject, String body) throws MessagingException {
-        Properties props = new Properties();
-        props.put("mail.smtp.host", "smtp.gmail.com");
-        props.put("mail.smtp.port", "587");
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-
-        Session session = Session.getInstance(props, new Authenticator() {
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(FROM_EMAIL, APP_PASSWORD);
-            }
-        });
 
-        Message message = new MimeMessage(session);
-        message.setFrom(new InternetAddress(FROM_EMAIL));
-        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toEmail));
-        message.setSubject(subject);
-        message.setText(body);
+        event.lowStockItems = crossed.size();
+        if (crossed.isEmpty()) {
+            System.out.println("✅ No products have dropped below their threshold since the last alert.");
+            return;
+        }
 
-        Transport.send(message);
-    }
+        StringBuilder alertBody = new StringBuilder();
+        for (LowStockItem item : crossed) {
+            alertBody.append("🔻 LOW STOCK: ")
+                    .append(item.getName())
+                    .append(" (Qty: ").append(item.getQuantity())
+                    .append(", Threshold: ").append(item.getThreshold()).append(")\n");
+        }
 
-    private static boolean isNullOrEmpty(String s) {
-        return s == null || s.trim().isEmpty();
+        try {
+            // ✅ Queued on the mail outbox; the caller (often the UI thread) does not wait for SMTP
+            EmailService.sendPlainTextAsync(recipientEmail, "📦 Inventory Low Stock Alert", alertBody.toString())
+                    .whenComplete((ok, error) -> {
+                        if (error != null) {
+                            // Keep them pending so the next alert retries
+                            TRACKER.requeue(crossed);
+                            System.err.println("❌ Failed to send email: " + error.getMessage());
+                        }
+                    });
+            event.alertQueued = true;
+            System.out.println("📩 Low stock alert queued for " + recipientEmail);
+            System.out.println(alertBody);
+        } catch (MessagingException e) {
+            TRACKER.requeue(crossed);
+            System.err.println("❌ Failed to send email: " + e.getMessage());
+        }
     }
 }
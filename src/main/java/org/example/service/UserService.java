@@ -1,5 +1,6 @@
 package org.example.service;
 
+import org.example.dao.InstrumentedUserDAO;
 import org.example.dao.UserDAO;
 import org.example.dao.UserDAOImpl;
 import org.example.model.User;
@@ -8,7 +9,7 @@ import java.sql.SQLException;
 import java.util.List;
 
 public class UserService {
-    private final UserDAO userDAO = new UserDAOImpl();
+    private final UserDAO userDAO = new InstrumentedUserDAO(new UserDAOImpl());
 
     // ✅ Register new user
     public void register(String username, String password, String role) {
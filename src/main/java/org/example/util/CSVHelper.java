@@ -1,30 +1,70 @@
 package org.example.util;
 
+import org.example.dao.ProductDAO;
+import org.example.jfr.CsvTransferEvent;
 import org.example.model.Product;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class CSVHelper {
 
     // Save products to a specified CSV file
     public static void saveProducts(List<Product> products, String filePath) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            // Write header
-            writer.write("ID,Name,Category,Quantity,Price");
-            writer.newLine();
+        CsvTransferEvent event = beginTransfer(CsvTransferEvent.EXPORT, filePath);
+        try (CsvWriter writer = CsvWriter.open(Paths.get(filePath))) {
+            writeHeader(writer);
 
             // Write each product
             for (Product p : products) {
-                writer.write(String.format("%d,%s,%s,%d,%.2f",
-                        p.getId(), p.getName(), p.getCategory(), p.getQuantity(), p.getPrice()));
-                writer.newLine();
+                writeRow(writer, p);
             }
         }
+        commitTransfer(event, products.size(), 1, 0);
 //        System.out.println("📄 CSV report saved successfully at: " + new File(filePath).getAbsolutePath());
     }
 
+    // Streams products straight from the database into the file; returns the number of rows written.
+    // A ".gz" file name writes gzip-compressed output.
+    public static int saveProducts(ProductDAO productDAO, String filePath) throws IOException, SQLException {
+        CsvTransferEvent event = beginTransfer(CsvTransferEvent.EXPORT, filePath);
+        int[] rows = {0};
+        try (CsvWriter writer = CsvWriter.open(Paths.get(filePath))) {
+            writeHeader(writer);
+            productDAO.forEachProduct(p -> {
+                try {
+                    writeRow(writer, p);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        commitTransfer(event, rows[0], 1, 0);
+        return rows[0];
+    }
+
+    private static void writeHeader(CsvWriter writer) throws IOException {
+        writer.row("ID", "Name", "Category", "Quantity", "Price", "Threshold");
+    }
+
+    private static void writeRow(CsvWriter writer, Product p) throws IOException {
+        writer.field(p.getId())
+                .field(p.getName())
+                .field(p.getCategory())
+                .field(p.getQuantity())
+                .money(p.getPrice())
+                .field(p.getThreshold())
+                .endRow();
+    }
+
     // Overloaded method — default save to "products.csv"
     public static void saveProducts(List<Product> products) throws IOException {
         saveProducts(products, "products.csv");
@@ -33,32 +73,88 @@ public class CSVHelper {
     // Load products from CSV file
     public static List<Product> loadProducts(String filePath) throws IOException {
         List<Product> products = new ArrayList<>();
+        loadProducts(filePath, products::addAll);
+        System.out.println("📦 Loaded " + products.size() + " products from CSV: " + filePath);
+        return products;
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            boolean isHeader = true;
+    // How loadProducts reads the file
+    public enum ReadMode {
+        // Chunked NIO reads parsed on all cores (CsvImporter)
+        PARALLEL,
+        // Memory-mapped byte scanning on one thread, minimal garbage (MappedCsvReader)
+        MAPPED
+    }
 
-            while ((line = reader.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false; // skip header
-                    continue;
-                }
+    /**
+     * Streams products into {@code sink} in file order, a batch at a time, parsing on all cores.
+     * Quoted fields are supported; invalid rows are reported in the result instead of dropped.
+     */
+    public static CsvImporter.Result<Product> loadProducts(String filePath, Consumer<List<Product>> sink)
+            throws IOException {
+        return loadProducts(filePath, sink, ReadMode.PARALLEL);
+    }
+
+    public static CsvImporter.Result<Product> loadProducts(String filePath, Consumer<List<Product>> sink,
+                                                           ReadMode mode) throws IOException {
+        CsvTransferEvent event = beginTransfer(CsvTransferEvent.IMPORT, filePath);
+        int[] batches = {0};
+        Consumer<List<Product>> counted = batch -> {
+            batches[0]++;
+            sink.accept(batch);
+        };
+        CsvImporter.Result<Product> result = mode == ReadMode.MAPPED
+                ? new MappedCsvReader().readProducts(Paths.get(filePath), counted)
+                : new CsvImporter<>(CSVHelper::productFromFields).importFile(Paths.get(filePath), counted);
+        commitTransfer(event, result.getRowCount(), batches[0], result.getErrorCount());
+        if (result.getErrorCount() > 0) {
+            System.err.println("⚠️ Skipped " + result.getErrorCount() + " invalid rows in " + filePath);
+            result.getErrors().stream().limit(5).forEach(e -> System.err.println("   " + e));
+        }
+        return result;
+    }
 
-                String[] parts = line.split(",");
-                if (parts.length == 5) {
-                    int id = Integer.parseInt(parts[0].trim());
-                    String name = parts[1].trim();
-                    String category = parts[2].trim();
-                    int qty = Integer.parseInt(parts[3].trim());
-                    double price = Double.parseDouble(parts[4].trim());
+    // === JFR ===
 
-                    products.add(new Product(id, name, category, qty, price));
-                }
+    private static CsvTransferEvent beginTransfer(String direction, String filePath) {
+        CsvTransferEvent event = new CsvTransferEvent();
+        event.direction = direction;
+        event.file = filePath;
+        event.begin();
+        return event;
+    }
+
+    // ✅ The file size is only looked up when a recording actually wants the event
+    private static void commitTransfer(CsvTransferEvent event, long rows, int batches, long invalidRows) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.rows = rows;
+            event.batches = batches;
+            event.invalidRows = invalidRows;
+            try {
+                event.bytes = Files.size(Paths.get(event.file));
+            } catch (IOException e) {
+                event.bytes = -1;
             }
+            event.commit();
         }
+    }
 
-        System.out.println("📦 Loaded " + products.size() + " products from CSV: " + filePath);
-        return products;
+    // ID,Name,Category,Quantity,Price[,Threshold] (files written before the threshold column still load)
+    private static Product productFromFields(List<String> fields) {
+        if (fields.size() != 5 && fields.size() != 6) {
+            throw new IllegalArgumentException("Expected 5 or 6 columns but found " + fields.size());
+        }
+        int id = Integer.parseInt(fields.get(0).trim());
+        String name = fields.get(1).trim();
+        String category = fields.get(2).trim();
+        int qty = Integer.parseInt(fields.get(3).trim());
+        double price = Double.parseDouble(fields.get(4).trim());
+        Product product = new Product(id, name, category, qty, price);
+        if (fields.size() == 6 && !fields.get(5).isBlank()) {
+            product.setThreshold(Integer.parseInt(fields.get(5).trim()));
+        }
+        return product;
     }
 
     // Overloaded default loader
@@ -0,0 +1,504 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Streaming RFC-4180 CSV importer.
+ * <p>
+ * The calling thread reads the file through NIO in fixed-size chunks and cuts each chunk at
+ * the last record boundary (a newline outside quotes). Chunks are decoded, split into fields
+ * and mapped on a worker pool; results are handed to the sink in file order on the calling
+ * thread. At most {@code 2 * parallelism} chunks are in flight, so memory stays bounded no
+ * matter how large the file is. Rows that fail to parse or map are collected as
+ * {@link RowError}s instead of being dropped silently. A record that grows past
+ * {@link #maxRecordSize(int)} (usually an unclosed quote) is reported and skipped up to the
+ * next newline, so one bad quote cannot turn the rest of the file into a single record.
+ */
+public class CsvImporter<T> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    public static final int DEFAULT_MAX_ERRORS = 1_000;
+    public static final int DEFAULT_MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+    // Turns one record's fields into a row; throw to report the row as invalid
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(List<String> fields) throws Exception;
+    }
+
+    // Called on the importing thread after each chunk is delivered
+    @FunctionalInterface
+    public interface ProgressListener {
+        void progress(long bytesRead, long totalBytes, long rows);
+    }
+
+    private final RowMapper<T> mapper;
+    private boolean skipHeader = true;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int maxErrors = DEFAULT_MAX_ERRORS;
+    private int maxRecordSize = DEFAULT_MAX_RECORD_SIZE;
+    private ProgressListener progress = (read, total, rows) -> { };
+
+    public CsvImporter(RowMapper<T> mapper) {
+        this.mapper = mapper;
+    }
+
+    public CsvImporter<T> skipHeader(boolean skipHeader) {
+        this.skipHeader = skipHeader;
+        return this;
+    }
+
+    public CsvImporter<T> chunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public CsvImporter<T> parallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        return this;
+    }
+
+    // Only the first maxErrors errors are kept; all are counted
+    public CsvImporter<T> maxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+        return this;
+    }
+
+    // Longest record, in bytes, before it is reported as an error and skipped
+    public CsvImporter<T> maxRecordSize(int maxRecordSize) {
+        if (maxRecordSize < 1) {
+            throw new IllegalArgumentException("Max record size must be positive");
+        }
+        this.maxRecordSize = maxRecordSize;
+        return this;
+    }
+
+    public CsvImporter<T> onProgress(ProgressListener progress) {
+        this.progress = progress;
+        return this;
+    }
+
+    // === IMPORT ===
+
+    // Reads the whole file into a list (the parse itself still streams)
+    public Result<T> readAll(Path file) throws IOException {
+        List<T> rows = new ArrayList<>();
+        Result<T> result = importFile(file, rows::addAll);
+        result.rows = rows;
+        return result;
+    }
+
+    /**
+     * Streams the file into {@code sink}, one batch per chunk, in file order.
+     * An exception thrown by the sink stops the import and is rethrown.
+     */
+    public Result<T> importFile(Path file, Consumer<List<T>> sink) throws IOException {
+        long started = System.nanoTime();
+        Result<T> result = new Result<>();
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "csv-import-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        ArrayDeque<CompletableFuture<Chunk<T>>> inFlight = new ArrayDeque<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long total = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+            byte[] carry = new byte[0];
+            long line = 1;
+            long bytesRead = 0;
+            boolean first = true;
+            boolean eof = false;
+            // Set while dropping an oversized record up to its next newline
+            boolean skipping = false;
+
+            while (!eof) {
+                buffer.clear();
+                int n = 0;
+                while (buffer.hasRemaining() && (n = channel.read(buffer)) > 0) {
+                    bytesRead += n;
+                }
+                eof = n < 0 || !buffer.hasRemaining() && channel.position() >= total;
+                buffer.flip();
+
+                byte[] bytes = concat(carry, buffer);
+                int start = first ? bomLength(bytes) : 0;
+                first = false;
+                if (skipping) {
+                    int newline = indexOf(bytes, start, (byte) '\n');
+                    if (newline < 0 && !eof) {
+                        carry = new byte[0];
+                        continue;
+                    }
+                    skipping = false;
+                    start = newline < 0 ? bytes.length : newline + 1;
+                    line++;
+                }
+                Boundary boundary = eof ? Boundary.whole(bytes, start) : Boundary.last(bytes, start);
+                if (boundary.end == start && !eof) {
+                    carry = Arrays.copyOfRange(bytes, start, bytes.length);
+                    if (carry.length > maxRecordSize) {
+                        // ✅ Resync at the next newline instead of carrying the rest of the file
+                        Chunk<T> skipped = new Chunk<>(bytesRead - carry.length);
+                        skipped.errors.add(new RowError(line, "Record longer than " + maxRecordSize
+                                + " bytes (unclosed quote?); skipped to the next line"));
+                        inFlight.add(CompletableFuture.completedFuture(skipped));
+                        skipping = true;
+                    } else {
+                        // One record larger than the chunk: keep reading until it closes, growing
+                        // the read with the carry so a long record is copied O(log n) times
+                        buffer = ByteBuffer.allocate(Math.max(chunkSize, Math.min(carry.length, maxRecordSize)));
+                    }
+                    continue;
+                }
+                if (buffer.capacity() != chunkSize) {
+                    buffer = ByteBuffer.allocate(chunkSize);
+                }
+                carry = Arrays.copyOfRange(bytes, boundary.end, bytes.length);
+
+                byte[] records = Arrays.copyOfRange(bytes, start, boundary.end);
+                long firstLine = line;
+                long position = bytesRead - carry.length;
+                boolean header = skipHeader && firstLine == 1;
+                line += boundary.newlines;
+                inFlight.add(CompletableFuture.supplyAsync(
+                        () -> parseChunk(records, firstLine, header, position), workers));
+
+                while (inFlight.size() >= 2 * parallelism) {
+                    deliver(inFlight.poll(), sink, result, total);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                deliver(inFlight.poll(), sink, result, total);
+            }
+        } finally {
+            for (CompletableFuture<Chunk<T>> pending : inFlight) {
+                pending.cancel(true);
+            }
+            workers.shutdownNow();
+        }
+        result.elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return result;
+    }
+
+    // === HELPER METHODS ===
+
+    private void deliver(CompletableFuture<Chunk<T>> future, Consumer<List<T>> sink, Result<T> result, long total)
+            throws IOException {
+        Chunk<T> chunk;
+        try {
+            chunk = future.join();
+        } catch (CompletionException e) {
+            throw new IOException("CSV import failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        if (!chunk.rows.isEmpty()) {
+            sink.accept(chunk.rows);
+        }
+        result.rowCount += chunk.rows.size();
+        for (RowError error : chunk.errors) {
+            result.addError(error, maxErrors);
+        }
+        result.bytes = chunk.endPosition;
+        progress.progress(chunk.endPosition, total, result.rowCount);
+    }
+
+    // Runs on a worker: decode, split and map every record of one chunk
+    private Chunk<T> parseChunk(byte[] bytes, long firstLine, boolean skipFirst, long endPosition) {
+        Chunk<T> chunk = new Chunk<>(endPosition);
+        RecordParser parser = new RecordParser(new String(bytes, StandardCharsets.UTF_8), firstLine);
+        boolean skip = skipFirst;
+        while (parser.hasNext()) {
+            long recordLine = parser.line();
+            List<String> fields;
+            try {
+                fields = parser.next();
+            } catch (IllegalArgumentException e) {
+                chunk.errors.add(new RowError(recordLine, e.getMessage()));
+                continue;
+            }
+            if (skip) {
+                skip = false;
+                continue;
+            }
+            try {
+                T row = mapper.map(fields);
+                if (row != null) {
+                    chunk.rows.add(row);
+                }
+            } catch (Exception e) {
+                chunk.errors.add(new RowError(recordLine, e.getClass().getSimpleName() + ": " + e.getMessage()));
+            }
+        }
+        return chunk;
+    }
+
+    private static byte[] concat(byte[] carry, ByteBuffer buffer) {
+        byte[] bytes = new byte[carry.length + buffer.remaining()];
+        System.arraycopy(carry, 0, bytes, 0, carry.length);
+        buffer.get(bytes, carry.length, buffer.remaining());
+        return bytes;
+    }
+
+    private static int indexOf(byte[] bytes, int from, byte b) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int bomLength(byte[] bytes) {
+        return bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB
+                && (bytes[2] & 0xFF) == 0xBF ? 3 : 0;
+    }
+
+    // === INNER CLASSES ===
+
+    // End of the complete records in a chunk, plus the newlines they contain
+    private static final class Boundary {
+        final int end;
+        final long newlines;
+
+        private Boundary(int end, long newlines) {
+            this.end = end;
+            this.newlines = newlines;
+        }
+
+        /**
+         * Scans bytes once with the same quote rules as {@link RecordParser}: a quote opens a
+         * field only at its start, "" inside quotes is an escaped quote, and a stray quote in
+         * an unquoted field (12" ruler) is plain text. A newline outside quotes is a boundary.
+         * Multi-byte UTF-8 sequences never contain '"' or '\n' bytes, so no decoding is needed.
+         */
+        static Boundary last(byte[] bytes, int start) {
+            boolean inQuotes = false;
+            boolean quoted = false;
+            boolean fieldEmpty = true;
+            int end = start;
+            long newlines = 0;
+            long newlinesAtEnd = 0;
+            for (int i = start; i < bytes.length; i++) {
+                byte b = bytes[i];
+                if (inQuotes) {
+                    if (b == '"') {
+                        if (i + 1 == bytes.length) {
+                            // Escaped or closing depends on the next read
+                            break;
+                        }
+                        if (bytes[i + 1] == '"') {
+                            i++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else if (b == '\n') {
+                        newlines++;
+                    }
+                } else if (b == ',') {
+                    quoted = false;
+                    fieldEmpty = true;
+                } else if (b == '\n') {
+                    newlines++;
+                    end = i + 1;
+                    newlinesAtEnd = newlines;
+                    quoted = false;
+                    fieldEmpty = true;
+                } else if (b == '"' && fieldEmpty && !quoted) {
+                    inQuotes = true;
+                    quoted = true;
+                } else if (b != '\r') {
+                    fieldEmpty = false;
+                }
+            }
+            return new Boundary(end, newlinesAtEnd);
+        }
+
+        static Boundary whole(byte[] bytes, int start) {
+            long newlines = 0;
+            for (int i = start; i < bytes.length; i++) {
+                if (bytes[i] == '\n') {
+                    newlines++;
+                }
+            }
+            return new Boundary(bytes.length, newlines);
+        }
+    }
+
+    // RFC-4180 state machine over one chunk of complete records
+    private static final class RecordParser {
+        private final String text;
+        private int pos;
+        private long line;
+
+        RecordParser(String text, long firstLine) {
+            this.text = text;
+            this.line = firstLine;
+        }
+
+        boolean hasNext() {
+            // Blank lines are not records
+            while (pos < text.length() && (text.charAt(pos) == '\n' || text.charAt(pos) == '\r')) {
+                if (text.charAt(pos) == '\n') {
+                    line++;
+                }
+                pos++;
+            }
+            return pos < text.length();
+        }
+
+        long line() {
+            return line;
+        }
+
+        // Throws IllegalArgumentException for a malformed record, after skipping past it
+        List<String> next() {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean inQuotes = false;
+            boolean quoted = false;
+            String problem = null;
+            long startLine = line;
+
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (inQuotes) {
+                    if (c == '"') {
+                        if (pos < text.length() && text.charAt(pos) == '"') {
+                            field.append('"');
+                            pos++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append(c);
+                    }
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    quoted = false;
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c == '\r') {
+                    // CRLF: the '\n' ends the record
+                } else if (c == '"') {
+                    if (field.length() == 0 && !quoted) {
+                        inQuotes = true;
+                        quoted = true;
+                    } else if (problem == null) {
+                        problem = "Unexpected quote in unquoted field " + (fields.size() + 1);
+                    }
+                } else if (quoted) {
+                    if (problem == null) {
+                        problem = "Text after closing quote in field " + (fields.size() + 1);
+                    }
+                } else {
+                    field.append(c);
+                }
+            }
+            if (inQuotes) {
+                problem = "Unterminated quoted field starting on line " + startLine;
+            }
+            if (problem != null) {
+                throw new IllegalArgumentException(problem);
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static final class Chunk<T> {
+        final List<T> rows = new ArrayList<>();
+        final List<RowError> errors = new ArrayList<>();
+        final long endPosition;
+
+        Chunk(long endPosition) {
+            this.endPosition = endPosition;
+        }
+    }
+
+    // A record that could not be imported, by the file line it starts on
+    public static final class RowError {
+        private final long line;
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + message;
+        }
+    }
+
+    public static final class Result<T> {
+        private List<T> rows = Collections.emptyList();
+        private final List<RowError> errors = new ArrayList<>();
+        private long rowCount;
+        private long errorCount;
+        private long bytes;
+        private long elapsedMillis;
+
+        // Rows collected by readAll(); empty when a sink was used
+        public List<T> getRows() { return rows; }
+        // The first maxErrors errors, in file order
+        public List<RowError> getErrors() { return errors; }
+        public long getRowCount() { return rowCount; }
+        public long getErrorCount() { return errorCount; }
+        public long getBytes() { return bytes; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        // Shared with MappedCsvReader
+        void addRows(long count) {
+            rowCount += count;
+        }
+
+        void addError(RowError error, int maxErrors) {
+            errorCount++;
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            }
+        }
+
+        void finish(long bytes, long elapsedMillis) {
+            this.bytes = bytes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Result{rows=%d, errors=%d, bytes=%d, elapsed=%dms}",
+                    rowCount, errorCount, bytes, elapsedMillis);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package org.example.util;
+
+import org.example.model.Product;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads product CSV files ({@code ID,Name,Category,Quantity,Price[,Threshold]}) through memory-mapped
+ * windows of the file, for very large supplier drops.
+ * <p>
+ * Records are found by scanning bytes for commas, quotes and newlines. Ids, quantities and
+ * prices are parsed straight from the mapped bytes; only the name and category become
+ * Strings. No line String, field array or char buffer is created per row. A window ends at
+ * the last complete record and the next window is mapped from there, so files larger than
+ * 2 GB work. Not thread-safe: use one reader per thread.
+ */
+public class MappedCsvReader {
+
+    public static final long DEFAULT_WINDOW_SIZE = 256L * 1024 * 1024;
+    public static final int BATCH_SIZE = 10_000;
+    // ID,Name,Category,Quantity,Price and the optional Threshold
+    private static final int COLUMNS = 6;
+    // 10^0 .. 10^22, the powers of ten that are exact doubles
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final long windowSize;
+    private int maxErrors = CsvImporter.DEFAULT_MAX_ERRORS;
+
+    // Scratch state for the record being parsed
+    private final int[] fieldStart = new int[COLUMNS];
+    private final int[] fieldEnd = new int[COLUMNS];
+    private final boolean[] fieldQuoted = new boolean[COLUMNS];
+    private int fieldCount;
+    private int recordNewlines;
+    private String recordProblem;
+    private byte[] scratch = new byte[128];
+
+    public MappedCsvReader() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedCsvReader(long windowSize) {
+        if (windowSize < 1 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Window size must be between 1 byte and 2 GB");
+        }
+        this.windowSize = windowSize;
+    }
+
+    public MappedCsvReader maxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+        return this;
+    }
+
+    /**
+     * Streams the products of {@code file} into {@code sink} in batches of {@link #BATCH_SIZE},
+     * skipping the header row. Invalid rows are reported in the result.
+     */
+    public CsvImporter.Result<Product> readProducts(Path file, Consumer<List<Product>> sink) throws IOException {
+        long started = System.nanoTime();
+        CsvImporter.Result<Product> result = new CsvImporter.Result<>();
+        List<Product> batch = new ArrayList<>();
+        long size;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            long base = 0;
+            long line = 1;
+            boolean header = true;
+
+            while (base < size) {
+                int limit = (int) Math.min(windowSize, size - base);
+                boolean lastWindow = base + limit == size;
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, base, limit);
+                int pos = base == 0 ? bomLength(buf, limit) : 0;
+
+                while (pos < limit) {
+                    int end = scanRecord(buf, pos, limit, lastWindow);
+                    if (end < 0) {
+                        break; // continues in the next window
+                    }
+                    long recordLine = line;
+                    line += recordNewlines;
+                    if (fieldCount == 1 && !fieldQuoted[0] && isBlank(buf, fieldStart[0], fieldEnd[0])) {
+                        pos = end; // blank line
+                        continue;
+                    }
+                    if (header) {
+                        header = false;
+                    } else {
+                        try {
+                            batch.add(toProduct(buf));
+                        } catch (IllegalArgumentException e) {
+                            result.addError(new CsvImporter.RowError(recordLine, e.getMessage()), maxErrors);
+                        }
+                        if (batch.size() == BATCH_SIZE) {
+                            result.addRows(batch.size());
+                            sink.accept(batch);
+                            batch = new ArrayList<>();
+                        }
+                    }
+                    pos = end;
+                }
+                if (pos == 0) {
+                    throw new IOException("Record on line " + line + " is larger than the "
+                            + windowSize + "-byte map window");
+                }
+                base += pos;
+            }
+        }
+        if (!batch.isEmpty()) {
+            result.addRows(batch.size());
+            sink.accept(batch);
+        }
+        result.finish(size, (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    // === SCANNING ===
+
+    /**
+     * Finds the record starting at {@code pos} and records its field bounds. Returns the offset
+     * after its newline, or -1 if the record runs past the end of a window that is not the last.
+     */
+    private int scanRecord(MappedByteBuffer buf, int pos, int limit, boolean lastWindow) {
+        fieldCount = 0;
+        recordNewlines = 0;
+        recordProblem = null;
+        int start = pos;
+        boolean inQuotes = false;
+        boolean quoted = false;
+        int quoteEnd = -1;
+
+        for (int i = pos; i < limit; i++) {
+            byte b = buf.get(i);
+            if (inQuotes) {
+                if (b == '"') {
+                    if (i + 1 < limit && buf.get(i + 1) == '"') {
+                        i++;
+                    } else if (i + 1 == limit && !lastWindow) {
+                        return -1; // cannot tell "" from a closing quote yet
+                    } else {
+                        inQuotes = false;
+                        quoteEnd = i;
+                    }
+                } else if (b == '\n') {
+                    recordNewlines++;
+                }
+            } else if (b == ',') {
+                addField(start, i, quoted, quoteEnd);
+                start = i + 1;
+                quoted = false;
+                quoteEnd = -1;
+            } else if (b == '\n') {
+                recordNewlines++;
+                addField(start, i, quoted, quoteEnd);
+                return i + 1;
+            } else if (b == '"') {
+                if (isBlank(buf, start, i) && !quoted) {
+                    inQuotes = true;
+                    quoted = true;
+                    start = i;
+                } else if (recordProblem == null) {
+                    recordProblem = "Unexpected quote in field " + (fieldCount + 1);
+                }
+            } else if (quoted && b != ' ' && b != '\r' && recordProblem == null) {
+                recordProblem = "Text after closing quote in field " + (fieldCount + 1);
+            }
+        }
+        if (!lastWindow) {
+            return -1;
+        }
+        if (inQuotes) {
+            recordProblem = "Unterminated quoted field";
+        }
+        addField(start, limit, quoted, quoteEnd);
+        return limit;
+    }
+
+    private void addField(int start, int end, boolean quoted, int quoteEnd) {
+        if (fieldCount < COLUMNS) {
+            if (quoted) {
+                // Between the quotes; "" still needs collapsing when materialised
+                fieldStart[fieldCount] = start + 1;
+                fieldEnd[fieldCount] = quoteEnd < 0 ? end : quoteEnd;
+            } else {
+                fieldStart[fieldCount] = start;
+                fieldEnd[fieldCount] = end;
+            }
+            fieldQuoted[fieldCount] = quoted;
+        }
+        fieldCount++;
+    }
+
+    private Product toProduct(MappedByteBuffer buf) {
+        if (recordProblem != null) {
+            throw new IllegalArgumentException(recordProblem);
+        }
+        if (fieldCount != COLUMNS && fieldCount != COLUMNS - 1) {
+            throw new IllegalArgumentException("Expected 5 or 6 columns but found " + fieldCount);
+        }
+        int id = parseInt(buf, 0);
+        String name = text(buf, 1);
+        String category = text(buf, 2);
+        int qty = parseInt(buf, 3);
+        double price = parseDouble(buf, 4);
+        Product product = new Product(id, name, category, qty, price);
+        if (fieldCount == COLUMNS && !isBlank(buf, fieldStart[5], fieldEnd[5])) {
+            product.setThreshold(parseInt(buf, 5));
+        }
+        return product;
+    }
+
+    // === FIELD DECODING ===
+
+    // Trimmed UTF-8 text of a field, with "" collapsed in quoted fields
+    private String text(MappedByteBuffer buf, int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (!fieldQuoted[field]) {
+            while (start < end && isSpace(buf.get(start))) start++;
+            while (end > start && isSpace(buf.get(end - 1))) end--;
+        }
+        int len = end - start;
+        if (scratch.length < len) {
+            scratch = new byte[Math.max(len, scratch.length * 2)];
+        }
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buf.get(i);
+            scratch[n++] = b;
+            if (b == '"' && fieldQuoted[field]) {
+                i++; // skip the second quote of ""
+            }
+        }
+        if (fieldQuoted[field]) {
+            return new String(scratch, 0, n, StandardCharsets.UTF_8).trim();
+        }
+        return new String(scratch, 0, n, StandardCharsets.UTF_8);
+    }
+
+    private int parseInt(MappedByteBuffer buf, int field) {
+        int i = skipSpaces(buf, fieldStart[field], fieldEnd[field]);
+        int end = trimEnd(buf, i, fieldEnd[field]);
+        boolean negative = false;
+        if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            throw badNumber(buf, field);
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buf.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw badNumber(buf, field);
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw badNumber(buf, field);
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw badNumber(buf, field);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Plain decimals with up to 15 significant digits are computed as mantissa / 10^scale, which
+     * is correctly rounded because both operands are exact doubles. Anything else (exponents,
+     * longer mantissas) goes through {@link Double#parseDouble}.
+     */
+    private double parseDouble(MappedByteBuffer buf, int field) {
+        int i = skipSpaces(buf, fieldStart[field], fieldEnd[field]);
+        int end = trimEnd(buf, i, fieldEnd[field]);
+        boolean negative = false;
+        if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int scale = -1;
+        boolean anyDigit = false;
+        for (; i < end; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                anyDigit = true;
+                if (mantissa != 0 || b != '0') {
+                    significant++;
+                }
+                if (significant > 15) {
+                    return slowParseDouble(buf, field);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return slowParseDouble(buf, field);
+            }
+        }
+        if (!anyDigit) {
+            throw badNumber(buf, field);
+        }
+        if (scale >= POWERS_OF_TEN.length) {
+            return slowParseDouble(buf, field);
+        }
+        double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private double slowParseDouble(MappedByteBuffer buf, int field) {
+        String text = text(buf, field);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number '" + text + "' in column " + (field + 1));
+        }
+    }
+
+    private IllegalArgumentException badNumber(MappedByteBuffer buf, int field) {
+        return new IllegalArgumentException("Invalid number '" + text(buf, field) + "' in column " + (field + 1));
+    }
+
+    // === HELPER METHODS ===
+
+    private static int skipSpaces(MappedByteBuffer buf, int start, int end) {
+        while (start < end && isSpace(buf.get(start))) start++;
+        return start;
+    }
+
+    private static int trimEnd(MappedByteBuffer buf, int start, int end) {
+        while (end > start && isSpace(buf.get(end - 1))) end--;
+        return end;
+    }
+
+    private static boolean isBlank(MappedByteBuffer buf, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isSpace(buf.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static int bomLength(MappedByteBuffer buf, int limit) {
+        return limit >= 3 && (buf.get(0) & 0xFF) == 0xEF && (buf.get(1) & 0xFF) == 0xBB
+                && (buf.get(2) & 0xFF) == 0xBF ? 3 : 0;
+    }
+}
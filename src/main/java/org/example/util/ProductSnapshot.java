@@ -0,0 +1,174 @@
+package org.example.util;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.example.dao.ProductDAO;
+import org.example.model.Product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Binary product snapshots, the compact counterpart of {@link CSVHelper}.
+ * <p>
+ * Each product is one protobuf message (see {@link ProtoSnapshot} for the file layout):
+ * <pre>
+ * message Product {
+ *   int32  id         = 1;
+ *   string name       = 2;
+ *   string category   = 3;
+ *   int32  quantity   = 4;
+ *   oneof price {
+ *     double price       = 5;
+ *     sint64 price_cents = 9;  // used when the price is a whole number of cents
+ *   }
+ *   int32  threshold  = 6;
+ *   int32  version    = 7;
+ *   int64  updated_at = 8;  // epoch millis, absent if unknown
+ * }
+ * </pre>
+ * Zero and empty values are omitted like proto3 does. Prices keep their full precision; the
+ * usual two-decimal price is stored as a 1-3 byte varint instead of an 8-byte double.
+ */
+public class ProductSnapshot {
+
+    public static final ProtoSnapshot.Codec<Product> CODEC = new ProductCodec();
+
+    // Save products to a snapshot file; a ".gz" file name writes gzip-compressed output
+    public static void saveProducts(List<Product> products, String filePath) throws IOException {
+        ProtoSnapshot.write(Paths.get(filePath), CODEC, products);
+    }
+
+    // Streams products straight from the database into the file; returns the number of records written
+    public static int saveProducts(ProductDAO productDAO, String filePath) throws IOException, SQLException {
+        try (ProtoSnapshot.Writer<Product> writer = ProtoSnapshot.open(Paths.get(filePath), CODEC)) {
+            productDAO.forEachProduct(p -> {
+                try {
+                    writer.write(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return (int) writer.getCount();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Load products from a snapshot file (plain or gzip)
+    public static List<Product> loadProducts(String filePath) throws IOException {
+        List<Product> products = ProtoSnapshot.readAll(Paths.get(filePath), CODEC);
+        System.out.println("📦 Loaded " + products.size() + " products from snapshot: " + filePath);
+        return products;
+    }
+
+    // Streams products into {@code sink} in file order, a batch at a time; returns the number read
+    public static long loadProducts(String filePath, Consumer<List<Product>> sink) throws IOException {
+        return ProtoSnapshot.read(Paths.get(filePath), CODEC, ProtoSnapshot.DEFAULT_BATCH_SIZE, sink);
+    }
+
+    // === INNER CLASS ===
+
+    private static final class ProductCodec implements ProtoSnapshot.Codec<Product> {
+        private static final int ID = 1;
+        private static final int NAME = 2;
+        private static final int CATEGORY = 3;
+        private static final int QUANTITY = 4;
+        private static final int PRICE = 5;
+        private static final int THRESHOLD = 6;
+        private static final int VERSION = 7;
+        private static final int UPDATED_AT = 8;
+        private static final int PRICE_CENTS = 9;
+        private static final long NOT_CENTS = Long.MIN_VALUE;
+
+        @Override
+        public String type() {
+            return "inventory.Product";
+        }
+
+        @Override
+        public int serializedSize(Product p) {
+            int size = 0;
+            if (p.getId() != 0) size += CodedOutputStream.computeInt32Size(ID, p.getId());
+            if (notEmpty(p.getName())) size += CodedOutputStream.computeStringSize(NAME, p.getName());
+            if (notEmpty(p.getCategory())) size += CodedOutputStream.computeStringSize(CATEGORY, p.getCategory());
+            if (p.getQuantity() != 0) size += CodedOutputStream.computeInt32Size(QUANTITY, p.getQuantity());
+            if (hasPrice(p)) {
+                long cents = cents(p.getPrice());
+                size += cents != NOT_CENTS
+                        ? CodedOutputStream.computeSInt64Size(PRICE_CENTS, cents)
+                        : CodedOutputStream.computeDoubleSize(PRICE, p.getPrice());
+            }
+            if (p.getThreshold() != 0) size += CodedOutputStream.computeInt32Size(THRESHOLD, p.getThreshold());
+            if (p.getVersion() != 0) size += CodedOutputStream.computeInt32Size(VERSION, p.getVersion());
+            if (p.getUpdatedAt() != null) {
+                size += CodedOutputStream.computeInt64Size(UPDATED_AT, p.getUpdatedAt().toEpochMilli());
+            }
+            return size;
+        }
+
+        @Override
+        public void write(Product p, CodedOutputStream out) throws IOException {
+            if (p.getId() != 0) out.writeInt32(ID, p.getId());
+            if (notEmpty(p.getName())) out.writeString(NAME, p.getName());
+            if (notEmpty(p.getCategory())) out.writeString(CATEGORY, p.getCategory());
+            if (p.getQuantity() != 0) out.writeInt32(QUANTITY, p.getQuantity());
+            if (hasPrice(p)) {
+                long cents = cents(p.getPrice());
+                if (cents != NOT_CENTS) {
+                    out.writeSInt64(PRICE_CENTS, cents);
+                } else {
+                    out.writeDouble(PRICE, p.getPrice());
+                }
+            }
+            if (p.getThreshold() != 0) out.writeInt32(THRESHOLD, p.getThreshold());
+            if (p.getVersion() != 0) out.writeInt32(VERSION, p.getVersion());
+            if (p.getUpdatedAt() != null) out.writeInt64(UPDATED_AT, p.getUpdatedAt().toEpochMilli());
+        }
+
+        @Override
+        public Product read(CodedInputStream in) throws IOException {
+            Product p = new Product(0, "", "", 0, 0.0);
+            int tag;
+            while ((tag = in.readTag()) != 0) {
+                switch (WireFormat.getTagFieldNumber(tag)) {
+                    case ID -> p.setId(in.readInt32());
+                    case NAME -> p.setName(in.readString());
+                    case CATEGORY -> p.setCategory(in.readString());
+                    case QUANTITY -> p.setQuantity(in.readInt32());
+                    case PRICE -> p.setPrice(in.readDouble());
+                    case PRICE_CENTS -> p.setPrice(in.readSInt64() / 100.0);
+                    case THRESHOLD -> p.setThreshold(in.readInt32());
+                    case VERSION -> p.setVersion(in.readInt32());
+                    case UPDATED_AT -> p.setUpdatedAt(Instant.ofEpochMilli(in.readInt64()));
+                    default -> in.skipField(tag);
+                }
+            }
+            return p;
+        }
+
+        // The price in cents if cents / 100.0 gives back exactly the same double, else NOT_CENTS
+        private static long cents(double price) {
+            if (!(Math.abs(price) < 1e13)) {
+                return NOT_CENTS;
+            }
+            long cents = Math.round(price * 100);
+            return cents / 100.0 == price && cents != 0 ? cents : NOT_CENTS;
+        }
+
+        private static boolean notEmpty(String s) {
+            return s != null && !s.isEmpty();
+        }
+
+        // -0.0 is written so the sign survives a round trip
+        private static boolean hasPrice(Product p) {
+            return Double.doubleToRawLongBits(p.getPrice()) != 0L;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.example.util;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming binary snapshots as length-delimited protobuf messages.
+ * <p>
+ * A file is a header message ({@code 1: type, 2: format version}) followed by one message per
+ * record, each prefixed with its varint length, the same framing as
+ * {@code writeDelimitedTo}/{@code parseDelimitedFrom}. Messages are encoded and decoded field by
+ * field by a {@link Codec} with {@link CodedOutputStream}/{@link CodedInputStream}, so no
+ * generated classes or protoc step are needed and nothing is buffered beyond one record.
+ * Unknown fields are skipped, so older readers keep working when fields are added.
+ * Files whose name ends with ".gz" are gzip-compressed; readers detect gzip by its magic bytes.
+ */
+public final class ProtoSnapshot {
+
+    public static final int FORMAT_VERSION = 1;
+    public static final int DEFAULT_BATCH_SIZE = 8_192;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int HEADER_TYPE = 1;
+    private static final int HEADER_VERSION = 2;
+
+    private ProtoSnapshot() {
+    }
+
+    /**
+     * Encodes one record type. {@link #serializedSize} must match the bytes {@link #write} produces.
+     */
+    public interface Codec<T> {
+        // Stored in the header; a reader rejects files written for another type
+        String type();
+
+        int serializedSize(T value);
+
+        void write(T value, CodedOutputStream out) throws IOException;
+
+        // Called with a limit pushed to the message length; read tags until readTag() returns 0
+        T read(CodedInputStream in) throws IOException;
+    }
+
+    // === WRITE ===
+
+    // Opens (and truncates) a file; gzip if the name ends with ".gz"
+    public static <T> Writer<T> open(Path file, Codec<T> codec) throws IOException {
+        return open(file, codec, file.getFileName().toString().endsWith(".gz"));
+    }
+
+    public static <T> Writer<T> open(Path file, Codec<T> codec, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new Writer<>(out, codec);
+    }
+
+    // Writes to any stream (e.g. a FileChannel that is forced before an atomic rename); close() closes it
+    public static <T> Writer<T> writer(OutputStream out, Codec<T> codec) throws IOException {
+        return new Writer<>(out, codec);
+    }
+
+    // Writes all values to the file; returns the number of records
+    public static <T> long write(Path file, Codec<T> codec, Iterable<? extends T> values) throws IOException {
+        try (Writer<T> writer = open(file, codec)) {
+            for (T value : values) {
+                writer.write(value);
+            }
+            return writer.getCount();
+        }
+    }
+
+    // === READ ===
+
+    public static <T> List<T> readAll(Path file, Codec<T> codec) throws IOException {
+        List<T> values = new ArrayList<>();
+        read(file, codec, DEFAULT_BATCH_SIZE, values::addAll);
+        return values;
+    }
+
+    /**
+     * Streams the records into {@code sink} in file order, {@code batchSize} at a time;
+     * returns the number of records read. A truncated file fails with an {@link IOException}.
+     */
+    public static <T> long read(Path file, Codec<T> codec, int batchSize, Consumer<List<T>> sink)
+            throws IOException {
+        try (InputStream in = openInput(file)) {
+            CodedInputStream coded = CodedInputStream.newInstance(in, BUFFER_SIZE);
+            if (coded.isAtEnd()) {
+                throw new IOException("Empty snapshot file: " + file);
+            }
+            readHeader(coded, codec, file);
+
+            long count = 0;
+            List<T> batch = new ArrayList<>(Math.min(batchSize, DEFAULT_BATCH_SIZE));
+            while (!coded.isAtEnd()) {
+                // The 2 GB stream limit applies per message instead of to the whole file
+                coded.resetSizeCounter();
+                int limit = coded.pushLimit(coded.readRawVarint32());
+                batch.add(codec.read(coded));
+                coded.checkLastTagWas(0);
+                coded.popLimit(limit);
+                count++;
+                if (batch.size() >= batchSize) {
+                    sink.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                sink.accept(batch);
+            }
+            return count;
+        }
+    }
+
+    // === HELPER METHODS ===
+
+    private static InputStream openInput(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+        in.mark(2);
+        int b1 = in.read();
+        int b2 = in.read();
+        in.reset();
+        if (b1 == 0x1f && b2 == 0x8b) {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return in;
+    }
+
+    private static void readHeader(CodedInputStream in, Codec<?> codec, Path file) throws IOException {
+        int limit = in.pushLimit(in.readRawVarint32());
+        String type = null;
+        int version = 0;
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case HEADER_TYPE -> type = in.readString();
+                case HEADER_VERSION -> version = in.readInt32();
+                default -> in.skipField(tag);
+            }
+        }
+        in.popLimit(limit);
+        if (!codec.type().equals(type)) {
+            throw new IOException("Not a " + codec.type() + " snapshot: " + file);
+        }
+        if (version > FORMAT_VERSION) {
+            throw new IOException("Snapshot format version " + version + " is newer than supported ("
+                    + FORMAT_VERSION + "): " + file);
+        }
+    }
+
+    // === INNER CLASS ===
+
+    public static class Writer<T> implements Closeable {
+        private final OutputStream stream;
+        private final CodedOutputStream out;
+        private final Codec<T> codec;
+        private long count;
+
+        Writer(OutputStream stream, Codec<T> codec) throws IOException {
+            this.stream = stream;
+            this.out = CodedOutputStream.newInstance(stream, BUFFER_SIZE);
+            this.codec = codec;
+            String type = codec.type();
+            out.writeUInt32NoTag(CodedOutputStream.computeStringSize(HEADER_TYPE, type)
+                    + CodedOutputStream.computeInt32Size(HEADER_VERSION, FORMAT_VERSION));
+            out.writeString(HEADER_TYPE, type);
+            out.writeInt32(HEADER_VERSION, FORMAT_VERSION);
+        }
+
+        public Writer<T> write(T value) throws IOException {
+            out.writeUInt32NoTag(codec.serializedSize(value));
+            codec.write(value, out);
+            count++;
+            return this;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+            stream.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.flush();
+            } finally {
+                stream.close();
+            }
+        }
+    }
+}
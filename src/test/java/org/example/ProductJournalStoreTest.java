@@ -0,0 +1,220 @@
+package org.example;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProductJournalStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path snapshot;
+    private Path journal;
+
+    @Before
+    public void setUp() {
+        snapshot = folder.getRoot().toPath().resolve("products.csv");
+        journal = folder.getRoot().toPath().resolve("products.journal");
+    }
+
+    private ProductJournalStore open() {
+        return new ProductJournalStore(snapshot, journal, ProductJournalStore.SyncPolicy.EVERY_WRITE, 0);
+    }
+
+    private static Product product(String id, String name, int qty) {
+        return new Product(id, name, "SKU-" + id, qty, 2.5, "Store A");
+    }
+
+    private static List<String> names(List<Product> products) {
+        List<String> names = new ArrayList<>();
+        for (Product p : products) {
+            names.add(p.getName());
+        }
+        return names;
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle, int from) {
+        outer:
+        for (int i = from; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new AssertionError("needle not found");
+    }
+
+    // ✅ Edits go to the journal only; the snapshot is not rewritten
+    @Test
+    public void testEditsAreReplayedFromJournal() throws Exception {
+        try (ProductJournalStore store = open()) {
+            store.replaceAll(List.of(product("1", "Pen", 10), product("2", "Book", 5)));
+            long snapshotSize = Files.size(snapshot);
+
+            store.addFirst(List.of(product("3", "Stapler", 1)));
+            store.update(product("1", "Blue Pen", 7));
+            store.delete("2");
+
+            assertEquals(snapshotSize, Files.size(snapshot));
+            assertEquals(3, store.getJournalRecordCount());
+        }
+
+        try (ProductJournalStore store = open()) {
+            List<Product> loaded = store.load();
+            assertEquals(List.of("Stapler", "Blue Pen"), names(loaded));
+            assertEquals(7, loaded.get(1).getQty());
+        }
+    }
+
+    @Test
+    public void testQuotedFieldsSurviveRoundTrip() throws Exception {
+        try (ProductJournalStore store = open()) {
+            store.load();
+            store.addFirst(List.of(product("1", "Pens, \"gel\"\nblack", 3)));
+        }
+        try (ProductJournalStore store = open()) {
+            assertEquals("Pens, \"gel\"\nblack", store.load().get(0).getName());
+        }
+    }
+
+    // ✅ A half-written last record (crash mid-append) is dropped, earlier records are kept
+    @Test
+    public void testTornTailIsDroppedAndTruncated() throws Exception {
+        try (ProductJournalStore store = open()) {
+            store.load();
+            store.addFirst(List.of(product("1", "Pen", 10)));
+            store.addFirst(List.of(product("2", "Book", 5)));
+        }
+        long goodLength = Files.size(journal);
+        Files.write(journal, "1a2b3c,P,-9,3,Torn".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (ProductJournalStore store = open()) {
+            assertEquals(List.of("Book", "Pen"), names(store.load()));
+            assertEquals(goodLength, Files.size(journal));
+            store.addFirst(List.of(product("4", "Clip", 1)));
+        }
+        try (ProductJournalStore store = open()) {
+            assertEquals(List.of("Clip", "Book", "Pen"), names(store.load()));
+        }
+    }
+
+    // ✅ A crash can cut the last record inside a multibyte character; that must not fail the load
+    @Test
+    public void testTailTornInsideMultibyteCharacterIsTruncated() throws Exception {
+        try (ProductJournalStore store = open()) {
+            store.load();
+            store.addFirst(List.of(product("1", "Pen", 10)));
+        }
+        long goodLength = Files.size(journal);
+        try (ProductJournalStore store = open()) {
+            store.load();
+            store.addFirst(List.of(product("2", "Café", 5)));
+        }
+        byte[] bytes = Files.readAllBytes(journal);
+        byte[] accent = "é".getBytes(StandardCharsets.UTF_8);
+        int cut = indexOf(bytes, accent, (int) goodLength) + 1;
+        Files.write(journal, java.util.Arrays.copyOf(bytes, cut));
+
+        try (ProductJournalStore store = open()) {
+            assertEquals(List.of("Pen"), names(store.load()));
+            assertEquals(goodLength, Files.size(journal));
+            store.addFirst(List.of(product("3", "Crème", 2)));
+        }
+        try (ProductJournalStore store = open()) {
+            assertEquals(List.of("Crème", "Pen"), names(store.load()));
+        }
+    }
+
+    @Test
+    public void testCorruptRecordIsRejectedByChecksum() throws Exception {
+        try (ProductJournalStore store = open()) {
+            store.load();
+            store.addFirst(List.of(product("1", "Pen", 10)));
+        }
+        String text = Files.readString(journal).replace("Pen", "Pan");
+        Files.writeString(journal, text);
+
+        try (ProductJournalStore store = open()) {
+            assertTrue(store.load().isEmpty());
+        }
+    }
+
+    // ✅ Past the threshold the journal is folded into a new snapshot
+    @Test
+    public void testCompactionFoldsJournalIntoSnapshot() throws Exception {
+        try (ProductJournalStore store = open()) {
+            store.load();
+            store.addFirst(List.of(product("1", "Pen", 0)));
+            for (int i = 1; i <= store.compactionThreshold(); i++) {
+                store.update(product("1", "Pen", i));
+            }
+            assertEquals(0, store.getJournalRecordCount());
+            assertEquals(0, Files.size(journal));
+        }
+        try (ProductJournalStore store = open()) {
+            List<Product> loaded = store.load();
+            assertEquals(1, loaded.size());
+            assertEquals(1_000, loaded.get(0).getQty());
+        }
+    }
+
+    // ✅ Files written by the old full-rewrite saver still load
+    @Test
+    public void testLoadsLegacySnapshotWithHeader() throws Exception {
+        Files.writeString(snapshot, ProductJournalStore.HEADER + "\n1,Pen,PEN001,100,1.5,Store A\n");
+
+        try (ProductJournalStore store = open()) {
+            List<Product> loaded = store.load();
+            assertEquals(1, loaded.size());
+            assertEquals("PEN001", loaded.get(0).getSku());
+        }
+    }
+
+    // ✅ A directory store migrates products.csv to a protobuf products.pb on its first compaction
+    @Test
+    public void testDirectoryStoreMigratesCsvSnapshotToProtobuf() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        Files.writeString(snapshot, ProductJournalStore.HEADER + "\n1,\"Pen, blue\",PEN001,100,1.5,Store A\n");
+
+        try (ProductJournalStore store = new ProductJournalStore(dir)) {
+            assertFalse(store.isEmpty());
+            assertEquals(1, store.load().size());
+            store.addFirst(List.of(product("2", "Book", 5)));
+            store.compact();
+        }
+        assertFalse(Files.exists(snapshot));
+        assertTrue(Files.exists(dir.resolve("products.pb")));
+
+        try (ProductJournalStore store = new ProductJournalStore(dir)) {
+            List<Product> loaded = store.load();
+            assertEquals(List.of("Book", "Pen, blue"), names(loaded));
+            assertEquals("Store A", loaded.get(1).getLocation());
+            assertEquals(1.5, loaded.get(1).getPrice(), 0.0);
+        }
+    }
+
+    @Test
+    public void testExportedSnapshotImportsInOrder() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("export.pb.gz");
+        ProductJournalStore.exportSnapshot(List.of(product("1", "Pen", 10), product("2", "Book", 0)), file);
+
+        List<Product> imported = ProductJournalStore.importSnapshot(file);
+
+        assertEquals(List.of("Pen", "Book"), names(imported));
+        assertEquals(0, imported.get(1).getQty());
+        assertEquals("SKU-2", imported.get(1).getSku());
+    }
+}
@@ -0,0 +1,124 @@
+package org.example;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StoreSaverTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path snapshot;
+    private Path journal;
+    private ProductJournalStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        snapshot = folder.getRoot().toPath().resolve("products.csv");
+        journal = folder.getRoot().toPath().resolve("products.journal");
+        store = open();
+        store.load();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        store.close();
+    }
+
+    private ProductJournalStore open() {
+        return new ProductJournalStore(snapshot, journal, ProductJournalStore.SyncPolicy.EVERY_WRITE, 0);
+    }
+
+    private static Product product(String id, String name, int qty) {
+        return new Product(id, name, "SKU-" + id, qty, 1.0, "Store A");
+    }
+
+    // ✅ A burst of edits is written once, with one record per product
+    @Test
+    public void testBurstOfEditsIsCoalesced() throws Exception {
+        StoreSaver saver = new StoreSaver(store, 10_000, 60_000);
+        Product pen = product("1", "Pen", 0);
+        saver.addFirst(List.of(pen));
+        for (int i = 1; i <= 200; i++) {
+            pen.setQty(i);
+            saver.update(pen);
+        }
+        saver.addFirst(List.of(product("2", "Temp", 1)));
+        saver.delete("2");
+
+        assertEquals(StoreSaver.State.PENDING, saver.getStatus().getState());
+        saver.close();
+
+        assertEquals(1, saver.getStatus().getSaveCount());
+        assertEquals(StoreSaver.State.SAVED, saver.getStatus().getState());
+        assertNotNull(saver.getStatus().getLastSaved());
+        assertEquals(1, store.getJournalRecordCount());
+        try (ProductJournalStore reopened = open()) {
+            List<Product> loaded = reopened.load();
+            assertEquals(1, loaded.size());
+            assertEquals(200, loaded.get(0).getQty());
+        }
+    }
+
+    @Test
+    public void testSavesAfterQuietPeriod() throws Exception {
+        StoreSaver saver = new StoreSaver(store, 50, 10_000);
+        CountDownLatch saved = new CountDownLatch(1);
+        saver.setListener(s -> {
+            if (s.getState() == StoreSaver.State.SAVED) {
+                saved.countDown();
+            }
+        });
+
+        saver.addFirst(List.of(product("1", "Pen", 1)));
+
+        assertTrue(saved.await(5, TimeUnit.SECONDS));
+        assertEquals(1, store.size());
+        saver.close();
+    }
+
+    // ✅ Continuous editing still reaches disk once the max delay has passed
+    @Test
+    public void testMaxDelayForcesSaveDuringContinuousEdits() throws Exception {
+        StoreSaver saver = new StoreSaver(store, 200, 300);
+        Product pen = product("1", "Pen", 0);
+        saver.addFirst(List.of(pen));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (saver.getStatus().getSaveCount() == 0 && System.currentTimeMillis() < deadline) {
+            pen.setQty(pen.getQty() + 1);
+            saver.update(pen);
+            Thread.sleep(20);
+        }
+
+        assertTrue(saver.getStatus().getSaveCount() > 0);
+        saver.close();
+    }
+
+    @Test
+    public void testAddsKeepTableOrder() throws Exception {
+        StoreSaver saver = new StoreSaver(store, 10_000, 60_000);
+        saver.replaceAll(List.of(product("1", "Old", 1)));
+        saver.addFirst(List.of(product("2", "A", 1), product("3", "B", 1)));
+        saver.addFirst(List.of(product("4", "New", 1)));
+        saver.close();
+
+        try (ProductJournalStore reopened = open()) {
+            List<Product> loaded = reopened.load();
+            assertEquals("New", loaded.get(0).getName());
+            assertEquals("A", loaded.get(1).getName());
+            assertEquals("B", loaded.get(2).getName());
+            assertEquals("Old", loaded.get(3).getName());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.controller;
+
+import javafx.collections.ListChangeListener;
+import org.example.dao.ProductDAO;
+import org.example.dao.ProductPage;
+import org.example.dao.ProductQuery;
+import org.example.model.Product;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class LazyProductListTest {
+
+    private static final int TOTAL = 1_000;
+
+    private ProductDAO productDAO;
+    private final Queue<Runnable> background = new ArrayDeque<>();
+    private final Queue<Runnable> fxThread = new ArrayDeque<>();
+    private LazyProductList list;
+
+    @Before
+    public void setUp() throws Exception {
+        productDAO = mock(ProductDAO.class);
+        // Serves rows whose id equals their position; the token is the id of the last row
+        when(productDAO.page(any(ProductQuery.class), any(), anyInt())).thenAnswer(inv -> {
+            String token = inv.getArgument(1);
+            int limit = inv.getArgument(2);
+            int from = token == null ? 0 : Integer.parseInt(token) + 1;
+            List<Product> rows = new ArrayList<>();
+            for (int i = from; i < Math.min(from + limit, TOTAL); i++) {
+                rows.add(new Product(i, "Item" + i, "Cat", 1, 1.0));
+            }
+            boolean more = from + limit < TOTAL;
+            return new ProductPage(rows, more ? String.valueOf(from + limit - 1) : null);
+        });
+        list = new LazyProductList(productDAO, 10, 2, background::add, fxThread::add);
+    }
+
+    private void drain() {
+        while (!background.isEmpty() || !fxThread.isEmpty()) {
+            while (!background.isEmpty()) {
+                background.poll().run();
+            }
+            while (!fxThread.isEmpty()) {
+                fxThread.poll().run();
+            }
+        }
+    }
+
+    // ✅ Opening reads one keyset page and no COUNT; the extent covers one more page
+    @Test
+    public void testOpeningReadsFirstPageWithoutCounting() throws Exception {
+        list.refresh();
+        drain();
+
+        assertEquals(20, list.size());
+        assertEquals(9, list.get(9).getId());
+        verify(productDAO).page(any(ProductQuery.class), isNull(), eq(10));
+        verify(productDAO, never()).countProducts(any());
+        verify(productDAO, never()).findProducts(any());
+    }
+
+    @Test
+    public void testScrollingIntoEstimateReadsNextPageFromToken() throws Exception {
+        list.refresh();
+        drain();
+
+        assertNull(list.get(15));
+        drain();
+
+        assertEquals(15, list.get(15).getId());
+        assertEquals(25, list.get(25).getId()); // read ahead from page 1's token
+        assertEquals(40, list.size());
+        verify(productDAO).page(any(ProductQuery.class), eq("9"), eq(10));
+        verify(productDAO).page(any(ProductQuery.class), eq("19"), eq(10));
+    }
+
+    // ✅ The extent grows to the real row count; far pages are dropped, so memory stays bounded
+    @Test
+    public void testDistantPagesAreEvicted() {
+        list.refresh();
+        drain();
+
+        for (int index = 0; index < list.size(); index += 10) {
+            list.get(index);
+            drain();
+        }
+
+        assertEquals(TOTAL, list.size());
+        // keepPages = 2 on either side of the current page
+        assertTrue(list.getCachedPageCount() <= 5);
+        assertTrue(list.getCachedPageCount() < TOTAL / 10);
+    }
+
+    @Test
+    public void testEvictedPageIsReadAgainFromItsToken() throws Exception {
+        list.refresh();
+        drain();
+        for (int index = 0; index < 60; index += 10) {
+            list.get(index);
+            drain();
+        }
+
+        assertNull(list.get(0));
+        drain();
+
+        assertEquals(0, list.get(0).getId());
+        verify(productDAO, times(2)).page(any(ProductQuery.class), isNull(), eq(10));
+    }
+
+    @Test
+    public void testSortChangeReloadsFromDatabase() throws Exception {
+        list.refresh();
+        drain();
+
+        list.setSort(ProductQuery.SortField.PRICE, false);
+        drain();
+
+        ArgumentCaptor<ProductQuery> queries = ArgumentCaptor.forClass(ProductQuery.class);
+        verify(productDAO, times(2)).page(queries.capture(), isNull(), eq(10));
+        ProductQuery last = queries.getValue();
+        assertEquals(ProductQuery.SortField.PRICE, last.getSortField());
+        assertFalse(last.isAscending());
+        verify(productDAO, never()).countProducts(any());
+    }
+
+    @Test
+    public void testReplaceRowUpdatesCachedRowOnly() {
+        list.refresh();
+        drain();
+        list.get(5);
+        drain();
+
+        int index = list.replaceRow(new Product(5, "Renamed", "Cat", 3, 1.0));
+
+        assertEquals(5, index);
+        assertEquals("Renamed", list.get(5).getName());
+        assertEquals(-1, list.replaceRow(new Product(900, "Far", "Cat", 1, 1.0)));
+    }
+
+    // ✅ A new row is slotted into its page with one add event; no reload, no COUNT
+    @Test
+    public void testInsertRowShiftsCachedRowsWithSingleAdd() throws Exception {
+        list.setSort(ProductQuery.SortField.NAME, true);
+        drain();
+        List<ListChangeListener.Change<? extends Product>> changes = new ArrayList<>();
+        list.addListener((ListChangeListener<Product>) changes::add);
+
+        int index = list.insertRow(new Product(5_000, "item4b", "Cat", 1, 1.0));
+
+        assertEquals(5, index);
+        assertEquals(21, list.size());
+        assertEquals(5_000, list.get(5).getId());
+        assertEquals(5, list.get(6).getId());
+        assertEquals(1, changes.size());
+        ListChangeListener.Change<? extends Product> change = changes.get(0);
+        assertTrue(change.next());
+        assertTrue(change.wasAdded());
+        assertEquals(5, change.getFrom());
+        assertFalse(change.next());
+        verify(productDAO, times(1)).page(any(ProductQuery.class), any(), anyInt());
+    }
+
+    @Test
+    public void testRemoveRowShiftsCachedRowsWithSingleRemove() throws Exception {
+        list.refresh();
+        drain();
+        List<ListChangeListener.Change<? extends Product>> changes = new ArrayList<>();
+        list.addListener((ListChangeListener<Product>) changes::add);
+
+        assertEquals(3, list.removeRow(list.get(3)));
+
+        assertEquals(19, list.size());
+        assertEquals(4, list.get(3).getId());
+        assertEquals(1, changes.size());
+        ListChangeListener.Change<? extends Product> change = changes.get(0);
+        assertTrue(change.next());
+        assertTrue(change.wasRemoved());
+        assertEquals(3, change.getFrom());
+        assertFalse(change.next());
+        verify(productDAO, times(1)).page(any(ProductQuery.class), any(), anyInt());
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.dao;
+
+import org.example.model.Product;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class CachingProductDAOTest {
+
+    private ProductDAO delegate;
+    private CachingProductDAO cachingDAO;
+
+    @Before
+    public void setUp() throws SQLException {
+        delegate = mock(ProductDAO.class);
+        cachingDAO = new CachingProductDAO(delegate, 2, 60_000);
+        when(delegate.getProductById(anyInt()))
+                .thenAnswer(inv -> new Product(inv.getArgument(0), "Item", "Cat", 5, 10.0));
+    }
+
+    @Test
+    public void testRepeatedLookupIsServedFromCache() throws SQLException {
+        cachingDAO.getProductById(1);
+        Product second = cachingDAO.getProductById(1);
+
+        assertEquals("Item", second.getName());
+        verify(delegate, times(1)).getProductById(1);
+        assertEquals(1, cachingDAO.getHitCount());
+        assertEquals(1, cachingDAO.getMissCount());
+    }
+
+    @Test
+    public void testCallerMutationsDoNotLeakIntoCache() throws SQLException {
+        cachingDAO.getProductById(1).setName("Changed");
+        cachingDAO.getProductById(1).setName("Changed again");
+
+        assertEquals("Item", cachingDAO.getProductById(1).getName());
+    }
+
+    @Test
+    public void testUpdateAndDeleteInvalidate() throws SQLException {
+        Product p = cachingDAO.getProductById(1);
+        cachingDAO.updateProduct(p);
+        cachingDAO.getProductById(1);
+
+        cachingDAO.deleteProducts(new int[]{1});
+        cachingDAO.getProductById(1);
+
+        verify(delegate, times(3)).getProductById(1);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws SQLException {
+        cachingDAO.getProductById(1);
+        cachingDAO.getProductById(2);
+        cachingDAO.getProductById(1); // 2 becomes eldest
+        cachingDAO.getProductById(3);
+
+        assertEquals(2, cachingDAO.size());
+        assertEquals(1, cachingDAO.getEvictionCount());
+        cachingDAO.getProductById(1);
+        verify(delegate, times(1)).getProductById(1);
+    }
+
+    @Test
+    public void testExpiredEntriesAreReloaded() throws SQLException {
+        CachingProductDAO shortLived = new CachingProductDAO(delegate, 10, 0);
+        shortLived.getProductById(1);
+        shortLived.getProductById(1);
+
+        verify(delegate, times(2)).getProductById(1);
+        assertEquals(0, shortLived.getHitCount());
+    }
+}
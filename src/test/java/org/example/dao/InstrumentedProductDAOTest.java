@@ -0,0 +1,103 @@
+package org.example.dao;
+
+import org.example.metrics.InMemoryMetricsRegistry;
+import org.example.metrics.LatencyHistogram;
+import org.example.metrics.Metrics;
+import org.example.metrics.MetricsRegistry;
+import org.example.model.Product;
+import org.example.model.User;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class InstrumentedProductDAOTest {
+
+    private ProductDAO delegate;
+    private MetricsRegistry registry;
+    private InstrumentedProductDAO dao;
+
+    @Before
+    public void setUp() {
+        delegate = mock(ProductDAO.class);
+        registry = new InMemoryMetricsRegistry();
+        dao = new InstrumentedProductDAO(delegate, registry);
+    }
+
+    @Test
+    public void testCallsRowsAndLatencyAreRecorded() throws SQLException {
+        when(delegate.getAllProducts()).thenReturn(List.of(
+                new Product(1, "A", "C", 1, 1.0), new Product(2, "B", "C", 1, 1.0)));
+
+        assertEquals(2, dao.getAllProducts().size());
+        dao.getAllProducts();
+
+        LatencyHistogram.Snapshot s = registry.latencies().get("dao.product.getAllProducts");
+        assertEquals(2, s.getCount());
+        assertTrue(s.getMax() > 0);
+        assertEquals(Long.valueOf(4), registry.counters().get("dao.product.getAllProducts" + Metrics.ROWS));
+        assertNull(registry.counters().get("dao.product.getAllProducts" + Metrics.ERRORS));
+    }
+
+    // ✅ A failing call is still timed, counted as an error and rethrown unchanged
+    @Test
+    public void testErrorsAreCountedAndRethrown() throws SQLException {
+        SQLException boom = new SQLException("boom");
+        when(delegate.deleteProduct(9)).thenThrow(boom);
+
+        try {
+            dao.deleteProduct(9);
+            fail("Expected SQLException");
+        } catch (SQLException e) {
+            assertSame(boom, e);
+        }
+        assertEquals(1, registry.latencies().get("dao.product.deleteProduct").getCount());
+        assertEquals(Long.valueOf(1), registry.counters().get("dao.product.deleteProduct" + Metrics.ERRORS));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamingReadsCountRowsSeenByTheCaller() throws SQLException {
+        doAnswer(inv -> {
+            Consumer<Product> action = inv.getArgument(1);
+            for (int i = 0; i < 3; i++) {
+                action.accept(new Product(i, "P", "C", 1, 1.0));
+            }
+            return null;
+        }).when(delegate).forEachProduct(any(ProductQuery.class), any(Consumer.class));
+        when(delegate.streamAll()).thenReturn(Stream.of(new Product(1, "P", "C", 1, 1.0)));
+
+        int[] seen = {0};
+        dao.forEachProduct(ProductQuery.all(), p -> seen[0]++);
+        try (Stream<Product> stream = dao.streamAll()) {
+            assertEquals(1, stream.collect(Collectors.toList()).size());
+            assertNull("streamAll is recorded on close", registry.latencies().get("dao.product.streamAll"));
+        }
+
+        assertEquals(3, seen[0]);
+        assertEquals(Long.valueOf(3), registry.counters().get("dao.product.forEachProduct" + Metrics.ROWS));
+        assertEquals(1, registry.latencies().get("dao.product.streamAll").getCount());
+        assertEquals(Long.valueOf(1), registry.counters().get("dao.product.streamAll" + Metrics.ROWS));
+    }
+
+    @Test
+    public void testUserLookupsAreInstrumented() throws SQLException {
+        UserDAO users = mock(UserDAO.class);
+        when(users.getUserByCredentials("alice", "pw")).thenReturn(new User("alice", "pw", "ADMIN"));
+        InstrumentedUserDAO userDAO = new InstrumentedUserDAO(users, registry);
+
+        assertNotNull(userDAO.getUserByCredentials("alice", "pw"));
+        assertNull(userDAO.getUserByCredentials("alice", "wrong"));
+
+        assertEquals(2, registry.latencies().get("dao.user.getUserByCredentials").getCount());
+        assertEquals(Long.valueOf(1), registry.counters().get("dao.user.getUserByCredentials" + Metrics.ROWS));
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.dao;
+
+import org.example.model.Product;
+import org.example.product.java.util.DBConnection;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ProductDAOImplBatchTest {
+
+    private ProductDAOImpl productDAO;
+    private Connection mockConnection;
+    private PreparedStatement mockStatement;
+    private ResultSet mockKeys;
+
+    @Before
+    public void setUp() throws Exception {
+        productDAO = new ProductDAOImpl();
+        productDAO.setBatchSize(2);
+        mockConnection = mock(Connection.class);
+        mockStatement = mock(PreparedStatement.class);
+        mockKeys = mock(ResultSet.class);
+        when(mockConnection.getAutoCommit()).thenReturn(true);
+    }
+
+    // ✅ addProducts() chunks rows and returns generated keys in order
+    @Test
+    public void testAddProductsUsesChunkedBatches() throws Exception {
+        List<Product> products = Arrays.asList(
+                new Product("Pen", "Stationery", 10, 1.5),
+                new Product("Ink", "Stationery", 5, 3.0),
+                new Product("Pad", "Stationery", 7, 2.0));
+
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS)))
+                    .thenReturn(mockStatement);
+            when(mockStatement.getGeneratedKeys()).thenReturn(mockKeys);
+            when(mockKeys.next()).thenReturn(true, true, true);
+            when(mockKeys.getInt(1)).thenReturn(11, 12, 13);
+
+            int[] ids = productDAO.addProducts(products);
+
+            assertArrayEquals(new int[]{11, 12, 13}, ids);
+            assertEquals(13, products.get(2).getId());
+            verify(mockStatement, times(3)).addBatch();
+            verify(mockStatement, times(2)).executeBatch();
+            verify(mockConnection).setAutoCommit(false);
+            verify(mockConnection).commit();
+        }
+    }
+
+    // ✅ deleteProducts() issues one IN (...) statement per chunk
+    @Test
+    public void testDeleteProductsUsesInListPerChunk() throws Exception {
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeQuery()).thenReturn(mockKeys);
+            when(mockKeys.next()).thenReturn(true, true, false, true, false);
+            when(mockKeys.getInt(1)).thenReturn(1, 2, 3);
+
+            int deleted = productDAO.deleteProducts(new int[]{1, 2, 3});
+
+            assertEquals(3, deleted);
+            verify(mockConnection).prepareStatement("SELECT id FROM products WHERE id IN (?,?) FOR UPDATE");
+            verify(mockConnection).prepareStatement("DELETE FROM products WHERE id IN (?,?)");
+            verify(mockConnection).prepareStatement("DELETE FROM products WHERE id IN (?)");
+            verify(mockConnection).commit();
+        }
+    }
+
+    // ✅ A failing chunk rolls back the whole batch
+    @Test
+    public void testUpdateProductsRollsBackOnFailure() throws Exception {
+        List<Product> products = Arrays.asList(
+                new Product(1, "Pen", "Stationery", 10, 1.5),
+                new Product(2, "Ink", "Stationery", 5, 3.0));
+
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+            when(mockStatement.executeBatch()).thenThrow(new SQLException("deadlock"));
+
+            try {
+                productDAO.updateProducts(products);
+                fail("Expected SQLException");
+            } catch (SQLException expected) {
+                verify(mockConnection).rollback();
+                verify(mockConnection, never()).commit();
+                verify(mockConnection).setAutoCommit(true);
+            }
+        }
+    }
+}
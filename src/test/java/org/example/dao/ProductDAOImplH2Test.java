@@ -0,0 +1,174 @@
+package org.example.dao;
+
+import org.example.model.Product;
+import org.example.model.User;
+import org.example.perf.EmbeddedDatabase;
+import org.example.perf.ProductDataGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the real SQL of the DAOs against the embedded H2 database in MySQL mode.
+ */
+public class ProductDAOImplH2Test {
+
+    private EmbeddedDatabase db;
+    private ProductDAOImpl productDAO;
+
+    @Before
+    public void setUp() throws Exception {
+        db = EmbeddedDatabase.start("dao_h2_test");
+        productDAO = new ProductDAOImpl();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        db.close();
+    }
+
+    // ✅ Inserts, reads, optimistic updates, stock reservation and deletes work end to end
+    @Test
+    public void testProductLifecycle() throws Exception {
+        assertTrue(productDAO.addProduct(new Product("Pen", "Stationery", 10, 1.5)));
+        Product pen = productDAO.findProducts(ProductQuery.all().nameEquals("Pen")).get(0);
+        assertEquals(0, pen.getVersion());
+        assertNotNull(pen.getUpdatedAt());
+
+        pen.setQuantity(8);
+        assertEquals(UpdateResult.UPDATED, productDAO.compareAndUpdateProduct(pen));
+        pen.setQuantity(1);
+        pen.setVersion(0);
+        assertEquals(UpdateResult.CONFLICT, productDAO.compareAndUpdateProduct(pen));
+
+        assertTrue(productDAO.tryReserve(pen.getId(), 3));
+        assertFalse(productDAO.tryReserve(pen.getId(), 50));
+        assertEquals(5, productDAO.getProductById(pen.getId()).getQuantity());
+
+        Instant beforeDelete = productDAO.currentDatabaseTime().minusSeconds(1);
+        assertTrue(productDAO.deleteProduct(pen.getId()));
+        assertNull(productDAO.getProductById(pen.getId()));
+        List<ProductTombstone> tombstones = new ArrayList<>();
+        productDAO.forEachDeletedSince(beforeDelete, tombstones::add);
+        assertEquals(1, tombstones.size());
+        assertEquals(pen.getId(), tombstones.get(0).getProductId());
+    }
+
+    // ✅ Batched inserts, keyset pages, streaming and multi-row reservations
+    @Test
+    public void testBatchAndQueryPaths() throws Exception {
+        int[] ids = new ProductDataGenerator(42).seedProducts(productDAO, 250);
+        assertEquals(250, ids.length);
+        assertEquals(250, productDAO.countProducts(ProductQuery.all()));
+
+        int seen = 0;
+        ProductPage page = productDAO.page(null, 40, ProductQuery.SortField.NAME);
+        while (true) {
+            seen += page.getItems().size();
+            if (!page.hasNext()) break;
+            page = productDAO.page(page.getNextToken(), 40, ProductQuery.SortField.NAME);
+        }
+        assertEquals(250, seen);
+
+        int[] streamed = {0};
+        productDAO.forEachProduct(ProductQuery.all().category("Books"), p -> streamed[0]++);
+        assertEquals(productDAO.countProducts(ProductQuery.all().category("Books")), streamed[0]);
+
+        Product first = productDAO.getProductById(ids[0]);
+        assertTrue(productDAO.tryReserveAll(Map.of(ids[0], first.getQuantity())));
+        assertEquals(0, productDAO.getProductById(ids[0]).getQuantity());
+
+        assertEquals(2, productDAO.deleteProducts(new int[]{ids[1], ids[2]}));
+        assertEquals(248, productDAO.getAllProducts().size());
+    }
+
+    // ✅ Filtered, descending keyset pages walk exactly the matching rows in order
+    @Test
+    public void testFilteredDescendingPages() throws Exception {
+        new ProductDataGenerator(11).seedProducts(productDAO, 200);
+        ProductQuery books = ProductQuery.all().category("Books").sortBy(ProductQuery.SortField.PRICE, false);
+
+        List<Product> walked = new ArrayList<>();
+        ProductPage page = productDAO.page(books, null, 7);
+        while (true) {
+            walked.addAll(page.getItems());
+            if (!page.hasNext()) break;
+            page = productDAO.page(books, page.getNextToken(), 7);
+        }
+
+        List<Product> expected = productDAO.findProducts(books);
+        assertEquals(expected.size(), walked.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), walked.get(i).getId());
+        }
+    }
+
+    // ✅ Only ids that were really deleted get a tombstone
+    @Test
+    public void testDeleteProductsTombstonesOnlyExistingRows() throws Exception {
+        int[] ids = new ProductDataGenerator(7).seedProducts(productDAO, 3);
+        Instant beforeDelete = productDAO.currentDatabaseTime().minusSeconds(1);
+
+        assertEquals(2, productDAO.deleteProducts(new int[]{ids[0], 999_999, ids[2]}));
+
+        List<Integer> tombstoned = new ArrayList<>();
+        productDAO.forEachDeletedSince(beforeDelete, t -> tombstoned.add(t.getProductId()));
+        assertEquals(2, tombstoned.size());
+        assertTrue(tombstoned.containsAll(List.of(ids[0], ids[2])));
+        assertNotNull(productDAO.getProductById(ids[1]));
+    }
+
+    // ✅ Batch writes notify listeners only for rows that were really updated or deleted
+    @Test
+    public void testBatchWritesNotifyOnlyChangedRows() throws Exception {
+        int[] ids = new ProductDataGenerator(11).seedProducts(productDAO, 2);
+        List<String> events = new ArrayList<>();
+        ProductChangeListener listener = new ProductChangeListener() {
+            @Override
+            public void productSaved(Product product) { events.add("saved " + product.getId()); }
+            @Override
+            public void productChanged(int id) { events.add("changed " + id); }
+            @Override
+            public void productDeleted(int id) { events.add("deleted " + id); }
+        };
+        ProductDAOImpl.addChangeListener(listener);
+        try {
+            Product stale = productDAO.getProductById(ids[0]);
+            Product missing = new Product(999_999, "Ghost", "None", 1, 1.0);
+            // Another writer moves the row on, so the stale copy's version is behind by one
+            assertTrue(productDAO.updateProduct(productDAO.getProductById(ids[0])));
+            events.clear();
+
+            assertEquals(1, productDAO.updateProducts(List.of(stale, missing)));
+            assertEquals(productDAO.getProductById(ids[0]).getVersion(), stale.getVersion());
+            assertEquals(0, missing.getVersion());
+            assertEquals(1, productDAO.deleteProducts(new int[]{999_998, ids[1]}));
+
+            assertEquals(List.of("saved " + ids[0], "deleted " + ids[1]), events);
+        } finally {
+            ProductDAOImpl.removeChangeListener(listener);
+        }
+    }
+
+    @Test
+    public void testUserDaoAgainstEmbeddedDatabase() throws Exception {
+        UserDAOImpl userDAO = new UserDAOImpl();
+        assertTrue(userDAO.addUser(new User("alice", "pw", "ADMIN")));
+
+        User alice = userDAO.getUserByCredentials("alice", "pw");
+        assertNotNull(alice);
+        alice.setRole("STAFF");
+        assertTrue(userDAO.updateUser(alice));
+        assertEquals("STAFF", userDAO.getUserByUsername("alice").getRole());
+        assertNull(userDAO.getUserByCredentials("alice", "wrong"));
+        assertTrue(userDAO.deleteUser(alice.getId()));
+        assertTrue(userDAO.getAllUsers().isEmpty());
+    }
+}
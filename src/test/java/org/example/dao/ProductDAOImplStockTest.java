@@ -0,0 +1,86 @@
+package org.example.dao;
+
+import org.example.product.java.util.DBConnection;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ProductDAOImplStockTest {
+
+    private static final String RESERVE_SQL =
+            "UPDATE products SET quantity = quantity - ?, version = version + 1 WHERE id = ? AND quantity >= ?";
+
+    private ProductDAOImpl productDAO;
+    private Connection mockConnection;
+    private PreparedStatement mockStatement;
+
+    @Before
+    public void setUp() throws Exception {
+        productDAO = new ProductDAOImpl();
+        mockConnection = mock(Connection.class);
+        mockStatement = mock(PreparedStatement.class);
+        when(mockConnection.getAutoCommit()).thenReturn(true);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+    }
+
+    // ✅ tryReserve() is a single conditional UPDATE
+    @Test
+    public void testTryReserveFailsWhenStockIsShort() throws Exception {
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+            when(mockStatement.executeUpdate()).thenReturn(0);
+
+            assertFalse(productDAO.tryReserve(5, 3));
+            verify(mockConnection).prepareStatement(RESERVE_SQL);
+            verify(mockStatement).setInt(1, 3);
+            verify(mockStatement).setInt(2, 5);
+            verify(mockStatement).setInt(3, 3);
+        }
+    }
+
+    // ✅ A basket with one short line is rolled back as a whole
+    @Test
+    public void testTryReserveAllRollsBackWholeBasket() throws Exception {
+        Map<Integer, Integer> basket = new LinkedHashMap<>();
+        basket.put(9, 1);
+        basket.put(4, 2);
+
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+            when(mockStatement.executeBatch()).thenReturn(new int[]{1, 0});
+
+            assertFalse(productDAO.tryReserveAll(basket));
+
+            // Lines are sent in id order to avoid lock-order deadlocks
+            InOrder order = inOrder(mockStatement);
+            order.verify(mockStatement).setInt(2, 4);
+            order.verify(mockStatement).setInt(2, 9);
+            verify(mockConnection).rollback();
+            verify(mockConnection, never()).commit();
+        }
+    }
+
+    @Test
+    public void testTryReserveAllCommitsWhenEveryLineFits() throws Exception {
+        Map<Integer, Integer> basket = Map.of(1, 1, 2, 1);
+
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+            when(mockStatement.executeBatch()).thenReturn(new int[]{1, 1});
+
+            assertTrue(productDAO.tryReserveAll(basket));
+            verify(mockStatement, times(2)).addBatch();
+            verify(mockConnection).commit();
+        }
+    }
+}
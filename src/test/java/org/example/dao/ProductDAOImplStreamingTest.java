@@ -0,0 +1,85 @@
+package org.example.dao;
+
+import org.example.model.Product;
+import org.example.product.java.util.DBConnection;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ProductDAOImplStreamingTest {
+
+    private ProductDAOImpl productDAO;
+    private Connection mockConnection;
+    private PreparedStatement mockStatement;
+    private ResultSet mockResultSet;
+    private DatabaseMetaData mockMetaData;
+
+    @Before
+    public void setUp() throws Exception {
+        productDAO = new ProductDAOImpl();
+        mockConnection = mock(Connection.class);
+        mockStatement = mock(PreparedStatement.class);
+        mockResultSet = mock(ResultSet.class);
+        mockMetaData = mock(DatabaseMetaData.class);
+
+        when(mockConnection.getMetaData()).thenReturn(mockMetaData);
+        when(mockConnection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY),
+                eq(ResultSet.CONCUR_READ_ONLY))).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, true, false);
+        when(mockResultSet.getInt("id")).thenReturn(1, 2);
+        when(mockResultSet.getString("name")).thenReturn("Pen", "Ink");
+        when(mockResultSet.getString("category")).thenReturn("Stationery");
+    }
+
+    // ✅ MySQL connections stream row by row (fetch size Integer.MIN_VALUE)
+    @Test
+    public void testForEachProductStreamsWithMySqlFetchSize() throws Exception {
+        when(mockMetaData.getURL()).thenReturn("jdbc:mysql://localhost/inventory");
+
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+
+            List<String> names = new ArrayList<>();
+            productDAO.forEachProduct(p -> names.add(p.getName()));
+
+            assertEquals(List.of("Pen", "Ink"), names);
+            verify(mockStatement).setFetchSize(Integer.MIN_VALUE);
+            verify(mockConnection).close();
+        }
+    }
+
+    // ✅ streamAll() keeps the connection until the stream is closed
+    @Test
+    public void testStreamAllReleasesConnectionOnClose() throws Exception {
+        when(mockMetaData.getURL()).thenReturn("jdbc:h2:mem:inventory");
+
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+
+            List<Integer> ids;
+            try (Stream<Product> stream = productDAO.streamAll()) {
+                ids = stream.map(Product::getId).collect(Collectors.toList());
+                verify(mockConnection, never()).close();
+            }
+
+            assertEquals(List.of(1, 2), ids);
+            verify(mockStatement).setFetchSize(ProductDAOImpl.STREAM_FETCH_SIZE);
+            verify(mockResultSet).close();
+            verify(mockConnection).close();
+        }
+    }
+}
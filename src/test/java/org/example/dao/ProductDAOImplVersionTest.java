@@ -0,0 +1,102 @@
+package org.example.dao;
+
+import org.example.model.Product;
+import org.example.product.java.util.DBConnection;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ProductDAOImplVersionTest {
+
+    private ProductDAOImpl productDAO;
+    private Connection mockConnection;
+    private PreparedStatement mockStatement;
+    private ResultSet mockResultSet;
+
+    @Before
+    public void setUp() throws Exception {
+        productDAO = new ProductDAOImpl();
+        mockConnection = mock(Connection.class);
+        mockStatement = mock(PreparedStatement.class);
+        mockResultSet = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+    }
+
+    // ✅ A matching version is written and the caller's copy advances
+    @Test
+    public void testCompareAndUpdateAdvancesVersion() throws Exception {
+        Product p = new Product(3, "Lamp", "Home", 4, 25.0);
+        p.setVersion(7);
+
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+            when(mockStatement.executeUpdate()).thenReturn(1);
+
+            assertEquals(UpdateResult.UPDATED, productDAO.compareAndUpdateProduct(p));
+            verify(mockStatement).setInt(6, 3);
+            verify(mockStatement).setInt(7, 7);
+            assertEquals(8, p.getVersion());
+        }
+    }
+
+    // ✅ A stale version is reported as a conflict, not silently overwritten
+    @Test
+    public void testStaleVersionIsConflict() throws Exception {
+        Product p = new Product(3, "Lamp", "Home", 4, 25.0);
+        p.setVersion(7);
+
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+            when(mockStatement.executeUpdate()).thenReturn(0);
+            when(mockResultSet.next()).thenReturn(true);
+
+            assertEquals(UpdateResult.CONFLICT, productDAO.compareAndUpdateProduct(p));
+            assertEquals(7, p.getVersion());
+        }
+    }
+
+    @Test
+    public void testMissingRowIsNotFound() throws Exception {
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+            when(mockStatement.executeUpdate()).thenReturn(0);
+            when(mockResultSet.next()).thenReturn(false);
+
+            assertEquals(UpdateResult.NOT_FOUND,
+                    productDAO.compareAndUpdateProduct(new Product(99, "Gone", "Home", 1, 1.0)));
+        }
+    }
+
+    // ✅ A plain update takes the version stored in the row, not the stale copy's plus one
+    @Test
+    public void testUpdateProductReadsVersionBack() throws Exception {
+        Product p = new Product(3, "Lamp", "Home", 4, 25.0);
+        p.setVersion(7);
+
+        try (MockedStatic<DBConnection> dbMock = Mockito.mockStatic(DBConnection.class)) {
+            dbMock.when(DBConnection::getConnection).thenReturn(mockConnection);
+            when(mockConnection.getAutoCommit()).thenReturn(true);
+            when(mockStatement.executeUpdate()).thenReturn(1, 0);
+            when(mockResultSet.next()).thenReturn(true, false);
+            when(mockResultSet.getInt(1)).thenReturn(3);
+            when(mockResultSet.getInt(2)).thenReturn(12);
+
+            assertTrue(productDAO.updateProduct(p));
+            assertEquals(12, p.getVersion());
+            verify(mockConnection).prepareStatement("SELECT id, version FROM products WHERE id IN (?)");
+            verify(mockConnection).commit();
+
+            assertFalse(productDAO.updateProduct(p));
+            assertEquals(12, p.getVersion());
+        }
+    }
+}
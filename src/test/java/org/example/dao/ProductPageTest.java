@@ -0,0 +1,38 @@
+package org.example.dao;
+
+import org.example.model.Product;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ProductPageTest {
+
+    @Test
+    public void testTokenRoundTripsSortValueAndId() {
+        Product last = new Product(42, "Desk: Oak", "Furniture", 3, 129.99);
+
+        String token = ProductPage.encodeToken(ProductQuery.SortField.PRICE, last);
+        ProductPage.Cursor cursor = ProductPage.decodeToken(token, ProductQuery.SortField.PRICE);
+
+        assertEquals(42, cursor.id);
+        assertEquals(129.99, (Double) cursor.value, 0.0);
+
+        ProductPage.Cursor byName = ProductPage.decodeToken(
+                ProductPage.encodeToken(ProductQuery.SortField.NAME, last), ProductQuery.SortField.NAME);
+        assertEquals("Desk: Oak", byName.value);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTokenForAnotherSortOrderIsRejected() {
+        Product last = new Product(7, "Pen", "Stationery", 1, 1.0);
+        String token = ProductPage.encodeToken(ProductQuery.SortField.NAME, last);
+        ProductPage.decodeToken(token, ProductQuery.SortField.PRICE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTokenForOtherDirectionIsRejected() {
+        Product last = new Product(7, "Pen", "Stationery", 1, 1.0);
+        String token = ProductPage.encodeToken(ProductQuery.SortField.NAME, false, last);
+        ProductPage.decodeToken(token, ProductQuery.SortField.NAME, true);
+    }
+}
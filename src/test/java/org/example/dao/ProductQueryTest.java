@@ -0,0 +1,49 @@
+package org.example.dao;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ProductQueryTest {
+
+    @Test
+    public void testEmptyQuerySelectsEverythingOrderedById() {
+        ProductQuery q = ProductQuery.all();
+        assertEquals("SELECT * FROM products ORDER BY id ASC", q.toSql());
+        assertEquals(Collections.emptyList(), q.parameters());
+    }
+
+    @Test
+    public void testFiltersCompileToOneParameterizedStatement() {
+        ProductQuery q = ProductQuery.all()
+                .category("Audio")
+                .priceBetween(400.0, 800.0)
+                .lowStockOnly()
+                .sortBy(ProductQuery.SortField.PRICE, false)
+                .limit(20)
+                .offset(40);
+
+        assertEquals("SELECT * FROM products WHERE category = ? AND price >= ? AND price <= ?"
+                + " AND quantity <= threshold ORDER BY price DESC, id DESC LIMIT 20 OFFSET 40", q.toSql());
+        assertEquals(Arrays.asList("Audio", 400.0, 800.0), q.parameters());
+        assertEquals("SELECT COUNT(*) FROM products WHERE category = ? AND price >= ? AND price <= ?"
+                + " AND quantity <= threshold", q.toCountSql());
+    }
+
+    @Test
+    public void testLikeWildcardsInUserInputAreEscaped() {
+        ProductQuery q = ProductQuery.all().nameContains("50%_off!").nameStartsWith("Pen");
+
+        assertEquals("SELECT * FROM products WHERE name LIKE ? ESCAPE '!' AND name LIKE ? ESCAPE '!'"
+                + " ORDER BY id ASC", q.toSql());
+        assertEquals(Arrays.asList("Pen%", "%50!%!_off!!%"), q.parameters());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLimitIsRejected() {
+        ProductQuery.all().limit(-1);
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.dao.InstrumentedProductDAO;
+import org.example.dao.ProductDAO;
+import org.example.metrics.MetricsRegistry;
+import org.example.model.Product;
+import org.example.service.EmailService;
+import org.example.service.InMemoryMailTransport;
+import org.example.service.MailOutbox;
+import org.example.service.OTPService;
+import org.example.util.CSVHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Records the inventory JFR events in-process and checks their fields.
+ */
+public class InventoryEventsTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Recording recording;
+    private MailOutbox outbox;
+
+    @Before
+    public void setUp() {
+        recording = new Recording();
+        for (Class<?> type : List.of(DaoCallEvent.class, CsvTransferEvent.class, MailSendEvent.class, OtpEvent.class)) {
+            recording.enable(type.getName()).withoutThreshold();
+        }
+        recording.start();
+    }
+
+    @After
+    public void tearDown() {
+        recording.close();
+        if (outbox != null) {
+            outbox.close();
+            EmailService.setOutbox(null);
+        }
+    }
+
+    private List<RecordedEvent> stop() throws Exception {
+        recording.stop();
+        Path file = tmp.newFile("events.jfr").toPath();
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String eventName) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(eventName))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testDaoCallsAndCsvExportsAreRecorded() throws Exception {
+        ProductDAO delegate = mock(ProductDAO.class);
+        List<Product> products = List.of(new Product(1, "Pen", "Office", 3, 1.5), new Product(2, "Mug", "Kitchen", 4, 6.0));
+        when(delegate.getAllProducts()).thenReturn(products);
+        new InstrumentedProductDAO(delegate, MetricsRegistry.NOOP).getAllProducts();
+        Path csv = tmp.getRoot().toPath().resolve("products.csv");
+        CSVHelper.saveProducts(products, csv.toString());
+
+        List<RecordedEvent> events = stop();
+        List<RecordedEvent> calls = named(events, "org.example.DaoCall");
+        assertEquals(1, calls.size());
+        assertEquals("product", calls.get(0).getString("dao"));
+        assertEquals("getAllProducts", calls.get(0).getString("operation"));
+        assertEquals(2, calls.get(0).getLong("rows"));
+        assertTrue(calls.get(0).getBoolean("success"));
+
+        RecordedEvent export = named(events, "org.example.CsvTransfer").get(0);
+        assertEquals(CsvTransferEvent.EXPORT, export.getString("direction"));
+        assertEquals(2, export.getLong("rows"));
+        assertEquals(Files.size(csv), export.getLong("bytes"));
+    }
+
+    // ✅ OTP events carry only the outcome; the mail send is recorded by the outbox worker
+    @Test
+    public void testOtpAndMailSendAreRecorded() throws Exception {
+        outbox = new MailOutbox(new InMemoryMailTransport());
+        EmailService.setOutbox(outbox);
+
+        String otp = OTPService.generateOTP("jfr@example.com");
+        assertFalse(OTPService.validateOTP("jfr@example.com", "not-it"));
+        assertTrue(OTPService.validateOTP("jfr@example.com", otp));
+        EmailService.sendEmailAsync("jfr@example.com", "Ping", "body").get(5, TimeUnit.SECONDS);
+
+        List<RecordedEvent> events = stop();
+        assertEquals(List.of("generate:queued", "validate:invalid", "validate:verified"),
+                named(events, "org.example.Otp").stream()
+                .map(e -> e.getString("action") + ":" + e.getString("outcome"))
+                .collect(Collectors.toList()));
+
+        List<RecordedEvent> sends = named(events, "org.example.MailSend").stream()
+                .filter(e -> "Ping".equals(e.getString("subject")))
+                .collect(Collectors.toList());
+        assertEquals(1, sends.size());
+        assertTrue(sends.get(0).getBoolean("success"));
+        assertEquals(1, sends.get(0).getInt("recipients"));
+        assertTrue(sends.get(0).getLong("bytes") > 0);
+    }
+}
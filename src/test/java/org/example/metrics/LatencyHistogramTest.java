@@ -0,0 +1,73 @@
+package org.example.metrics;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    // ✅ Every value maps to a bucket whose upper edge is within 1/64 of it
+    @Test
+    public void testBucketsAreLogLinear() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() & LatencyHistogram.MAX_TRACKABLE_NANOS;
+            long upper = LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(value));
+            assertTrue(value + " above its bucket", upper >= value);
+            assertTrue(value + " bucket too wide", upper - value <= value / 64);
+        }
+        for (long v = 0; v < 128; v++) {
+            assertEquals(v, LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(v)));
+        }
+    }
+
+    @Test
+    public void testPercentilesTrackExactValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        LatencyHistogram.Snapshot s = histogram.snapshot();
+
+        assertEquals(1000, s.getCount());
+        assertEquals(1000, s.getMin());
+        assertEquals(1_000_000, s.getMax());
+        assertEquals(500_500.0, s.getMean(), 0.001);
+        assertEquals(500_000, s.percentile(50), 500_000 / 64.0);
+        assertEquals(990_000, s.percentile(99), 990_000 / 64.0);
+        assertEquals(1_000_000, s.percentile(100));
+    }
+
+    @Test
+    public void testOutliersKeepExactMaxAndResetClears() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+        assertEquals(Long.MAX_VALUE, histogram.snapshot().getMax());
+        assertEquals(0, histogram.snapshot().getMin());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.snapshot().percentile(99));
+    }
+
+    @Test
+    public void testReportJoinsTimersWithTheirCounters() {
+        MetricsRegistry registry = new InMemoryMetricsRegistry();
+        registry.recordLatency("dao.product.getAllProducts", 2_000_000);
+        registry.increment("dao.product.getAllProducts" + Metrics.ROWS, 250);
+        registry.increment("dao.product.getAllProducts" + Metrics.ERRORS, 1);
+        registry.increment("orphan.counter", 3);
+
+        List<String> lines = Metrics.report(registry);
+        assertEquals(3, lines.size());
+        String row = lines.get(1);
+        assertTrue(row, row.matches("dao\\.product\\.getAllProducts\\s+1\\s+1\\s+250\\s+2000\\.0 .*"));
+        assertEquals("orphan.counter = 3", lines.get(2));
+
+        assertTrue(Metrics.report(MetricsRegistry.NOOP).get(0).contains("No metrics"));
+    }
+}
@@ -0,0 +1,259 @@
+package org.example.perf;
+
+import org.example.dao.ProductDAOImpl;
+import org.example.dao.ProductQuery;
+import org.example.dao.UpdateResult;
+import org.example.dao.UserDAOImpl;
+import org.example.model.Product;
+import org.example.model.User;
+import org.example.product.java.util.DBConnection;
+import org.example.product.java.util.PoolConfig;
+import org.example.product.java.util.PoolStats;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Multi-threaded load test of {@link ProductDAOImpl} and {@link UserDAOImpl} against the embedded
+ * database. Runs only with the perf profile: {@code mvn test -Pperf}.
+ * <p>
+ * Every thread runs a weighted mix of DAO operations for a fixed time and records the latency of
+ * each call; the report shows ops/sec and p50/p99/max per operation and is also written to
+ * target/perf/dao-load.csv. Sizes come from -Dperf.products, -Dperf.users, -Dperf.threads,
+ * -Dperf.seconds and -Dperf.seed.
+ */
+public class DaoLoadTest {
+
+    private static final int PRODUCTS = Integer.getInteger("perf.products", 10_000);
+    private static final int USERS = Integer.getInteger("perf.users", 500);
+    private static final int THREADS = Integer.getInteger("perf.threads", 4);
+    private static final int SECONDS = Integer.getInteger("perf.seconds", 10);
+    private static final long SEED = Long.getLong("perf.seed", 42L);
+
+    private static EmbeddedDatabase db;
+    private static int[] productIds;
+    private static List<User> users;
+
+    private final ProductDAOImpl productDAO = new ProductDAOImpl();
+    private final UserDAOImpl userDAO = new UserDAOImpl();
+
+    // Operation mix: roughly read-heavy, like the console and JavaFX front ends
+    private enum Op {
+        GET_BY_ID(30), FIND_BY_CATEGORY(10), PAGE(10), ADJUST_QUANTITY(15), COMPARE_AND_UPDATE(10),
+        TRY_RESERVE(10), ADD_PRODUCT(5), USER_BY_USERNAME(5), USER_LOGIN(5);
+
+        final int weight;
+
+        Op(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    @BeforeClass
+    public static void seed() throws Exception {
+        PoolConfig pool = new PoolConfig();
+        pool.setMaxSize(Math.max(THREADS, 2));
+        pool.setMinIdle(Math.max(THREADS, 2));
+        db = EmbeddedDatabase.start("dao_load_test", pool);
+
+        long start = System.nanoTime();
+        ProductDataGenerator generator = new ProductDataGenerator(SEED);
+        productIds = generator.seedProducts(new ProductDAOImpl(), PRODUCTS);
+        users = generator.seedUsers(new UserDAOImpl(), USERS);
+        System.out.printf("🌱 Seeded %d products and %d users in %d ms%n",
+                PRODUCTS, USERS, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @AfterClass
+    public static void shutdown() throws Exception {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void testMixedDaoWorkload() throws Exception {
+        Op[] schedule = schedule();
+        LatencyLog[][] logs = new LatencyLog[THREADS][Op.values().length];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        long[] window = new long[2];
+
+        for (int t = 0; t < THREADS; t++) {
+            LatencyLog[] threadLogs = logs[t];
+            for (Op op : Op.values()) {
+                threadLogs[op.ordinal()] = new LatencyLog();
+            }
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    startGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long deadline = window[0] + SECONDS * 1_000_000_000L;
+                while (System.nanoTime() < deadline) {
+                    Op op = schedule[random.nextInt(schedule.length)];
+                    long begin = System.nanoTime();
+                    try {
+                        run(op, random);
+                        threadLogs[op.ordinal()].add(System.nanoTime() - begin);
+                    } catch (Exception | AssertionError e) {
+                        if (errors.incrementAndGet() <= 5) {
+                            System.err.println("💥 " + op + " failed: " + e);
+                        }
+                    }
+                }
+            }, "dao-load-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+
+        window[0] = System.nanoTime();
+        startGate.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        window[1] = System.nanoTime();
+
+        double seconds = (window[1] - window[0]) / 1e9;
+        List<String> report = report(logs, seconds);
+        report.forEach(System.out::println);
+        PoolStats stats = DBConnection.getPoolStats();
+        if (stats != null) {
+            System.out.println("🔌 " + stats);
+        }
+        Path out = Paths.get("target", "perf", "dao-load.csv");
+        writeCsv(out, logs, seconds);
+        System.out.println("📄 Results written to " + out.toAbsolutePath());
+
+        assertEquals("DAO calls failed during the run", 0, errors.get());
+        for (Op op : Op.values()) {
+            assertTrue(op + " never ran", merged(logs, op).length > 0);
+        }
+    }
+
+    // === OPERATIONS ===
+
+    private void run(Op op, ThreadLocalRandom random) throws Exception {
+        int id = productIds[random.nextInt(productIds.length)];
+        switch (op) {
+            case GET_BY_ID -> productDAO.getProductById(id);
+            case FIND_BY_CATEGORY -> productDAO.findProducts(ProductQuery.all()
+                    .category(productDAO.getProductById(id).getCategory()).limit(20));
+            case PAGE -> productDAO.page(null, 20, ProductQuery.SortField.NAME);
+            case ADJUST_QUANTITY -> productDAO.adjustQuantity(id, random.nextBoolean() ? 1 : -1);
+            case COMPARE_AND_UPDATE -> {
+                Product p = productDAO.getProductById(id);
+                p.setPrice(p.getPrice() + 0.01);
+                // A CONFLICT is a valid outcome under concurrency
+                UpdateResult result = productDAO.compareAndUpdateProduct(p);
+                assertNotEquals(UpdateResult.NOT_FOUND, result);
+            }
+            case TRY_RESERVE -> productDAO.tryReserve(id, 1);
+            case ADD_PRODUCT -> productDAO.addProduct(
+                    new Product("Load " + random.nextInt(1_000_000), "Load", 1, 1.0));
+            case USER_BY_USERNAME -> userDAO.getUserByUsername(users.get(random.nextInt(users.size())).getUsername());
+            case USER_LOGIN -> {
+                User u = users.get(random.nextInt(users.size()));
+                assertNotNull(userDAO.getUserByCredentials(u.getUsername(), u.getPassword()));
+            }
+        }
+    }
+
+    // === HELPER METHODS ===
+
+    private static Op[] schedule() {
+        List<Op> slots = new ArrayList<>();
+        for (Op op : Op.values()) {
+            for (int i = 0; i < op.weight; i++) {
+                slots.add(op);
+            }
+        }
+        return slots.toArray(new Op[0]);
+    }
+
+    private static long[] merged(LatencyLog[][] logs, Op op) {
+        int size = 0;
+        for (LatencyLog[] threadLogs : logs) {
+            size += threadLogs[op.ordinal()].size;
+        }
+        long[] all = new long[size];
+        int next = 0;
+        for (LatencyLog[] threadLogs : logs) {
+            LatencyLog log = threadLogs[op.ordinal()];
+            System.arraycopy(log.nanos, 0, all, next, log.size);
+            next += log.size;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static List<String> report(LatencyLog[][] logs, double seconds) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("📊 DAO load test: %d threads, %.1f s, %d products", THREADS, seconds, PRODUCTS));
+        lines.add(String.format("%-20s %10s %10s %10s %10s %10s", "Operation", "Count", "Ops/sec", "p50 (µs)", "p99 (µs)", "Max (µs)"));
+        long total = 0;
+        for (Op op : Op.values()) {
+            long[] sorted = merged(logs, op);
+            total += sorted.length;
+            lines.add(String.format(Locale.ROOT, "%-20s %10d %10.0f %10.0f %10.0f %10.0f", op, sorted.length,
+                    sorted.length / seconds, percentile(sorted, 50) / 1e3, percentile(sorted, 99) / 1e3,
+                    (sorted.length == 0 ? 0 : sorted[sorted.length - 1]) / 1e3));
+        }
+        lines.add(String.format(Locale.ROOT, "%-20s %10d %10.0f", "TOTAL", total, total / seconds));
+        return lines;
+    }
+
+    private static void writeCsv(Path file, LatencyLog[][] logs, double seconds) throws IOException {
+        Files.createDirectories(file.getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add("operation,count,ops_per_sec,p50_us,p99_us,max_us,threads,products");
+        for (Op op : Op.values()) {
+            long[] sorted = merged(logs, op);
+            lines.add(String.format(Locale.ROOT, "%s,%d,%.1f,%.1f,%.1f,%.1f,%d,%d", op, sorted.length,
+                    sorted.length / seconds, percentile(sorted, 50) / 1e3, percentile(sorted, 99) / 1e3,
+                    (sorted.length == 0 ? 0 : sorted[sorted.length - 1]) / 1e3, THREADS, PRODUCTS));
+        }
+        Files.write(file, lines);
+    }
+
+    // === INNER CLASS ===
+
+    // Per-thread latency samples in nanoseconds; no sharing, so recording adds no contention
+    private static final class LatencyLog {
+        long[] nanos = new long[4_096];
+        int size;
+
+        void add(long value) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+        }
+    }
+}
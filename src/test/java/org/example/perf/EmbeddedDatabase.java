@@ -0,0 +1,65 @@
+package org.example.perf;
+
+import org.example.product.java.util.DBConnection;
+import org.example.product.java.util.PoolConfig;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * In-memory H2 database in MySQL mode with the schema from {@code db/schema.sql}, plugged into
+ * {@link DBConnection} so the real DAOs run against it without a MySQL server.
+ * <p>
+ * Each instance is a separate database (named after the caller); {@link #close()} drops it and
+ * puts {@link DBConnection} back on the environment variables.
+ */
+public class EmbeddedDatabase implements AutoCloseable {
+
+    private final String url;
+    // Keeps the in-memory database alive between pooled connections
+    private final Connection keepAlive;
+
+    private EmbeddedDatabase(String name, PoolConfig poolConfig) throws SQLException {
+        this.url = "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000";
+        this.keepAlive = DriverManager.getConnection(url, "sa", "");
+        try (Statement st = keepAlive.createStatement()) {
+            st.execute("RUNSCRIPT FROM 'classpath:/db/schema.sql'");
+        }
+        DBConnection.setConnectionFactory(() -> DriverManager.getConnection(url, "sa", ""), poolConfig);
+    }
+
+    public static EmbeddedDatabase start(String name) throws SQLException {
+        PoolConfig config = new PoolConfig();
+        config.setMaxSize(16);
+        return start(name, config);
+    }
+
+    public static EmbeddedDatabase start(String name, PoolConfig poolConfig) throws SQLException {
+        return new EmbeddedDatabase(name, poolConfig);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    // Removes all rows but keeps the schema (identity columns restart at 1)
+    public void truncateAll() throws SQLException {
+        try (Statement st = keepAlive.createStatement()) {
+            st.execute("TRUNCATE TABLE products RESTART IDENTITY");
+            st.execute("TRUNCATE TABLE product_tombstones");
+            st.execute("TRUNCATE TABLE users RESTART IDENTITY");
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        DBConnection.setConnectionFactory(null, null);
+        try (Statement st = keepAlive.createStatement()) {
+            st.execute("SHUTDOWN");
+        } finally {
+            keepAlive.close();
+        }
+    }
+}
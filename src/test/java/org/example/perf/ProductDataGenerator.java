@@ -0,0 +1,71 @@
+package org.example.perf;
+
+import org.example.dao.ProductDAO;
+import org.example.dao.UserDAO;
+import org.example.model.Product;
+import org.example.model.User;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generator for test data: the same seed always produces the same rows, so runs
+ * against the embedded database are comparable.
+ */
+public class ProductDataGenerator {
+
+    private static final String[] CATEGORIES =
+            {"Stationery", "Books", "Electronics", "Kitchen", "Garden", "Toys", "Office", "Sports"};
+    private static final String[] NOUNS =
+            {"Pen", "Notebook", "Stapler", "Lamp", "Mug", "Chair", "Cable", "Bottle", "Ball", "Folder"};
+    private static final int INSERT_CHUNK = 5_000;
+
+    private final Random random;
+
+    public ProductDataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public Product nextProduct() {
+        String noun = NOUNS[random.nextInt(NOUNS.length)];
+        Product p = new Product(noun + " " + Integer.toString(random.nextInt(1_000_000), 36),
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                random.nextInt(500),
+                (1 + random.nextInt(20_000)) / 100.0);
+        p.setThreshold(random.nextInt(20));
+        return p;
+    }
+
+    public List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(nextProduct());
+        }
+        return products;
+    }
+
+    // Inserts {@code count} products through the batched DAO path; returns the generated ids
+    public int[] seedProducts(ProductDAO dao, int count) throws SQLException {
+        int[] ids = new int[count];
+        int next = 0;
+        while (next < count) {
+            int n = Math.min(INSERT_CHUNK, count - next);
+            int[] chunk = dao.addProducts(products(n));
+            System.arraycopy(chunk, 0, ids, next, chunk.length);
+            next += n;
+        }
+        return ids;
+    }
+
+    public List<User> seedUsers(UserDAO dao, int count) throws SQLException {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User("user" + i, "secret" + random.nextInt(1_000_000), i % 10 == 0 ? "ADMIN" : "STAFF");
+            dao.addUser(user);
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.product.java.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ConnectionPoolTest {
+
+    private final List<Connection> created = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() {
+        PoolConfig config = new PoolConfig();
+        config.setMinIdle(0);
+        config.setMaxSize(2);
+        config.setBorrowTimeoutMs(100);
+        config.setMaintenanceIntervalMs(60_000);
+        pool = new ConnectionPool(this::newMockConnection, config);
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+    }
+
+    private Connection newMockConnection() throws SQLException {
+        Connection conn = mock(Connection.class);
+        when(conn.isValid(anyInt())).thenReturn(true);
+        when(conn.getAutoCommit()).thenReturn(true);
+        created.add(conn);
+        return conn;
+    }
+
+    // ✅ Closing a borrowed connection returns it instead of closing the socket
+    @Test
+    public void testConnectionIsReusedAfterClose() throws Exception {
+        try (Connection conn = pool.getConnection()) {
+            conn.createStatement();
+        }
+        try (Connection conn = pool.getConnection()) {
+            conn.createStatement();
+        }
+
+        assertEquals(1, created.size());
+        verify(created.get(0), never()).close();
+        verify(created.get(0), times(2)).createStatement();
+
+        PoolStats stats = pool.getStats();
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getIdle());
+        assertEquals(2, stats.getBorrowCount());
+    }
+
+    // ✅ Borrowing beyond maxSize times out instead of opening more connections
+    @Test
+    public void testBorrowTimesOutWhenPoolExhausted() throws Exception {
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+        try {
+            pool.getConnection();
+            fail("Expected the third borrow to time out");
+        } catch (SQLTransientConnectionException expected) {
+            assertEquals(1, pool.getStats().getTimeoutCount());
+        } finally {
+            first.close();
+            second.close();
+        }
+        assertEquals(2, created.size());
+    }
+
+    // ✅ Idle connections that fail validation are discarded on borrow
+    @Test
+    public void testInvalidIdleConnectionIsReplaced() throws Exception {
+        pool.getConnection().close();
+        when(created.get(0).isValid(anyInt())).thenReturn(false);
+
+        try (Connection conn = pool.getConnection()) {
+            assertNotNull(conn);
+        }
+
+        assertEquals(2, created.size());
+        verify(created.get(0)).close();
+        assertEquals(1, pool.getStats().getDestroyedCount());
+    }
+
+    // ✅ A returned connection cannot be used any more and open transactions are rolled back
+    @Test
+    public void testReturnedConnectionIsUnusableAndRolledBack() throws Exception {
+        Connection conn = pool.getConnection();
+        when(created.get(0).getAutoCommit()).thenReturn(false);
+        conn.close();
+
+        verify(created.get(0)).rollback();
+        verify(created.get(0)).setAutoCommit(true);
+        assertTrue(conn.isClosed());
+        try {
+            conn.createStatement();
+            fail("Expected returned connection to reject calls");
+        } catch (SQLException expected) {
+            // expected
+        }
+    }
+
+    // ✅ Leaks are only tracked (and borrow stack traces only captured) when a threshold is set
+    @Test
+    public void testLeakDetectionFollowsThreshold() throws Exception {
+        Connection held = pool.getConnection();
+        Thread.sleep(5);
+        pool.runMaintenance();
+        assertEquals(0, pool.getStats().getLeakCount());
+        held.close();
+
+        PoolConfig config = new PoolConfig();
+        config.setMinIdle(0);
+        config.setMaintenanceIntervalMs(60_000);
+        config.setLeakThresholdMs(1);
+        try (ConnectionPool tracking = new ConnectionPool(this::newMockConnection, config)) {
+            Connection leaked = tracking.getConnection();
+            Thread.sleep(5);
+            tracking.runMaintenance();
+            assertEquals(1, tracking.getStats().getLeakCount());
+            leaked.close();
+        }
+    }
+}
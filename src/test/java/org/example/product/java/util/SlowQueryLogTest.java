@@ -0,0 +1,92 @@
+package org.example.product.java.util;
+
+import org.example.dao.ProductDAOImpl;
+import org.example.dao.UserDAOImpl;
+import org.example.model.Product;
+import org.example.model.User;
+import org.example.perf.EmbeddedDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class SlowQueryLogTest {
+
+    private EmbeddedDatabase db;
+
+    @Before
+    public void setUp() throws Exception {
+        db = EmbeddedDatabase.start("slow_query_test");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        db.close();
+    }
+
+    @Test
+    public void testShapeCollapsesLiteralsAndInLists() {
+        assertEquals("SELECT * FROM products WHERE id IN (?+) AND name = ? LIMIT ?",
+                SlowQueryLog.shapeOf("SELECT *  FROM products\n WHERE id IN (?, ?, ?) AND name = 'Pen' LIMIT 20"));
+        assertEquals(SlowQueryLog.shapeOf("DELETE FROM products WHERE id IN (?)"),
+                SlowQueryLog.shapeOf("DELETE FROM products WHERE id IN (?,?,?,?)"));
+    }
+
+    // ✅ Only parameters bound to the password column are redacted
+    @Test
+    public void testPasswordParametersAreFound() {
+        assertEquals(BitSet.valueOf(new long[]{0b100}),
+                SlowQueryLog.sensitiveParameters("SELECT * FROM users WHERE username = ? AND password = ?"));
+        assertEquals(BitSet.valueOf(new long[]{0b100}),
+                SlowQueryLog.sensitiveParameters("INSERT INTO users (username, password, role) VALUES (?, ?, ?)"));
+        assertEquals(BitSet.valueOf(new long[]{0b100}),
+                SlowQueryLog.sensitiveParameters("UPDATE users SET username = ?, password = ?, role = ? WHERE id = ?"));
+        assertTrue(SlowQueryLog.sensitiveParameters("SELECT * FROM products WHERE price BETWEEN ? AND ?").isEmpty());
+        // Unmatched mention of the column: everything is hidden
+        assertEquals(2, SlowQueryLog.sensitiveParameters("SELECT * FROM users WHERE password IN (?, ?)").cardinality());
+    }
+
+    @Test
+    public void testStatementsAreLoggedWithRedactedParametersAndOnePlanPerShape() throws Exception {
+        List<SlowQueryLog.Entry> entries = new ArrayList<>();
+        SlowQueryLog previous = DBConnection.getSlowQueryLog();
+        DBConnection.setSlowQueryLog(new SlowQueryLog(0, true, entries::add));
+        try {
+            UserDAOImpl userDAO = new UserDAOImpl();
+            userDAO.addUser(new User("alice", "s3cret", "ADMIN"));
+            assertNotNull(userDAO.getUserByCredentials("alice", "s3cret"));
+            ProductDAOImpl productDAO = new ProductDAOImpl();
+            productDAO.addProducts(List.of(new Product("Pen", "Office", 3, 1.5), new Product("Mug", "Kitchen", 4, 6.0)));
+            assertEquals(1, productDAO.getProductsByPriceRange(1.0, 2.0).size());
+            assertEquals(1, productDAO.getProductsByPriceRange(5.0, 7.0).size());
+        } finally {
+            DBConnection.setSlowQueryLog(previous);
+        }
+
+        assertTrue(entries.stream().noneMatch(e -> e.getParameters().contains("s3cret")));
+        SlowQueryLog.Entry login = find(entries, "password = ?").get(0);
+        assertEquals("['alice', '***']", login.getParameters());
+        assertEquals(1, login.getRows());
+        assertFalse("first slow run of a shape is explained", login.getPlan().isEmpty());
+
+        List<SlowQueryLog.Entry> byPrice = find(entries, "price BETWEEN");
+        assertEquals(2, byPrice.size());
+        assertEquals("[1.0, 2.0]", byPrice.get(0).getParameters());
+        assertFalse(byPrice.get(0).getPlan().isEmpty());
+        assertTrue("same shape is explained only once", byPrice.get(1).getPlan().isEmpty());
+
+        SlowQueryLog.Entry batch = find(entries, "INSERT INTO products").get(0);
+        assertTrue(batch.getParameters(), batch.getParameters().endsWith("(last of a batch of 2)"));
+        assertEquals(2, batch.getRows());
+    }
+
+    private static List<SlowQueryLog.Entry> find(List<SlowQueryLog.Entry> entries, String sqlPart) {
+        return entries.stream().filter(e -> e.getSql().contains(sqlPart)).collect(Collectors.toList());
+    }
+}
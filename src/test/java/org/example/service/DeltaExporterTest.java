@@ -0,0 +1,149 @@
+package org.example.service;
+
+import org.example.dao.ProductDAO;
+import org.example.dao.ProductQuery;
+import org.example.dao.ProductTombstone;
+import org.example.model.Product;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class DeltaExporterTest {
+
+    private static final Instant T1 = Instant.parse("2024-05-01T10:00:00.000Z");
+    private static final Instant T2 = Instant.parse("2024-05-01T11:00:00.000Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ProductDAO productDAO;
+    private DeltaExporter exporter;
+    private Path file;
+
+    @Before
+    public void setUp() {
+        productDAO = mock(ProductDAO.class);
+        exporter = new DeltaExporter(productDAO, Duration.ofSeconds(5));
+        file = folder.getRoot().toPath().resolve("changes.csv");
+    }
+
+    private static Product product(int id, String name, Instant updatedAt) {
+        Product p = new Product(id, name, "Cat", 3, 2.5);
+        p.setUpdatedAt(updatedAt);
+        return p;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenProducts(Product... products) throws Exception {
+        doAnswer(inv -> {
+            Consumer<Product> action = inv.getArgument(1);
+            for (Product p : products) {
+                action.accept(p);
+            }
+            return null;
+        }).when(productDAO).forEachProduct(any(ProductQuery.class), any(Consumer.class));
+    }
+
+    // ✅ Without a watermark every product is exported and no deletions are read
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFirstExportIsFullBaseline() throws Exception {
+        when(productDAO.currentDatabaseTime()).thenReturn(T1);
+        givenProducts(product(1, "Pen", T1), product(2, "Ink, blue", T1));
+
+        DeltaExporter.Summary summary = exporter.export(file);
+
+        assertTrue(summary.isBaseline());
+        assertEquals(2, summary.getUpserts());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals("Op,ID,Name,Category,Quantity,Price,Threshold,UpdatedAt", lines.get(0));
+        assertEquals("U,2,\"Ink, blue\",Cat,3,2.50,0," + T1, lines.get(2));
+        assertEquals(T1.toString(), Files.readString(DeltaExporter.watermarkFileFor(file)));
+        verify(productDAO, never()).forEachDeletedSince(any(), any(Consumer.class));
+    }
+
+    // ✅ The next export reads from the watermark minus the overlap and includes tombstones
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSecondExportContainsOnlyChangesAndDeletes() throws Exception {
+        Files.writeString(DeltaExporter.watermarkFileFor(file), T1.toString());
+        when(productDAO.currentDatabaseTime()).thenReturn(T2);
+        givenProducts(product(3, "Pad", T2));
+        doAnswer(inv -> {
+            Consumer<ProductTombstone> action = inv.getArgument(1);
+            action.accept(new ProductTombstone(7, T2));
+            return null;
+        }).when(productDAO).forEachDeletedSince(any(Instant.class), any(Consumer.class));
+
+        DeltaExporter.Summary summary = exporter.export(file);
+
+        Instant since = T1.minusSeconds(5);
+        ArgumentCaptor<ProductQuery> query = ArgumentCaptor.forClass(ProductQuery.class);
+        verify(productDAO).forEachProduct(query.capture(), any(Consumer.class));
+        assertTrue(query.getValue().toSql().contains("updated_at >= ?"));
+        assertEquals(Timestamp.from(since), query.getValue().parameters().get(0));
+        verify(productDAO).forEachDeletedSince(eq(since), any(Consumer.class));
+
+        assertFalse(summary.isBaseline());
+        assertEquals(1, summary.getUpserts());
+        assertEquals(1, summary.getDeletes());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals("U,3,Pad,Cat,3,2.50,0," + T2, lines.get(1));
+        assertEquals("D,7,,,,,," + T2, lines.get(2));
+        assertEquals(T2.toString(), Files.readString(DeltaExporter.watermarkFileFor(file)));
+    }
+
+    // ✅ A failed export leaves the watermark where it was
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWatermarkIsNotAdvancedWhenExportFails() throws Exception {
+        Files.writeString(DeltaExporter.watermarkFileFor(file), T1.toString());
+        when(productDAO.currentDatabaseTime()).thenReturn(T2);
+        doThrow(new SQLException("boom"))
+                .when(productDAO).forEachProduct(any(ProductQuery.class), any(Consumer.class));
+
+        try {
+            exporter.export(file);
+            fail("Expected SQLException");
+        } catch (SQLException expected) {
+            assertEquals(T1.toString(), Files.readString(DeltaExporter.watermarkFileFor(file)));
+        }
+    }
+
+    // ✅ A pending export (e.g. a mail not yet delivered) moves the watermark only on commit
+    @Test
+    public void testPendingExportAdvancesWatermarkOnlyOnCommit() throws Exception {
+        Path watermark = folder.getRoot().toPath().resolve("changes.csv.ops@example.com.watermark");
+        Files.writeString(watermark, T1.toString());
+        when(productDAO.currentDatabaseTime()).thenReturn(T2);
+        givenProducts(product(3, "Pad", T2));
+
+        DeltaExporter.Summary summary = exporter.exportPending(file, watermark);
+        assertEquals(T1.toString(), Files.readString(watermark));
+        assertFalse(Files.exists(DeltaExporter.watermarkFileFor(file)));
+
+        DeltaExporter.commit(summary);
+        assertEquals(T2.toString(), Files.readString(watermark));
+
+        // A slower, older send completing later must not move it back
+        Files.writeString(watermark, T2.plusSeconds(60).toString());
+        DeltaExporter.commit(summary);
+        assertEquals(T2.plusSeconds(60).toString(), Files.readString(watermark));
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.service;
+
+import org.example.dao.ProductDAO;
+import org.example.model.Product;
+import org.example.service.LowStockTracker.LowStockItem;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class LowStockTrackerTest {
+
+    private ProductDAO productDAO;
+    private LowStockTracker tracker;
+
+    @Before
+    public void setUp() {
+        productDAO = mock(ProductDAO.class);
+        tracker = new LowStockTracker();
+    }
+
+    private static Product product(int id, int qty, int threshold) {
+        Product p = new Product(id, "Item" + id, "Cat", qty, 1.0);
+        p.setThreshold(threshold);
+        return p;
+    }
+
+    // ✅ A product is reported once, when it crosses the threshold
+    @Test
+    public void testCrossingIsReportedOnlyOnce() throws SQLException {
+        tracker.productSaved(product(1, 2, 5));
+        tracker.productSaved(product(1, 1, 5));
+
+        List<LowStockItem> first = tracker.drainNewlyLow(productDAO);
+        assertEquals(1, first.size());
+        assertEquals(1, first.get(0).getQuantity());
+
+        tracker.productSaved(product(1, 0, 5));
+        assertTrue(tracker.drainNewlyLow(productDAO).isEmpty());
+        assertEquals(1, tracker.size());
+    }
+
+    @Test
+    public void testRecoveryBeforeAlertIsNotReported() throws SQLException {
+        tracker.productSaved(product(1, 2, 5));
+        tracker.productSaved(product(1, 9, 5));
+
+        assertTrue(tracker.drainNewlyLow(productDAO).isEmpty());
+        assertEquals(0, tracker.size());
+    }
+
+    // ✅ Quantity-only changes are re-read lazily, one lookup per changed id
+    @Test
+    public void testDirtyIdsAreResolvedOnDrain() throws SQLException {
+        when(productDAO.getProductById(7)).thenReturn(product(7, 1, 3));
+        tracker.productChanged(7);
+        tracker.productChanged(7);
+
+        List<LowStockItem> crossed = tracker.drainNewlyLow(productDAO);
+
+        assertEquals(7, crossed.get(0).getId());
+        verify(productDAO, times(1)).getProductById(7);
+        verifyNoMoreInteractions(productDAO);
+    }
+
+    @Test
+    public void testLargestShortfallFirstAndRequeue() throws SQLException {
+        tracker.productSaved(product(1, 4, 5));
+        tracker.productSaved(product(2, 0, 10));
+        tracker.productSaved(product(3, 9, 5));
+
+        List<LowStockItem> crossed = tracker.drainNewlyLow(productDAO);
+        assertEquals(2, crossed.get(0).getId());
+        assertEquals(1, crossed.get(1).getId());
+
+        tracker.productDeleted(1);
+        tracker.requeue(crossed);
+        List<LowStockItem> again = tracker.drainNewlyLow(productDAO);
+        assertEquals(1, again.size());
+        assertEquals(2, again.get(0).getId());
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.service;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MailOutboxTest {
+
+    private InMemoryMailTransport transport;
+    private MailOutbox outbox;
+
+    @Before
+    public void setUp() {
+        transport = new InMemoryMailTransport();
+    }
+
+    @After
+    public void tearDown() {
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+
+    private Message message(int n) throws MessagingException {
+        Message m = new MimeMessage(transport.getSession());
+        m.setFrom(new InternetAddress("inventory@localhost"));
+        m.setRecipients(Message.RecipientType.TO, InternetAddress.parse("admin@example.com"));
+        m.setSubject("Alert " + n);
+        m.setText("body");
+        return m;
+    }
+
+    // ✅ One worker sends every message over a single connection
+    @Test
+    public void testMessagesShareOneConnection() throws Exception {
+        outbox = new MailOutbox(transport, 100, 1, 3, 10);
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(outbox.submit(message(i)));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture<?>[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(20, transport.getSentMessages().size());
+        assertEquals(1, transport.getConnectCount());
+        assertEquals(20, outbox.getSentCount());
+        assertEquals(0, outbox.getQueueDepth());
+    }
+
+    // ✅ A transient failure reconnects and retries after a backoff
+    @Test
+    public void testFailedSendIsRetried() throws Exception {
+        outbox = new MailOutbox(transport, 10, 1, 3, 10);
+        transport.failNextSends(2);
+
+        outbox.submit(message(1)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, transport.getSentMessages().size());
+        assertEquals(2, outbox.getRetryCount());
+        assertEquals(3, transport.getConnectCount());
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() throws Exception {
+        outbox = new MailOutbox(transport, 10, 1, 2, 10);
+        transport.failNextSends(5);
+
+        try {
+            outbox.submit(message(1)).get(5, TimeUnit.SECONDS);
+            fail("Expected delivery to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof MessagingException);
+        }
+        assertEquals(1, outbox.getFailedCount());
+    }
+
+    // ✅ A refused recipient fails at once; retrying the same message cannot help
+    @Test
+    public void testRejectedRecipientIsNotRetried() throws Exception {
+        outbox = new MailOutbox(transport, 10, 1, 5, 10);
+        transport.rejectRecipient("admin@example.com");
+
+        try {
+            outbox.submit(message(1)).get(5, TimeUnit.SECONDS);
+            fail("Expected delivery to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SendFailedException);
+        }
+        assertEquals(0, outbox.getRetryCount());
+        assertEquals(1, outbox.getFailedCount());
+    }
+
+    // ✅ A full queue rejects instead of blocking the caller
+    @Test
+    public void testFullQueueRejects() throws Exception {
+        transport.setSendDelayMillis(200);
+        outbox = new MailOutbox(transport, 1, 1, 1, 10);
+
+        outbox.submit(message(1));
+        Thread.sleep(50); // worker takes the first message
+        outbox.submit(message(2));
+        CompletableFuture<Void> third = outbox.submit(message(3));
+
+        assertTrue(third.isCompletedExceptionally());
+        try {
+            third.get();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertEquals(1, outbox.getRejectedCount());
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.util;
+
+import org.example.model.Product;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CsvImporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path write(String content) throws Exception {
+        Path file = folder.newFile().toPath();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static CsvImporter<List<String>> fieldsImporter() {
+        return new CsvImporter<>(fields -> fields);
+    }
+
+    @Test
+    public void testQuotedFieldsFollowRfc4180() throws Exception {
+        Path file = write("a,b,c\r\n"
+                + "1,\"Pens, blue\",\"say \"\"hi\"\"\"\r\n"
+                + "2,\"two\nlines\",\r\n");
+
+        CsvImporter.Result<List<String>> result = fieldsImporter().readAll(file);
+
+        assertEquals(0, result.getErrorCount());
+        assertEquals(List.of("1", "Pens, blue", "say \"hi\""), result.getRows().get(0));
+        assertEquals(List.of("2", "two\nlines", ""), result.getRows().get(1));
+    }
+
+    // ✅ Tiny chunks on several threads still come back in file order
+    @Test
+    public void testChunksAreReassembledInOrder() throws Exception {
+        StringBuilder csv = new StringBuilder("id,name\n");
+        for (int i = 0; i < 5_000; i++) {
+            csv.append(i).append(",\"Item, ").append(i).append("\"\n");
+        }
+        Path file = write(csv.toString());
+        List<Long> progress = new ArrayList<>();
+
+        CsvImporter.Result<Integer> result = new CsvImporter<>(fields -> Integer.parseInt(fields.get(0)))
+                .chunkSize(64)
+                .parallelism(4)
+                .onProgress((read, total, rows) -> progress.add(read))
+                .readAll(file);
+
+        assertEquals(5_000, result.getRowCount());
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals(Integer.valueOf(i), result.getRows().get(i));
+        }
+        assertEquals(Files.size(file), (long) progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void testRecordLargerThanChunkIsKeptWhole() throws Exception {
+        String longName = "x".repeat(500);
+        Path file = write("id,name\n1,\"" + longName + "\nstill name\"\n2,short\n");
+
+        CsvImporter.Result<List<String>> result = fieldsImporter().chunkSize(16).readAll(file);
+
+        assertEquals(2, result.getRowCount());
+        assertEquals(longName + "\nstill name", result.getRows().get(0).get(1));
+    }
+
+    // ✅ Bad rows are reported with their line number and the rest still imports
+    @Test
+    public void testRowErrorsAreCollectedWithLineNumbers() throws Exception {
+        Path file = write("id,qty\n1,5\n2,abc\n3,\"multi\nline\"\n4,x\"y\n5,7\n6,\"unterminated\n");
+
+        CsvImporter.Result<Integer> result = new CsvImporter<>(fields -> Integer.parseInt(fields.get(1)))
+                .chunkSize(8)
+                .readAll(file);
+
+        assertEquals(List.of(5, 7), result.getRows());
+        assertEquals(4, result.getErrorCount());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertEquals(4, result.getErrors().get(1).getLine());
+        assertEquals(6, result.getErrors().get(2).getLine());
+        assertEquals(8, result.getErrors().get(3).getLine());
+    }
+
+    // ✅ A stray quote inside an unquoted field must not hide every later record boundary
+    @Test
+    public void testStrayQuoteDoesNotMergeTheRestOfTheFile() throws Exception {
+        StringBuilder csv = new StringBuilder("id,name\n1,12\" ruler\n");
+        for (int i = 2; i <= 20_000; i++) {
+            csv.append(i).append(",Item ").append(i).append('\n');
+        }
+        Path file = write(csv.toString());
+        List<Long> progress = new ArrayList<>();
+
+        CsvImporter.Result<List<String>> result = fieldsImporter()
+                .chunkSize(1024)
+                .onProgress((read, total, rows) -> progress.add(read))
+                .readAll(file);
+
+        assertEquals(19_999, result.getRowCount());
+        assertEquals(1, result.getErrorCount());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertTrue("file was delivered in " + progress.size() + " chunks", progress.size() > Files.size(file) / 2048);
+    }
+
+    // ✅ An unclosed quote is cut off at maxRecordSize and the import resumes on the next line
+    @Test
+    public void testOversizedRecordIsSkippedToTheNextLine() throws Exception {
+        StringBuilder csv = new StringBuilder("id,name\n1,Pen\n2,\"unclosed\n");
+        for (int i = 3; i <= 2_000; i++) {
+            csv.append(i).append(",Item ").append(i).append('\n');
+        }
+        Path file = write(csv.toString());
+
+        CsvImporter.Result<List<String>> result = fieldsImporter()
+                .chunkSize(256)
+                .maxRecordSize(4096)
+                .readAll(file);
+
+        assertEquals(1_999, result.getRowCount());
+        assertEquals(1, result.getErrorCount());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertEquals(List.of("3", "Item 3"), result.getRows().get(1));
+        assertEquals(List.of("2000", "Item 2000"), result.getRows().get(1_998));
+    }
+
+    @Test
+    public void testByteOrderMarkIsSkipped() throws Exception {
+        Path file = write("\uFEFFid,name\n1,Pen\n");
+
+        CsvImporter.Result<List<String>> result = fieldsImporter().skipHeader(false).readAll(file);
+
+        assertEquals("id", result.getRows().get(0).get(0));
+    }
+
+    @Test
+    public void testCsvHelperKeepsQuotedCommas() throws Exception {
+        Path file = write("ID,Name,Category,Quantity,Price\n"
+                + "1,\"Pens, blue\",Stationery,10,1.50\n"
+                + "2,Broken,Stationery,ten,1.00\n");
+
+        List<Product> products = CSVHelper.loadProducts(file.toString());
+
+        assertEquals(1, products.size());
+        assertEquals("Pens, blue", products.get(0).getName());
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.util;
+
+import org.example.model.Product;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class CsvWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String write(int bufferSize, CsvWriterAction action) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (CsvWriter w = new CsvWriter(Channels.newChannel(bytes), bufferSize)) {
+            action.run(w);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private interface CsvWriterAction {
+        void run(CsvWriter w) throws Exception;
+    }
+
+    @Test
+    public void testTextIsQuotedOnlyWhenNeeded() throws Exception {
+        String csv = write(64, w -> w
+                .field("plain").field("a,b").field("say \"hi\"").field("two\nlines").field((String) null)
+                .field("Café ☕ 😀").endRow());
+
+        assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",,Café ☕ 😀\n", csv);
+    }
+
+    // ✅ Same digits as String.format("%.2f"), including half-up ties
+    @Test
+    public void testMoneyMatchesStringFormat() throws Exception {
+        double[] values = {0, 1.005, 0.285, 2.675, -0.004, -1.5, 19.99, 1234567.125, 0.125, 99.995};
+        Random random = new Random(42);
+        StringBuilder expected = new StringBuilder();
+        String csv = write(64, w -> {
+            for (double v : values) {
+                w.money(v).endRow();
+                expected.append(String.format(Locale.ROOT, "%.2f", v)).append('\n');
+            }
+            for (int i = 0; i < 10_000; i++) {
+                double v = Math.round(random.nextDouble() * 1_000_000) / 1000.0;
+                w.money(v).endRow();
+                expected.append(String.format(Locale.ROOT, "%.2f", v)).append('\n');
+            }
+        });
+
+        assertEquals(expected.toString(), csv);
+    }
+
+    @Test
+    public void testNumbersAcrossBufferFlushes() throws Exception {
+        String csv = write(64, w -> {
+            for (int i = 0; i < 1_000; i++) {
+                w.field(i).field(-i * 1_000_000_007L).field(i / 3.0).endRow();
+            }
+        });
+
+        String[] lines = csv.split("\n");
+        assertEquals(1_000, lines.length);
+        assertEquals("999,-999000006993," + (999 / 3.0), lines[999]);
+    }
+
+    // ✅ saveProducts writes the threshold column and loadProducts reads it back, also gzipped
+    @Test
+    public void testCsvHelperRoundTripWithThresholdAndGzip() throws Exception {
+        Product pens = new Product(1, "Pens, blue", "Stationery", 10, 1.5);
+        pens.setThreshold(5);
+        Product book = new Product(2, "Book", "Books", 3, 12.999);
+
+        Path plain = folder.getRoot().toPath().resolve("products.csv");
+        CSVHelper.saveProducts(List.of(pens, book), plain.toString());
+        List<String> lines = Files.readAllLines(plain);
+        assertEquals("ID,Name,Category,Quantity,Price,Threshold", lines.get(0));
+        assertEquals("1,\"Pens, blue\",Stationery,10,1.50,5", lines.get(1));
+        assertEquals("2,Book,Books,3,13.00,0", lines.get(2));
+
+        List<Product> loaded = CSVHelper.loadProducts(plain.toString());
+        assertEquals("Pens, blue", loaded.get(0).getName());
+        assertEquals(5, loaded.get(0).getThreshold());
+
+        Path gz = folder.getRoot().toPath().resolve("products.csv.gz");
+        CSVHelper.saveProducts(List.of(pens, book), gz.toString());
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gz))) {
+            assertEquals(String.join("\n", lines) + "\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
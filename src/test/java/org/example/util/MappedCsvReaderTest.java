@@ -0,0 +1,109 @@
+package org.example.util;
+
+import org.example.model.Product;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MappedCsvReaderTest {
+
+    private static final String HEADER = "ID,Name,Category,Quantity,Price\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path write(String content) throws Exception {
+        Path file = folder.newFile().toPath();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static CsvImporter.Result<Product> read(MappedCsvReader reader, Path file, List<Product> into)
+            throws IOException {
+        return reader.readProducts(file, into::addAll);
+    }
+
+    // ✅ Small windows force records to straddle window boundaries; output matches the parallel importer
+    @Test
+    public void testMatchesParallelImporterAcrossWindows() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= 2_000; i++) {
+            csv.append(i).append(",\"Item, \"\"").append(i).append("\"\"\",Cat").append(i % 7)
+                    .append(',').append(i * 3).append(',').append(i).append(".").append(i % 100).append('\n');
+        }
+        Path file = write(csv.toString());
+
+        List<Product> mapped = new ArrayList<>();
+        read(new MappedCsvReader(100), file, mapped);
+        List<Product> parallel = new ArrayList<>();
+        CSVHelper.loadProducts(file.toString(), parallel::addAll, CSVHelper.ReadMode.PARALLEL);
+
+        assertEquals(2_000, mapped.size());
+        for (int i = 0; i < mapped.size(); i++) {
+            Product a = mapped.get(i);
+            Product b = parallel.get(i);
+            assertEquals(b.getId(), a.getId());
+            assertEquals(b.getName(), a.getName());
+            assertEquals(b.getCategory(), a.getCategory());
+            assertEquals(b.getQuantity(), a.getQuantity());
+            assertEquals(b.getPrice(), a.getPrice(), 0.0);
+        }
+        assertEquals("Item, \"1\"", mapped.get(0).getName());
+    }
+
+    // ✅ The byte-level number parser agrees exactly with Double.parseDouble
+    @Test
+    public void testPricesParseExactly() throws Exception {
+        String[] prices = {"0.1", "19.99", " 7 ", "-2.5", "1e3", "123456789.123456789", "0.000001", "+4.50"};
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < prices.length; i++) {
+            csv.append(i + 1).append(",P,C,1,").append(prices[i]).append("\r\n");
+        }
+        List<Product> products = new ArrayList<>();
+
+        read(new MappedCsvReader(), write(csv.toString()), products);
+
+        assertEquals(prices.length, products.size());
+        for (int i = 0; i < prices.length; i++) {
+            assertEquals(prices[i], Double.parseDouble(prices[i].trim()), products.get(i).getPrice(), 0.0);
+        }
+    }
+
+    @Test
+    public void testInvalidRowsAreReportedByLine() throws Exception {
+        Path file = write(HEADER
+                + "1,Pen,Stationery,10,1.50\n"
+                + "2,Broken,Stationery,ten,1.00\n"
+                + "\n"
+                + "3,\"Multi\nline\",Stationery,1,2.00\n"
+                + "4,Short,Stationery\n"
+                + "99999999999,Big,Stationery,1,1.00\n"
+                + "5,Last,Stationery,5,5");
+        List<Product> products = new ArrayList<>();
+
+        CsvImporter.Result<Product> result = read(new MappedCsvReader(48), file, products);
+
+        assertEquals(3, products.size());
+        assertEquals("Multi\nline", products.get(1).getName());
+        assertEquals(5.0, products.get(2).getPrice(), 0.0);
+        assertEquals(3, result.getErrorCount());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertEquals(7, result.getErrors().get(1).getLine());
+        assertEquals(8, result.getErrors().get(2).getLine());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRecordLargerThanWindowFails() throws Exception {
+        Path file = write(HEADER + "1," + "x".repeat(200) + ",C,1,1.0\n");
+        read(new MappedCsvReader(64), file, new ArrayList<>());
+    }
+}
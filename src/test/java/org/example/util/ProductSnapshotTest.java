@@ -0,0 +1,106 @@
+package org.example.util;
+
+import org.example.model.Product;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProductSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Product p = new Product(i, "Item " + i, "Category " + (i % 10), i * 7, (i % 10_000) / 100.0);
+            p.setThreshold(i % 5);
+            p.setVersion(i % 3);
+            products.add(p);
+        }
+        return products;
+    }
+
+    // ✅ Every field survives a round trip, including defaults and timestamps
+    @Test
+    public void testRoundTripKeepsAllFields() throws Exception {
+        Product full = new Product(7, "Café ☕, \"quoted\"", "Drinks", -3, 0.1 + 0.2);
+        full.setThreshold(4);
+        full.setVersion(9);
+        full.setUpdatedAt(Instant.parse("2024-05-01T10:15:30.123Z"));
+        Product empty = new Product(0, "", "", 0, 0.0);
+        Product cents = new Product(8, "Pen", "Stationery", 1, -19.99);
+        Path file = folder.getRoot().toPath().resolve("products.pb");
+
+        ProductSnapshot.saveProducts(Arrays.asList(full, empty, cents), file.toString());
+        List<Product> loaded = ProductSnapshot.loadProducts(file.toString());
+
+        assertEquals(3, loaded.size());
+        Product p = loaded.get(0);
+        assertEquals(7, p.getId());
+        assertEquals("Café ☕, \"quoted\"", p.getName());
+        assertEquals("Drinks", p.getCategory());
+        assertEquals(-3, p.getQuantity());
+        assertEquals(0.1 + 0.2, p.getPrice(), 0.0);
+        assertEquals(4, p.getThreshold());
+        assertEquals(9, p.getVersion());
+        assertEquals(Instant.parse("2024-05-01T10:15:30.123Z"), p.getUpdatedAt());
+        assertEquals("", loaded.get(1).getName());
+        assertNull(loaded.get(1).getUpdatedAt());
+        assertEquals(-19.99, loaded.get(2).getPrice(), 0.0);
+    }
+
+    // ✅ Streamed in batches, gzip detected on read, and much smaller than the CSV
+    @Test
+    public void testStreamingReadOfCompressedSnapshot() throws Exception {
+        List<Product> products = products(20_000);
+        Path csv = folder.getRoot().toPath().resolve("products.csv");
+        Path pb = folder.getRoot().toPath().resolve("products.pb");
+        Path gz = folder.getRoot().toPath().resolve("products.pb.gz");
+        CSVHelper.saveProducts(products, csv.toString());
+        ProductSnapshot.saveProducts(products, pb.toString());
+        ProductSnapshot.saveProducts(products, gz.toString());
+
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Product> loaded = new ArrayList<>();
+        long count = ProductSnapshot.loadProducts(gz.toString(), batch -> {
+            batchSizes.add(batch.size());
+            loaded.addAll(batch);
+        });
+
+        assertEquals(20_000, count);
+        assertEquals(List.of(8_192, 8_192, 3_616), batchSizes);
+        assertEquals(products.get(19_999).getPrice(), loaded.get(19_999).getPrice(), 0.0);
+        assertEquals("Category 9", loaded.get(19_998).getCategory());
+        assertTrue(Files.size(pb) < Files.size(csv));
+        assertTrue(Files.size(gz) * 3 < Files.size(csv));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedSnapshotFails() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("products.pb");
+        ProductSnapshot.saveProducts(products(10), file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        ProductSnapshot.loadProducts(file.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void testCsvIsNotReadAsSnapshot() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("products.csv");
+        CSVHelper.saveProducts(products(3), file.toString());
+
+        ProductSnapshot.loadProducts(file.toString());
+    }
+}
@@ -0,0 +1,31 @@
+-- Schema for products and users, written for MySQL and also run by H2 in MySQL mode
+-- (see org.example.perf.EmbeddedDatabase).
+
+CREATE TABLE IF NOT EXISTS products (
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    name       VARCHAR(255) NOT NULL,
+    category   VARCHAR(100) NOT NULL,
+    quantity   INT          NOT NULL DEFAULT 0,
+    price      DOUBLE       NOT NULL DEFAULT 0,
+    threshold  INT          NOT NULL DEFAULT 0,
+    version    INT          NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)
+);
+
+CREATE INDEX idx_products_name ON products (name);
+CREATE INDEX idx_products_category ON products (category);
+CREATE INDEX idx_products_updated_at ON products (updated_at);
+
+CREATE TABLE IF NOT EXISTS product_tombstones (
+    product_id INT PRIMARY KEY,
+    deleted_at TIMESTAMP(3) NOT NULL
+);
+
+CREATE INDEX idx_tombstones_deleted_at ON product_tombstones (deleted_at);
+
+CREATE TABLE IF NOT EXISTS users (
+    id       INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(100) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role     VARCHAR(50)  NOT NULL
+);